@@ -0,0 +1,153 @@
+package br.com.arquivolivre.otelcrudapi.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * One virtual thread per task, like {@link Executors#newVirtualThreadPerTaskExecutor()}, with named
+ * threads and metrics tagged {@code name}, under Micrometer's executor meter names: {@code
+ * executor.active}, {@code executor.submitted}, {@code executor.completed}, {@code executor.idle}
+ * (submit to start, i.e. waiting for a carrier) and {@code executor} (task run time).
+ */
+public class InstrumentedVirtualThreadExecutor extends AbstractExecutorService
+        implements MeterBinder {
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    // Set once bound; tasks run before that are counted but not timed
+    private volatile Timer idle;
+    private volatile Timer execution;
+
+    /**
+     * @param name the {@code name} tag
+     * @param threadPrefix thread names are this prefix followed by a counter
+     */
+    public InstrumentedVirtualThreadExecutor(String name, String threadPrefix) {
+        this(name, threadPrefix, System::nanoTime);
+    }
+
+    InstrumentedVirtualThreadExecutor(String name, String threadPrefix, LongSupplier nanoClock) {
+        this.name = name;
+        this.delegate =
+                Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name(threadPrefix, 0).factory());
+        this.nanoClock = nanoClock;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("executor.active", active, AtomicInteger::get)
+                .description("Tasks currently running")
+                .tag("name", name)
+                .baseUnit("tasks")
+                .register(registry);
+        FunctionCounter.builder("executor.submitted", submitted, LongAdder::sum)
+                .description("Tasks submitted to the executor")
+                .tag("name", name)
+                .baseUnit("tasks")
+                .register(registry);
+        FunctionCounter.builder("executor.completed", completed, LongAdder::sum)
+                .description("Tasks that have completed, successfully or not")
+                .tag("name", name)
+                .baseUnit("tasks")
+                .register(registry);
+        idle =
+                Timer.builder("executor.idle")
+                        .description("Time from submit until the task starts running")
+                        .tag("name", name)
+                        .register(registry);
+        execution =
+                Timer.builder("executor")
+                        .description("Task run time")
+                        .tag("name", name)
+                        .register(registry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = nanoClock.getAsLong();
+        submitted.increment();
+        try {
+            delegate.execute(() -> run(task, submittedAt));
+        } catch (RejectedExecutionException e) {
+            submitted.decrement();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task, long submittedAt) {
+        long start = nanoClock.getAsLong();
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            Timer idleTimer = idle;
+            if (idleTimer != null) {
+                idleTimer.record(start - submittedAt, TimeUnit.NANOSECONDS);
+                execution.record(nanoClock.getAsLong() - start, TimeUnit.NANOSECONDS);
+            }
+            completed.increment();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedVirtualThreadExecutor{name=" + name + "}";
+    }
+}
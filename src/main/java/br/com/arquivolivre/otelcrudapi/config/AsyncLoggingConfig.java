@@ -0,0 +1,98 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import br.com.arquivolivre.otelcrudapi.logging.RingBufferAppender;
+import br.com.arquivolivre.otelcrudapi.logging.TraceSampledTurboFilter;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Takes logging off the request path. With {@code app.logging.async.enabled} the console and file
+ * appenders configured by Spring Boot are moved behind a {@link RingBufferAppender}; with {@code
+ * app.logging.sampled-only.enabled} INFO lines from the hot-path loggers are only kept for sampled
+ * traces. Both are installed when the context creates these beans; logging before that stays
+ * synchronous.
+ */
+@Configuration
+@ConditionalOnClass(LoggerContext.class)
+public class AsyncLoggingConfig {
+
+    @Bean(destroyMethod = "unwrapOutputAppenders")
+    @ConditionalOnProperty(name = "app.logging.async.enabled", havingValue = "true")
+    public RingBufferAppender asyncLogAppender(
+            @Value("${app.logging.async.capacity:8192}") int capacity,
+            @Value("${app.logging.async.overflow-policy:drop}") String overflowPolicy,
+            @Value("${app.logging.async.sample-rate:10}") int sampleRate) {
+        RingBufferAppender appender = new RingBufferAppender();
+        appender.setName("ASYNC");
+        appender.setCapacity(capacity);
+        appender.setOverflowPolicy(
+                RingBufferAppender.OverflowPolicy.valueOf(overflowPolicy.toUpperCase(Locale.ROOT)));
+        appender.setSampleRate(sampleRate);
+        appender.wrapOutputAppenders(loggerContext());
+        return appender;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.logging.async.enabled", havingValue = "true")
+    public MeterBinder asyncLogAppenderMetrics(RingBufferAppender asyncLogAppender) {
+        return registry -> {
+            Gauge.builder(
+                            "logging.async.queue.depth",
+                            asyncLogAppender,
+                            RingBufferAppender::getQueueDepth)
+                    .description("Log events waiting in the async ring buffer")
+                    .register(registry);
+            Gauge.builder(
+                            "logging.async.queue.capacity",
+                            asyncLogAppender,
+                            RingBufferAppender::getCapacity)
+                    .description("Size of the async log ring buffer")
+                    .register(registry);
+            FunctionCounter.builder(
+                            "logging.async.dropped",
+                            asyncLogAppender,
+                            RingBufferAppender::getDroppedCount)
+                    .description("Log events discarded because the ring buffer was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "app.logging.sampled-only.enabled", havingValue = "true")
+    public TraceSampledTurboFilter traceSampledTurboFilter(
+            @Value(
+                            "${app.logging.sampled-only.loggers:"
+                                    + "br.com.arquivolivre.otelcrudapi.controller,"
+                                    + "br.com.arquivolivre.otelcrudapi.service}")
+                    List<String> loggers) {
+        TraceSampledTurboFilter filter = new TraceSampledTurboFilter(loggers);
+        filter.install(loggerContext());
+        return filter;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.logging.sampled-only.enabled", havingValue = "true")
+    public MeterBinder traceSampledTurboFilterMetrics(TraceSampledTurboFilter filter) {
+        return registry ->
+                FunctionCounter.builder(
+                                "logging.sampled.suppressed",
+                                filter,
+                                TraceSampledTurboFilter::getSuppressedCount)
+                        .description("Hot-path log calls skipped because the trace was not sampled")
+                        .register(registry);
+    }
+
+    private static LoggerContext loggerContext() {
+        return (LoggerContext) LoggerFactory.getILoggerFactory();
+    }
+}
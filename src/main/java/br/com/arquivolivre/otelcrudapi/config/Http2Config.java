@@ -0,0 +1,45 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tunes the HTTP/2 upgrade protocol that Spring Boot adds to the Tomcat connector when {@code
+ * server.http2.enabled=true}. Without TLS the connector accepts h2c (prior knowledge or {@code
+ * Upgrade: h2c}); with {@code server.ssl.*} configured it negotiates h2 through ALPN.
+ *
+ * <p>HTTP/2 streams are dispatched on the connector's executor. With virtual threads enabled that
+ * is the instrumented executor {@link VirtualThreadsConfig} installs in place of Spring Boot's, so
+ * streams are counted under {@code executor.*{name=tomcat}} just like HTTP/1.1 requests. Jetty and
+ * Undertow builds use Spring Boot's HTTP/2 defaults.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.apache.coyote.http2.Http2Protocol")
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+public class Http2Config {
+
+    @Bean
+    public TomcatConnectorCustomizer http2ProtocolCustomizer(
+            @Value("${app.http2.max-concurrent-streams:200}") long maxConcurrentStreams,
+            @Value("${app.http2.max-concurrent-stream-execution:200}")
+                    int maxConcurrentStreamExecution,
+            @Value("${app.http2.initial-window-size:65535}") int initialWindowSize,
+            @Value("${app.http2.keep-alive-timeout-ms:20000}") long keepAliveTimeoutMs) {
+        return connector -> {
+            for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if (upgradeProtocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution(maxConcurrentStreamExecution);
+                    http2.setInitialWindowSize(initialWindowSize);
+                    http2.setKeepAliveTimeout(keepAliveTimeoutMs);
+                }
+            }
+        };
+    }
+}
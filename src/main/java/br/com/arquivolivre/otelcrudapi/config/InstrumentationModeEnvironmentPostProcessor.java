@@ -0,0 +1,129 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Makes sure exactly one OpenTelemetry integration instruments the application, selected with
+ * {@code app.instrumentation.mode}:
+ *
+ * <ul>
+ *   <li>{@code starter} - the Spring Boot starter (default); the javaagent must not be attached.
+ *   <li>{@code agent} - the javaagent; the starter's SDK and instrumentations are switched off.
+ *   <li>{@code none} - neither; the starter is switched off and the agent must not be attached.
+ * </ul>
+ *
+ * <p>Running both produces duplicate HTTP and JDBC spans and duplicate metrics, so startup fails
+ * when the agent is attached in any mode other than {@code agent}. The Docker image reads the same
+ * setting ({@code APP_INSTRUMENTATION_MODE}) to decide whether to pass {@code -javaagent}.
+ */
+public class InstrumentationModeEnvironmentPostProcessor
+        implements EnvironmentPostProcessor, Ordered {
+
+    public static final String MODE_PROPERTY = "app.instrumentation.mode";
+
+    static final String PROPERTY_SOURCE_NAME = "instrumentationMode";
+
+    // Lives in the agent jar, which -javaagent appends to the bootstrap class path
+    private static final String AGENT_CLASS =
+            "io.opentelemetry.javaagent.bootstrap.AgentInitializer";
+
+    /** Which OpenTelemetry integration produces the application's telemetry */
+    public enum Mode {
+        AGENT,
+        STARTER,
+        NONE
+    }
+
+    private final Log logger;
+    private final BooleanSupplier agentAttached;
+
+    public InstrumentationModeEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this(
+                logFactory.getLog(InstrumentationModeEnvironmentPostProcessor.class),
+                InstrumentationModeEnvironmentPostProcessor::isAgentAttached);
+    }
+
+    InstrumentationModeEnvironmentPostProcessor(Log logger, BooleanSupplier agentAttached) {
+        this.logger = logger;
+        this.agentAttached = agentAttached;
+    }
+
+    @Override
+    public void postProcessEnvironment(
+            ConfigurableEnvironment environment, SpringApplication application) {
+        Mode mode = mode(environment);
+        boolean agent = agentAttached.getAsBoolean();
+
+        if (agent && mode != Mode.AGENT) {
+            throw new IllegalStateException(
+                    "OpenTelemetry javaagent is attached but "
+                            + MODE_PROPERTY
+                            + "="
+                            + mode.name().toLowerCase(Locale.ROOT)
+                            + "; remove -javaagent or set "
+                            + MODE_PROPERTY
+                            + "=agent to avoid double instrumentation");
+        }
+        if (mode == Mode.AGENT && !agent) {
+            logger.warn(
+                    MODE_PROPERTY
+                            + "=agent but the OpenTelemetry javaagent is not attached;"
+                            + " no telemetry will be produced");
+        }
+
+        if (mode != Mode.STARTER) {
+            // Highest precedence: the starter must stay off whatever the other sources say
+            environment
+                    .getPropertySources()
+                    .addFirst(
+                            new MapPropertySource(
+                                    PROPERTY_SOURCE_NAME,
+                                    Map.of(
+                                            "otel.sdk.disabled", "true",
+                                            "otel.instrumentation.common.default-enabled",
+                                                    "false")));
+        }
+        logger.info(
+                "OpenTelemetry instrumentation mode: "
+                        + mode.name().toLowerCase(Locale.ROOT)
+                        + (agent ? " (javaagent attached)" : ""));
+    }
+
+    @Override
+    public int getOrder() {
+        // After config data has been loaded, so application-*.properties can set the mode
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    static Mode mode(ConfigurableEnvironment environment) {
+        String value = environment.getProperty(MODE_PROPERTY, "starter").trim();
+        try {
+            return Mode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "Invalid "
+                            + MODE_PROPERTY
+                            + " '"
+                            + value
+                            + "', expected agent, starter or none");
+        }
+    }
+
+    public static boolean isAgentAttached() {
+        try {
+            Class.forName(AGENT_CLASS, false, ClassLoader.getSystemClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import br.com.arquivolivre.otelcrudapi.jfr.FlameGraphEndpoint;
+import br.com.arquivolivre.otelcrudapi.jfr.RuntimeEventMonitor;
+import br.com.arquivolivre.otelcrudapi.jfr.VirtualThreadMonitor;
+import io.opentelemetry.api.OpenTelemetry;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process JFR event streams turned into metrics. Each stream only enables the events it
+ * consumes, so the cost is that of the events themselves rather than of a full recording. The
+ * flame-graph endpoint samples execution only while a profile is being taken.
+ */
+@Configuration
+public class JfrConfig {
+
+    static final String METER_SCOPE = "br.com.arquivolivre.otelcrudapi.jfr";
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "app.jfr.virtual-threads.enabled", havingValue = "true")
+    public VirtualThreadMonitor virtualThreadMonitor(
+            @Value("${app.jfr.virtual-threads.pinned-threshold:20ms}") Duration pinnedThreshold,
+            @Value("${app.jfr.virtual-threads.stack-depth:16}") int stackDepth,
+            @Value("${app.jfr.virtual-threads.log-interval:1m}") Duration logInterval,
+            ObjectProvider<OpenTelemetry> openTelemetry) {
+        return new VirtualThreadMonitor(
+                pinnedThreshold,
+                stackDepth,
+                logInterval,
+                openTelemetry.getIfAvailable(OpenTelemetry::noop).getMeter(METER_SCOPE));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "app.jfr.runtime.enabled", havingValue = "true")
+    public RuntimeEventMonitor runtimeEventMonitor(
+            @Value("${app.jfr.runtime.allocation-throttle:150/s}") String allocationThrottle,
+            @Value("${app.jfr.runtime.top-classes:10}") int topClasses,
+            @Value("${app.jfr.runtime.allocation-window:1m}") Duration allocationWindow,
+            @Value("${app.jfr.runtime.monitor-threshold:10ms}") Duration monitorThreshold,
+            ObjectProvider<OpenTelemetry> openTelemetry) {
+        return new RuntimeEventMonitor(
+                allocationThrottle,
+                topClasses,
+                allocationWindow,
+                monitorThreshold,
+                openTelemetry.getIfAvailable(OpenTelemetry::noop).getMeter(METER_SCOPE));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.jfr.profiling.enabled", havingValue = "true")
+    public FlameGraphEndpoint flameGraphEndpoint(
+            @Value("${app.jfr.profiling.default-duration:10s}") Duration defaultDuration,
+            @Value("${app.jfr.profiling.max-duration:60s}") Duration maxDuration,
+            @Value("${app.jfr.profiling.sample-interval:10ms}") Duration sampleInterval,
+            @Value("${app.jfr.profiling.allocation-throttle:1000/s}") String allocationThrottle,
+            @Value("${app.jfr.profiling.request-threads:http-nio-.*|tomcat-handler-.*}")
+                    String requestThreads) {
+        return new FlameGraphEndpoint(
+                defaultDuration, maxDuration, sampleInterval, allocationThrottle, requestThreads);
+    }
+}
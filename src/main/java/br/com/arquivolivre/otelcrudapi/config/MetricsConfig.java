@@ -0,0 +1,93 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import br.com.arquivolivre.otelcrudapi.metrics.LatencyHistogramFilter;
+import br.com.arquivolivre.otelcrudapi.metrics.OtelExemplarSpanContext;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.ObservationRegistry;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import jakarta.servlet.DispatcherType;
+import java.time.Duration;
+import java.util.List;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+/**
+ * Latency histograms for the user endpoints and {@code @Timed} services, with the current trace ID
+ * attached to buckets as an exemplar when scraped in OpenMetrics format.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Micrometer's aspect for {@code @Timed}, applied by Boot's AspectJ auto-proxying. Declared
+     * here rather than through {@code management.observations.annotations.enabled} to label {@code
+     * class} with the simple name, which is what the {@code Class.method} bucket rules use.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(
+                meterRegistry,
+                (ProceedingJoinPoint joinPoint) ->
+                        Tags.of(
+                                "class",
+                                joinPoint
+                                        .getStaticPart()
+                                        .getSignature()
+                                        .getDeclaringType()
+                                        .getSimpleName(),
+                                "method",
+                                joinPoint.getStaticPart().getSignature().getName()));
+    }
+
+    @Bean
+    public LatencyHistogramFilter latencyHistogramFilter(
+            @Value("${app.metrics.latency.meters:http.server.requests,user.service,repository.sql}")
+                    List<String> meters,
+            @Value("${app.metrics.latency.default-buckets:5ms,10ms,25ms,50ms,100ms,250ms,500ms,1s}")
+                    List<Duration> defaultBuckets,
+            @Value("${app.metrics.latency.buckets:}") List<String> buckets) {
+        return new LatencyHistogramFilter(meters, defaultBuckets, buckets);
+    }
+
+    /**
+     * Boot's HTTP server observation filter, moved one step inside the OpenTelemetry server span
+     * filter (both default to {@code HIGHEST_PRECEDENCE + 1}) so that {@code http.server.requests}
+     * is recorded while the request's span is current and its buckets get exemplars.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerHttpObservationFilter> tracedObservationFilter(
+            ObservationRegistry observationRegistry,
+            ObjectProvider<ServerRequestObservationConvention> customConvention,
+            ObservationProperties observationProperties) {
+        String name = observationProperties.getHttp().getServer().getRequests().getName();
+        ServerRequestObservationConvention convention =
+                customConvention.getIfAvailable(
+                        () -> new DefaultServerRequestObservationConvention(name));
+        FilterRegistrationBean<ServerHttpObservationFilter> registration =
+                new FilterRegistrationBean<>(
+                        new ServerHttpObservationFilter(observationRegistry, convention));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        registration.setDispatcherTypes(
+                DispatcherType.REQUEST, DispatcherType.ASYNC, DispatcherType.ERROR);
+        return registration;
+    }
+
+    /** Picked up by the Prometheus registry auto-configuration as its exemplar source */
+    @Bean
+    @ConditionalOnProperty(name = "app.metrics.latency.exemplars", havingValue = "true")
+    public SpanContext otelExemplarSpanContext() {
+        return new OtelExemplarSpanContext();
+    }
+}
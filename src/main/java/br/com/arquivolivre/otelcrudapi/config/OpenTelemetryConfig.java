@@ -1,11 +1,116 @@
 package br.com.arquivolivre.otelcrudapi.config;
 
+import br.com.arquivolivre.otelcrudapi.tracing.AdaptiveRateLimiter;
+import br.com.arquivolivre.otelcrudapi.tracing.ErrorSpanProcessor;
+import br.com.arquivolivre.otelcrudapi.tracing.RouteSampler;
+import com.sun.management.OperatingSystemMXBean;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessorBuilder;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Customizes the SDK built by the OpenTelemetry Spring Boot starter; exporters, endpoints and
+ * resources are still configured through {@code otel.*} properties.
+ *
+ * <p>With {@code app.tracing.sampler.enabled}, new traces are sampled by {@link RouteSampler}:
+ * per-route ratios, writes always on, and a global traces-per-second cap that shrinks under CPU
+ * load. Spans are exported through {@link ErrorSpanProcessor}, which also lets through failed
+ * requests that were not sampled.
+ */
 @Configuration
+@ConditionalOnProperty(name = "app.tracing.sampler.enabled", havingValue = "true")
 public class OpenTelemetryConfig {
 
-    // OpenTelemetry configuration is handled by the Spring Boot starter
-    // Custom configuration can be added here if needed
+    @Bean
+    public RouteSampler routeSampler(
+            @Value("${app.tracing.sampler.routes:}") List<String> routes,
+            @Value("${app.tracing.sampler.default-ratio:1.0}") double defaultRatio,
+            @Value("${app.tracing.sampler.max-traces-per-second:200}") int maxTracesPerSecond,
+            @Value("${app.tracing.sampler.min-traces-per-second:10}") int minTracesPerSecond,
+            @Value("${app.tracing.sampler.cpu-target:0.7}") double cpuTarget) {
+        OperatingSystemMXBean os = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+        AdaptiveRateLimiter rateLimiter =
+                new AdaptiveRateLimiter(
+                        maxTracesPerSecond,
+                        minTracesPerSecond,
+                        cpuTarget,
+                        os::getProcessCpuLoad,
+                        System::nanoTime);
+        return new RouteSampler(routes, defaultRatio, rateLimiter);
+    }
 
+    @Bean
+    public ErrorSpanProcessor errorSpanProcessor() {
+        return new ErrorSpanProcessor();
+    }
+
+    @Bean
+    public AutoConfigurationCustomizerProvider routeSamplerCustomizer(
+            RouteSampler routeSampler, ErrorSpanProcessor errorSpanProcessor) {
+        return customizer -> {
+            // Exporters are built before span processors. The configured exporters are taken out
+            // of the SDK's processors, which get a no-op instead and are replaced: one batch
+            // processor, fed by the error span processor, exports sampled and failed unsampled
+            // spans alike
+            AtomicReference<SpanExporter> exporter = new AtomicReference<>();
+            customizer
+                    .addSamplerCustomizer((configured, config) -> routeSampler)
+                    .addSpanExporterCustomizer(
+                            (spanExporter, config) -> {
+                                exporter.accumulateAndGet(
+                                        spanExporter,
+                                        (existing, added) ->
+                                                existing == null
+                                                        ? added
+                                                        : SpanExporter.composite(existing, added));
+                                return SpanExporter.composite();
+                            })
+                    .addSpanProcessorCustomizer(
+                            (processor, config) -> {
+                                // Only holds the no-op exporter
+                                processor.shutdown();
+                                SpanExporter target = exporter.getAndSet(null);
+                                if (target == null) {
+                                    return SpanProcessor.composite();
+                                }
+                                errorSpanProcessor.attach(batchSpanProcessor(target, config));
+                                return errorSpanProcessor;
+                            });
+        };
+    }
+
+    /** Batch processor with the SDK's {@code otel.bsp.*} settings, unsampled spans let through */
+    private static SpanProcessor batchSpanProcessor(
+            SpanExporter exporter, ConfigProperties config) {
+        BatchSpanProcessorBuilder builder =
+                BatchSpanProcessor.builder(exporter).setExportUnsampledSpans(true);
+        Duration scheduleDelay = config.getDuration("otel.bsp.schedule.delay");
+        if (scheduleDelay != null) {
+            builder.setScheduleDelay(scheduleDelay);
+        }
+        Integer maxQueueSize = config.getInt("otel.bsp.max.queue.size");
+        if (maxQueueSize != null) {
+            builder.setMaxQueueSize(maxQueueSize);
+        }
+        Integer maxExportBatchSize = config.getInt("otel.bsp.max.export.batch.size");
+        if (maxExportBatchSize != null) {
+            builder.setMaxExportBatchSize(maxExportBatchSize);
+        }
+        Duration exportTimeout = config.getDuration("otel.bsp.export.timeout");
+        if (exportTimeout != null) {
+            builder.setExporterTimeout(exportTimeout);
+        }
+        return builder.build();
+    }
 }
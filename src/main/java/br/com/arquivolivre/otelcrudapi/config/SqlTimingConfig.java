@@ -0,0 +1,64 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import br.com.arquivolivre.otelcrudapi.jdbc.RepositoryMethodInterceptor;
+import br.com.arquivolivre.otelcrudapi.jdbc.SqlTimingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Per-repository-method SQL timing: every {@link DataSource} bean is wrapped in a {@link
+ * SqlTimingDataSource}, and every Spring Data repository proxy gets a {@link
+ * RepositoryMethodInterceptor} so that statements can be attributed to the method that issued them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.timing.enabled", havingValue = "true")
+public class SqlTimingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTimingDataSourcePostProcessor(
+            @Value("${app.sql.timing.slow-query-threshold:100ms}") Duration slowQueryThreshold,
+            @Value("${app.sql.timing.log-interval:1m}") Duration logInterval,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof SqlTimingDataSource)) {
+                    return new SqlTimingDataSource(
+                            dataSource, meterRegistry, slowQueryThreshold, logInterval);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryMethodPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Before initialization: the factory bean creates the repository proxy in
+                // afterPropertiesSet
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(
+                            factory ->
+                                    factory.addRepositoryProxyPostProcessor(
+                                            (proxyFactory, information) ->
+                                                    proxyFactory.addAdvice(
+                                                            new RepositoryMethodInterceptor(
+                                                                    information
+                                                                            .getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
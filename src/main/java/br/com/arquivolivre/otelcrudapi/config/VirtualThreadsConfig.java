@@ -1,28 +1,57 @@
 package br.com.arquivolivre.otelcrudapi.config;
 
-import java.util.concurrent.Executors;
+import br.com.arquivolivre.otelcrudapi.concurrent.InstrumentedVirtualThreadExecutor;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.Executor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.ConfigurableTomcatWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+/**
+ * Virtual threads for Tomcat and for {@code applicationTaskExecutor}, each with its own executor
+ * metrics ({@code name=tomcat} and {@code name=application}). Concurrency per route group is
+ * bounded by {@code BulkheadFilter} rather than here. On Jetty, Spring Boot installs Jetty's own
+ * virtual-thread pool and only the application executor comes from here.
+ */
 @Configuration
 @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
 public class VirtualThreadsConfig implements WebMvcConfigurer {
 
+    private final InstrumentedVirtualThreadExecutor taskExecutor =
+            new InstrumentedVirtualThreadExecutor("application", "task-");
+    private final InstrumentedVirtualThreadExecutor tomcatExecutor =
+            new InstrumentedVirtualThreadExecutor("tomcat", "tomcat-handler-");
+
     @Bean
     public AsyncTaskExecutor applicationTaskExecutor() {
-        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+        return new TaskExecutorAdapter(taskExecutor);
+    }
+
+    /**
+     * Installs the instrumented executor on Tomcat's protocol handler. A factory customizer rather
+     * than a {@code TomcatProtocolHandlerCustomizer} bean: Boot's virtual-thread customizer adds
+     * its own executor to the factory after the protocol handler customizer beans, so this one has
+     * to run after it for its executor to be the one that is kept.
+     */
+    @Bean
+    @ConditionalOnClass(name = "org.apache.coyote.ProtocolHandler")
+    public WebServerFactoryCustomizer<?> tomcatVirtualThreadExecutorCustomizer() {
+        return new TomcatExecutorCustomizer(tomcatExecutor);
     }
 
     @Bean
-    public TomcatProtocolHandlerCustomizer<?> protocolHandlerVirtualThreadExecutorCustomizer() {
-        return protocolHandler -> {
-            protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    public MeterBinder virtualThreadExecutorMetrics() {
+        return registry -> {
+            taskExecutor.bindTo(registry);
+            tomcatExecutor.bindTo(registry);
         };
     }
 
@@ -30,4 +59,21 @@ public class VirtualThreadsConfig implements WebMvcConfigurer {
     public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
         configurer.setTaskExecutor(applicationTaskExecutor());
     }
+
+    // A nested class rather than a lambda, so this configuration loads without Tomcat
+    private record TomcatExecutorCustomizer(Executor executor)
+            implements WebServerFactoryCustomizer<ConfigurableTomcatWebServerFactory>, Ordered {
+
+        @Override
+        public void customize(ConfigurableTomcatWebServerFactory factory) {
+            factory.addProtocolHandlerCustomizers(
+                    protocolHandler -> protocolHandler.setExecutor(executor));
+        }
+
+        @Override
+        public int getOrder() {
+            // After TomcatVirtualThreadsWebServerFactoryCustomizer (order 1)
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Binary representations (CBOR and Smile) for request and response bodies, selected through the
+ * {@code Content-Type} and {@code Accept} headers. JSON stays first in the converter list, so it
+ * remains the default when the client does not ask for a specific type.
+ *
+ * <p>Spring MVC already registers CBOR and Smile converters when the dataformats are on the
+ * classpath, but with a plain mapper. They are replaced here by converters built from Boot's {@link
+ * Jackson2ObjectMapperBuilder}, so every format honours the {@code spring.jackson.*} settings.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Autowired
+    public WireFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(
+                converter ->
+                        converter instanceof MappingJackson2CborHttpMessageConverter
+                                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(
+                new MappingJackson2SmileHttpMessageConverter(
+                        objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(
+                new MappingJackson2CborHttpMessageConverter(
+                        objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    }
+}
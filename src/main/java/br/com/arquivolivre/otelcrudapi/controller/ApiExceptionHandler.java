@@ -0,0 +1,56 @@
+package br.com.arquivolivre.otelcrudapi.controller;
+
+import br.com.arquivolivre.otelcrudapi.service.UserServiceException;
+import br.com.arquivolivre.otelcrudapi.web.IdempotencyKeyMismatchException;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps expected business outcomes to client errors in one place. These are routine under normal
+ * (and abusive) traffic, so they are logged at DEBUG without a stack trace; anything unexpected,
+ * including a plain {@link IllegalArgumentException} from a library or a bug, is left to Spring
+ * Boot's error handling, which logs it in full and answers 500.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    /** Missing user, taken email and other rejected user operations */
+    @ExceptionHandler(UserServiceException.class)
+    public ResponseEntity<Map<String, String>> handleUserServiceException(UserServiceException e) {
+        return rejected(e);
+    }
+
+    /**
+     * The response for a rejected user operation, for callers that need it as a value rather than
+     * through the advice (an idempotent request stores it for replay)
+     */
+    static ResponseEntity<Map<String, String>> rejected(UserServiceException e) {
+        logger.debug("Rejected user operation: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+    }
+
+    /** Idempotency key reused for a different payload */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyMismatch(
+            IdempotencyKeyMismatchException e) {
+        logger.debug("Idempotency key mismatch: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(createErrorResponse(e.getMessage()));
+    }
+
+    /** Create error response map */
+    private static Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        error.put("timestamp", java.time.LocalDateTime.now().toString());
+        return error;
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.arquivolivre.otelcrudapi.controller;
+
+import br.com.arquivolivre.otelcrudapi.service.UserChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/** Push alternative to polling {@code /api/users/recent}. */
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin(origins = "*")
+public class UserChangeFeedController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeedController.class);
+
+    private final UserChangeFeed userChangeFeed;
+
+    @Autowired
+    public UserChangeFeedController(UserChangeFeed userChangeFeed) {
+        this.userChangeFeed = userChangeFeed;
+    }
+
+    /** Stream user changes as Server-Sent Events, resuming after {@code Last-Event-ID} */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        logger.info("GET /api/users/changes - Subscribing after event {}", lastEventId);
+        try {
+            return ResponseEntity.ok(userChangeFeed.subscribe(lastEventId));
+        } catch (IllegalStateException e) {
+            logger.warn("Rejecting change feed subscription: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
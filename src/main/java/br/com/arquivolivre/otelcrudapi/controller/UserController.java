@@ -1,7 +1,12 @@
 package br.com.arquivolivre.otelcrudapi.controller;
 
+import br.com.arquivolivre.otelcrudapi.jfr.VirtualThreadMonitor;
 import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserStats;
 import br.com.arquivolivre.otelcrudapi.service.UserService;
+import br.com.arquivolivre.otelcrudapi.service.UserServiceException;
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import br.com.arquivolivre.otelcrudapi.web.IdempotencyStore;
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +14,7 @@ import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,10 +29,20 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final UserStatsService userStatsService;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectProvider<VirtualThreadMonitor> virtualThreadMonitor;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(
+            UserService userService,
+            UserStatsService userStatsService,
+            IdempotencyStore idempotencyStore,
+            ObjectProvider<VirtualThreadMonitor> virtualThreadMonitor) {
         this.userService = userService;
+        this.userStatsService = userStatsService;
+        this.idempotencyStore = idempotencyStore;
+        this.virtualThreadMonitor = virtualThreadMonitor;
     }
 
     /** Get all users */
@@ -53,11 +69,36 @@ public class UserController {
         return user.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
-    /** Create a new user */
+    /**
+     * Create a new user. With an {@code Idempotency-Key} header, retries of the same request get
+     * the first response back without touching the database.
+     */
     @PostMapping
-    public ResponseEntity<?> createUser(@Valid @RequestBody User user, BindingResult result) {
+    public ResponseEntity<?> createUser(
+            @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false)
+                    String idempotencyKey,
+            @Valid @RequestBody User user,
+            BindingResult result) {
         logger.info("POST /api/users - Creating new user: {}", user.getEmail());
 
+        if (idempotencyKey == null) {
+            return doCreateUser(user, result);
+        }
+        return idempotencyStore.execute(
+                idempotencyKey,
+                fingerprint(user),
+                () -> {
+                    // Mapped here rather than by the advice, so the 400 is stored and replayed
+                    // like any other response instead of running the checks again on retry
+                    try {
+                        return doCreateUser(user, result);
+                    } catch (UserServiceException e) {
+                        return ApiExceptionHandler.rejected(e);
+                    }
+                });
+    }
+
+    private ResponseEntity<?> doCreateUser(User user, BindingResult result) {
         if (result.hasErrors()) {
             Map<String, String> errors = new HashMap<>();
             result.getFieldErrors()
@@ -65,17 +106,8 @@ public class UserController {
             return ResponseEntity.badRequest().body(errors);
         }
 
-        try {
-            User createdUser = userService.createUser(user);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
-        } catch (IllegalArgumentException e) {
-            logger.error("Error creating user: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
-        } catch (Exception e) {
-            logger.error("Unexpected error creating user", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Internal server error"));
-        }
+        User createdUser = userService.createUser(user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
     }
 
     /** Update an existing user */
@@ -91,17 +123,8 @@ public class UserController {
             return ResponseEntity.badRequest().body(errors);
         }
 
-        try {
-            User updatedUser = userService.updateUser(id, userDetails);
-            return ResponseEntity.ok(updatedUser);
-        } catch (IllegalArgumentException e) {
-            logger.error("Error updating user: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
-        } catch (Exception e) {
-            logger.error("Unexpected error updating user", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Internal server error"));
-        }
+        User updatedUser = userService.updateUser(id, userDetails);
+        return ResponseEntity.ok(updatedUser);
     }
 
     /** Delete a user */
@@ -109,17 +132,8 @@ public class UserController {
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         logger.info("DELETE /api/users/{} - Deleting user", id);
 
-        try {
-            userService.deleteUser(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            logger.error("Error deleting user: {}", e.getMessage());
-            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
-        } catch (Exception e) {
-            logger.error("Unexpected error deleting user", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Internal server error"));
-        }
+        userService.deleteUser(id);
+        return ResponseEntity.noContent().build();
     }
 
     /** Search users by name */
@@ -139,6 +153,12 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /** Get user statistics (served from in-memory counters, never scans the table) */
+    @GetMapping("/stats")
+    public ResponseEntity<UserStats> getStats() {
+        return ResponseEntity.ok(userStatsService.getStats());
+    }
+
     /** Health check endpoint */
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> healthCheck() {
@@ -149,7 +169,10 @@ public class UserController {
         return ResponseEntity.ok(health);
     }
 
-    /** Thread information endpoint - demonstrates virtual threads */
+    /**
+     * Thread information endpoint - demonstrates virtual threads. With JFR monitoring enabled it
+     * also reports virtual-thread scheduler and pinning totals.
+     */
     @GetMapping("/thread-info")
     public ResponseEntity<Map<String, Object>> threadInfo() {
         Thread currentThread = Thread.currentThread();
@@ -159,15 +182,14 @@ public class UserController {
         threadInfo.put("isVirtual", currentThread.isVirtual());
         threadInfo.put("threadClass", currentThread.getClass().getSimpleName());
         threadInfo.put("timestamp", java.time.LocalDateTime.now().toString());
+        virtualThreadMonitor.ifAvailable(
+                monitor -> threadInfo.put("scheduler", monitor.schedulerStats()));
 
         return ResponseEntity.ok(threadInfo);
     }
 
-    /** Create error response map */
-    private Map<String, String> createErrorResponse(String message) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", message);
-        error.put("timestamp", java.time.LocalDateTime.now().toString());
-        return error;
+    /** Identify the request payload an idempotency key was first used with */
+    private static String fingerprint(User user) {
+        return user.getName() + '\n' + user.getEmail() + '\n' + user.getBio();
     }
 }
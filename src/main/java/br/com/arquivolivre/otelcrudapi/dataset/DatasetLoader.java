@@ -0,0 +1,186 @@
+package br.com.arquivolivre.otelcrudapi.dataset;
+
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the users table up to {@code app.dataset.users} synthetic users at startup, before the
+ * application reports ready. Two paths:
+ *
+ * <ul>
+ *   <li>{@code csv}: the generator writes CSV files of {@value #CSV_CHUNK_ROWS} rows, each inserted
+ *       with one {@code INSERT ... SELECT FROM CSVREAD} and committed. H2 only; elsewhere this
+ *       falls back to {@code jdbc}.
+ *   <li>{@code jdbc}: batched prepared inserts, committed every {@code batch-size} rows.
+ * </ul>
+ *
+ * <p>Both bypass JPA, the change feed and per-statement SQL timing; user statistics are reconciled
+ * once the load is done. With {@code n} users already present only rows {@code n} onwards are
+ * generated, so a file-backed database is filled once and topped up when the target grows.
+ */
+@Component
+@ConditionalOnProperty(name = "app.dataset.enabled", havingValue = "true")
+@Order(100)
+public class DatasetLoader implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetLoader.class);
+
+    static final int CSV_CHUNK_ROWS = 100_000;
+
+    private static final String INSERT =
+            "INSERT INTO users (name, email, bio, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CSV =
+            "INSERT INTO users (name, email, bio, created_at, updated_at)"
+                    + " SELECT name, email, bio, CAST(created_at AS TIMESTAMP),"
+                    + " CAST(created_at AS TIMESTAMP) FROM CSVREAD('%s', NULL, 'charset=UTF-8')";
+
+    public enum Strategy {
+        CSV,
+        JDBC
+    }
+
+    private final DataSource dataSource;
+    private final ObjectProvider<UserStatsService> userStatsService;
+    private final long users;
+    private final Strategy strategy;
+    private final int batchSize;
+    private final SyntheticUserGenerator generator;
+
+    @Autowired
+    public DatasetLoader(
+            DataSource dataSource,
+            ObjectProvider<UserStatsService> userStatsService,
+            @Value("${app.dataset.users:100000}") long users,
+            @Value("${app.dataset.loader:csv}") String strategy,
+            @Value("${app.dataset.batch-size:1000}") int batchSize,
+            @Value("${app.dataset.seed:42}") long seed,
+            @Value("${app.dataset.days:730}") int days) {
+        // Straight to the pool: timing and shape-recording every bulk insert only slows the load
+        this.dataSource =
+                dataSource instanceof DelegatingDataSource delegating
+                        ? delegating.getTargetDataSource()
+                        : dataSource;
+        this.userStatsService = userStatsService;
+        this.users = users;
+        this.strategy = Strategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT));
+        this.batchSize = Math.max(1, batchSize);
+        this.generator = new SyntheticUserGenerator(seed, days, LocalDateTime.now());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        load();
+        userStatsService.ifAvailable(UserStatsService::reconcile);
+    }
+
+    /**
+     * @return the number of users inserted, 0 if the table was already big enough
+     */
+    public long load() throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            long existing = count(connection);
+            if (existing >= users) {
+                logger.info("Users table already holds {} users, not loading a dataset", existing);
+                return 0;
+            }
+            Strategy effective = strategy;
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (effective == Strategy.CSV && !"H2".equals(product)) {
+                logger.warn("CSVREAD needs H2, not {}; loading with batched JDBC", product);
+                effective = Strategy.JDBC;
+            }
+
+            long missing = users - existing;
+            long start = System.nanoTime();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (effective == Strategy.CSV) {
+                    loadCsv(connection, existing, users);
+                } else {
+                    loadJdbc(connection, existing, users);
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            logger.info(
+                    "Loaded {} synthetic users with {} in {} s ({} rows/s)",
+                    missing,
+                    effective.name().toLowerCase(Locale.ROOT),
+                    String.format(Locale.ROOT, "%.1f", seconds),
+                    Math.round(missing / Math.max(seconds, 1e-3)));
+            return missing;
+        }
+    }
+
+    private void loadCsv(Connection connection, long from, long to)
+            throws SQLException, IOException {
+        Path file = Files.createTempFile("users-", ".csv");
+        // H2 reads the CSVREAD columns while preparing, so the file name has to be a literal
+        String insert = INSERT_CSV.formatted(file.toString().replace("'", "''"));
+        try (Statement statement = connection.createStatement()) {
+            for (long chunk = from; chunk < to; chunk += CSV_CHUNK_ROWS) {
+                generator.writeCsv(file, chunk, Math.min(to, chunk + CSV_CHUNK_ROWS));
+                statement.executeUpdate(insert);
+                connection.commit();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void loadJdbc(Connection connection, long from, long to) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (long i = from; i < to; i++) {
+                SyntheticUserGenerator.Row row = generator.row(i);
+                Timestamp createdAt = Timestamp.valueOf(row.createdAt());
+                insert.setString(1, row.name());
+                insert.setString(2, row.email());
+                if (row.bio() != null) {
+                    insert.setString(3, row.bio());
+                } else {
+                    insert.setNull(3, Types.VARCHAR);
+                }
+                insert.setTimestamp(4, createdAt);
+                insert.setTimestamp(5, createdAt);
+                insert.addBatch();
+                if ((i + 1 - from) % batchSize == 0 || i + 1 == to) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+    private static long count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package br.com.arquivolivre.otelcrudapi.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic users for scale testing. Row {@code i} depends only on the seed and
+ * {@code i}, so any range can be generated on its own and two runs with the same seed agree.
+ *
+ * <p>First and last names follow a Zipf distribution over common names, so a few names are very
+ * frequent, as in real user tables. Emails combine the name with {@code i} in one of a few formats
+ * over weighted domains, so they are unique. About a third of the users have no bio; the others get
+ * one to three sentences. Signups grow linearly towards {@code now} over {@code days}, so the last
+ * week holds about 2% of the users.
+ */
+public class SyntheticUserGenerator {
+
+    /** One generated user */
+    public record Row(String name, String email, String bio, LocalDateTime createdAt) {}
+
+    private static final DateTimeFormatter CSV_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss", Locale.ROOT);
+
+    private static final List<String> FIRST_NAMES =
+            List.of(
+                    "James",
+                    "Maria",
+                    "John",
+                    "Ana",
+                    "Robert",
+                    "Mary",
+                    "Michael",
+                    "Patricia",
+                    "David",
+                    "Jennifer",
+                    "William",
+                    "Linda",
+                    "Richard",
+                    "Elizabeth",
+                    "Joseph",
+                    "Barbara",
+                    "Thomas",
+                    "Susan",
+                    "Carlos",
+                    "Jessica",
+                    "Daniel",
+                    "Sarah",
+                    "Lucas",
+                    "Karen",
+                    "Pedro",
+                    "Camila",
+                    "Mark",
+                    "Julia",
+                    "Paul",
+                    "Laura",
+                    "Steven",
+                    "Emily",
+                    "Andrew",
+                    "Sofia",
+                    "Kevin",
+                    "Beatriz",
+                    "Brian",
+                    "Fernanda",
+                    "George",
+                    "Olivia",
+                    "Rafael",
+                    "Emma",
+                    "Gabriel",
+                    "Chloe",
+                    "Wei",
+                    "Mei",
+                    "Arjun",
+                    "Priya",
+                    "Hiroshi",
+                    "Yuki",
+                    "Omar",
+                    "Fatima",
+                    "Ivan",
+                    "Olga",
+                    "Lars",
+                    "Ingrid",
+                    "Kwame",
+                    "Amara",
+                    "Mateo",
+                    "Valentina");
+
+    private static final List<String> LAST_NAMES =
+            List.of(
+                    "Smith",
+                    "Silva",
+                    "Johnson",
+                    "Santos",
+                    "Williams",
+                    "Oliveira",
+                    "Brown",
+                    "Souza",
+                    "Jones",
+                    "Rodrigues",
+                    "Garcia",
+                    "Ferreira",
+                    "Miller",
+                    "Alves",
+                    "Davis",
+                    "Pereira",
+                    "Martinez",
+                    "Lima",
+                    "Wilson",
+                    "Gomes",
+                    "Anderson",
+                    "Costa",
+                    "Taylor",
+                    "Ribeiro",
+                    "Thomas",
+                    "Martins",
+                    "Moore",
+                    "Carvalho",
+                    "Jackson",
+                    "Almeida",
+                    "Martin",
+                    "Lopes",
+                    "Lee",
+                    "Soares",
+                    "Thompson",
+                    "Fernandes",
+                    "White",
+                    "Vieira",
+                    "Harris",
+                    "Barbosa",
+                    "Clark",
+                    "Rocha",
+                    "Lewis",
+                    "Dias",
+                    "Walker",
+                    "Nascimento",
+                    "Young",
+                    "Andrade",
+                    "Allen",
+                    "Moreira",
+                    "Wang",
+                    "Li",
+                    "Kumar",
+                    "Tanaka",
+                    "Kim",
+                    "Nguyen",
+                    "Muller",
+                    "Rossi",
+                    "Novak",
+                    "Okafor");
+
+    private static final List<String> DOMAINS =
+            List.of("gmail.com", "outlook.com", "yahoo.com", "icloud.com", "example.com");
+    private static final double[] DOMAIN_WEIGHTS = {0.45, 0.2, 0.15, 0.1, 0.1};
+
+    private static final List<String> ROLES =
+            List.of(
+                    "Software engineer",
+                    "Data scientist",
+                    "Product manager",
+                    "DevOps engineer",
+                    "Designer",
+                    "Student",
+                    "Site reliability engineer",
+                    "Engineering manager",
+                    "QA analyst",
+                    "Technical writer");
+
+    private static final List<String> INTERESTS =
+            List.of(
+                    "distributed systems",
+                    "observability",
+                    "open source",
+                    "machine learning",
+                    "functional programming",
+                    "databases",
+                    "cloud infrastructure",
+                    "developer experience",
+                    "performance tuning",
+                    "security");
+
+    private static final List<String> EXTRAS =
+            List.of(
+                    "Coffee enthusiast.",
+                    "Runs marathons on weekends.",
+                    "Speaks at local meetups.",
+                    "Always learning something new.",
+                    "Plays guitar in a band.",
+                    "Mentors junior developers.");
+
+    private static final double BIO_SHARE = 0.65;
+
+    private final long seed;
+    private final int days;
+    private final LocalDateTime now;
+    private final double[] firstNameCdf = zipfCdf(FIRST_NAMES.size());
+    private final double[] lastNameCdf = zipfCdf(LAST_NAMES.size());
+    private final double[] domainCdf = cdf(DOMAIN_WEIGHTS);
+
+    /**
+     * @param seed the same seed gives the same users
+     * @param days signups are spread over this many days before {@code now}
+     */
+    public SyntheticUserGenerator(long seed, int days, LocalDateTime now) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("days must be positive: " + days);
+        }
+        this.seed = seed;
+        this.days = days;
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    public Row row(long i) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + i);
+        String first = FIRST_NAMES.get(pick(firstNameCdf, random));
+        String last = LAST_NAMES.get(pick(lastNameCdf, random));
+
+        String local =
+                switch (random.nextInt(3)) {
+                    case 0 -> first + "." + last + i;
+                    case 1 -> first.charAt(0) + last + i;
+                    default -> first + "_" + i;
+                };
+        String email = local.toLowerCase(Locale.ROOT) + "@" + DOMAINS.get(pick(domainCdf, random));
+
+        String bio = null;
+        if (random.nextDouble() < BIO_SHARE) {
+            bio =
+                    ROLES.get(random.nextInt(ROLES.size()))
+                            + " interested in "
+                            + INTERESTS.get(random.nextInt(INTERESTS.size()))
+                            + ".";
+            if (random.nextBoolean()) {
+                bio += " " + EXTRAS.get(random.nextInt(EXTRAS.size()));
+            }
+        }
+
+        // Density falls linearly with age: more signups recently, as a growing service sees
+        double age = days * (1 - Math.sqrt(random.nextDouble()));
+        LocalDateTime createdAt = now.minusSeconds((long) (age * 86_400));
+        return new Row(first + " " + last, email, bio, createdAt);
+    }
+
+    /**
+     * Rows {@code from} (inclusive) to {@code to} (exclusive) as CSV with a header, every field
+     * quoted except a missing bio, which is left empty and reads back as NULL
+     */
+    public void writeCsv(Path file, long from, long to) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("NAME,EMAIL,BIO,CREATED_AT\n");
+            for (long i = from; i < to; i++) {
+                Row row = row(i);
+                writer.write(quote(row.name()));
+                writer.write(',');
+                writer.write(quote(row.email()));
+                writer.write(',');
+                if (row.bio() != null) {
+                    writer.write(quote(row.bio()));
+                }
+                writer.write(',');
+                writer.write(quote(CSV_TIMESTAMP.format(row.createdAt())));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static int pick(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cdf.length - 1);
+    }
+
+    private static double[] zipfCdf(int n) {
+        double[] weights = new double[n];
+        for (int k = 0; k < n; k++) {
+            weights[k] = 1.0 / (k + 1);
+        }
+        return cdf(weights);
+    }
+
+    private static double[] cdf(double[] weights) {
+        double total = Arrays.stream(weights).sum();
+        double[] cdf = new double[weights.length];
+        double running = 0;
+        for (int k = 0; k < weights.length; k++) {
+            running += weights[k];
+            cdf[k] = running / total;
+        }
+        return cdf;
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.arquivolivre.otelcrudapi.health;
+
+import br.com.arquivolivre.otelcrudapi.health.LoadSampler.LoadSample;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness contributor that reports OUT_OF_SERVICE while the instance is saturated: connection
+ * pool wait, in-flight requests or GC time above their thresholds.
+ *
+ * <p>Once saturated it only reports UP again when every signal has dropped below {@code
+ * recovery-ratio} of its threshold, so the probe does not flap around the limit. The result is
+ * cached for {@code cache-ttl}; concurrent probes inside that window are served the cached value.
+ */
+@Component("backpressure")
+public class BackpressureHealthIndicator implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackpressureHealthIndicator.class);
+
+    private final LoadSampler loadSampler;
+    private final double maxPoolWaitMs;
+    private final int maxInFlight;
+    private final double maxGcFraction;
+    private final double recoveryRatio;
+    private final long cacheTtlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Health cached;
+    private volatile long cachedAtNanos;
+    private boolean saturated;
+
+    @Autowired
+    public BackpressureHealthIndicator(
+            LoadSampler loadSampler,
+            @Value("${app.readiness.max-pool-wait-ms:250}") double maxPoolWaitMs,
+            @Value("${app.readiness.max-in-flight:500}") int maxInFlight,
+            @Value("${app.readiness.max-gc-fraction:0.25}") double maxGcFraction,
+            @Value("${app.readiness.recovery-ratio:0.7}") double recoveryRatio,
+            @Value("${app.readiness.cache-ttl:1s}") Duration cacheTtl) {
+        this(
+                loadSampler,
+                maxPoolWaitMs,
+                maxInFlight,
+                maxGcFraction,
+                recoveryRatio,
+                cacheTtl,
+                System::nanoTime);
+    }
+
+    BackpressureHealthIndicator(
+            LoadSampler loadSampler,
+            double maxPoolWaitMs,
+            int maxInFlight,
+            double maxGcFraction,
+            double recoveryRatio,
+            Duration cacheTtl,
+            LongSupplier nanoClock) {
+        this.loadSampler = loadSampler;
+        this.maxPoolWaitMs = maxPoolWaitMs;
+        this.maxInFlight = maxInFlight;
+        this.maxGcFraction = maxGcFraction;
+        this.recoveryRatio = recoveryRatio;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Health health() {
+        Health current = cached;
+        if (current != null && nanoClock.getAsLong() - cachedAtNanos < cacheTtlNanos) {
+            return current;
+        }
+        // Only one probe refreshes; the others keep getting the previous result meanwhile
+        if (!refreshLock.tryLock()) {
+            return current != null ? current : Health.unknown().build();
+        }
+        try {
+            Health refreshed = evaluate(loadSampler.sample());
+            cached = refreshed;
+            cachedAtNanos = nanoClock.getAsLong();
+            return refreshed;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Health evaluate(LoadSample sample) {
+        List<String> over = exceeded(sample, 1.0);
+        boolean wasSaturated = saturated;
+        if (!saturated && !over.isEmpty()) {
+            saturated = true;
+        } else if (saturated && exceeded(sample, recoveryRatio).isEmpty()) {
+            saturated = false;
+        }
+        if (saturated != wasSaturated) {
+            logger.warn(
+                    "Readiness changed to {} (poolWaitMs={}, inFlight={}, gcFraction={})",
+                    saturated ? "OUT_OF_SERVICE" : "UP",
+                    sample.poolWaitMs(),
+                    sample.inFlight(),
+                    sample.gcFraction());
+        }
+
+        Health.Builder builder = saturated ? Health.outOfService() : Health.up();
+        builder.withDetail("poolWaitMs", sample.poolWaitMs())
+                .withDetail("inFlight", sample.inFlight())
+                .withDetail("gcFraction", sample.gcFraction());
+        if (!over.isEmpty()) {
+            builder.withDetail("exceeded", over);
+        }
+        return builder.build();
+    }
+
+    private List<String> exceeded(LoadSample sample, double factor) {
+        List<String> over = new ArrayList<>();
+        if (sample.poolWaitMs() > maxPoolWaitMs * factor) {
+            over.add("poolWaitMs");
+        }
+        if (sample.inFlight() > maxInFlight * factor) {
+            over.add("inFlight");
+        }
+        if (sample.gcFraction() > maxGcFraction * factor) {
+            over.add("gcFraction");
+        }
+        return over;
+    }
+}
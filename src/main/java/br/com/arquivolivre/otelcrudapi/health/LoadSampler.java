@@ -0,0 +1,76 @@
+package br.com.arquivolivre.otelcrudapi.health;
+
+import br.com.arquivolivre.otelcrudapi.web.InFlightRequestFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Samples the load signals used for readiness. Pool wait and GC time are averaged over the interval
+ * since the previous sample, so the caller controls the window by how often it samples.
+ */
+@Component
+public class LoadSampler {
+
+    /** Load signals over the last sampling interval */
+    public record LoadSample(double poolWaitMs, int inFlight, double gcFraction) {}
+
+    private final MeterRegistry meterRegistry;
+    private final InFlightRequestFilter inFlightRequestFilter;
+    private final List<GarbageCollectorMXBean> pauseCollectors;
+
+    private long lastAcquireCount;
+    private double lastAcquireTotalMs;
+    private long lastGcMs;
+    private long lastSampleNanos = System.nanoTime();
+
+    @Autowired
+    public LoadSampler(MeterRegistry meterRegistry, InFlightRequestFilter inFlightRequestFilter) {
+        this.meterRegistry = meterRegistry;
+        this.inFlightRequestFilter = inFlightRequestFilter;
+        // Concurrent collector cycles run alongside the application and are not pauses
+        this.pauseCollectors =
+                ManagementFactory.getGarbageCollectorMXBeans().stream()
+                        .filter(gc -> !gc.getName().contains("Concurrent"))
+                        .filter(gc -> !gc.getName().contains("Cycles"))
+                        .toList();
+        this.lastGcMs = totalGcMs();
+    }
+
+    public synchronized LoadSample sample() {
+        long now = System.nanoTime();
+        double elapsedMs = Math.max(1.0, (now - lastSampleNanos) / 1_000_000.0);
+        lastSampleNanos = now;
+
+        double poolWaitMs = 0.0;
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            long count = acquire.count();
+            double totalMs = acquire.totalTime(TimeUnit.MILLISECONDS);
+            if (count > lastAcquireCount) {
+                poolWaitMs = (totalMs - lastAcquireTotalMs) / (count - lastAcquireCount);
+            }
+            lastAcquireCount = count;
+            lastAcquireTotalMs = totalMs;
+        }
+
+        long gcMs = totalGcMs();
+        double gcFraction = Math.min(1.0, (gcMs - lastGcMs) / elapsedMs);
+        lastGcMs = gcMs;
+
+        return new LoadSample(poolWaitMs, inFlightRequestFilter.getInFlight(), gcFraction);
+    }
+
+    private long totalGcMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : pauseCollectors) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
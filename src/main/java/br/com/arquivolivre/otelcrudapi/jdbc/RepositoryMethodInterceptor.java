@@ -0,0 +1,54 @@
+package br.com.arquivolivre.otelcrudapi.jdbc;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Remembers which repository method is running on the current thread, so that {@link
+ * SqlTimingDataSource} can attribute the statements it sees. Added to Spring Data repository
+ * proxies through a {@code RepositoryProxyPostProcessor}.
+ */
+public class RepositoryMethodInterceptor implements MethodInterceptor {
+
+    /** Repository interface (simple name) and method a statement was issued from */
+    public record Caller(String repository, String method) {
+
+        /** Statements issued outside a repository call: schema setup, flush at commit, etc. */
+        public static final Caller NONE = new Caller("none", "none");
+    }
+
+    private static final ThreadLocal<Caller> CURRENT = new ThreadLocal<>();
+
+    private final String repository;
+    private final Map<Method, Caller> callers = new ConcurrentHashMap<>();
+
+    public RepositoryMethodInterceptor(Class<?> repositoryInterface) {
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    public static Caller current() {
+        Caller caller = CURRENT.get();
+        return caller != null ? caller : Caller.NONE;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Caller previous = CURRENT.get();
+        CURRENT.set(
+                callers.computeIfAbsent(
+                        invocation.getMethod(),
+                        method -> new Caller(repository, method.getName())));
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
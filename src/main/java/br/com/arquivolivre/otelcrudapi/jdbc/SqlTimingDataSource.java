@@ -0,0 +1,302 @@
+package br.com.arquivolivre.otelcrudapi.jdbc;
+
+import br.com.arquivolivre.otelcrudapi.jdbc.RepositoryMethodInterceptor.Caller;
+import br.com.arquivolivre.otelcrudapi.logging.LogSampler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Times every JDBC statement and counts its rows, per repository method (see {@link
+ * RepositoryMethodInterceptor}), into {@code repository.sql} (timer) and {@code
+ * repository.sql.rows} (summary). Queries are timed from execution until their result set is
+ * closed, so fetching is included.
+ *
+ * <p>Statements slower than the threshold are logged at WARN with the SQL and the types of the
+ * bound parameters, never their values; at most once per repository method per log interval, with
+ * the number of slow statements skipped since.
+ */
+public class SqlTimingDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTimingDataSource.class);
+
+    private record Meters(Timer duration, DistributionSummary rows) {}
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long slowThresholdNanos;
+    private final LongSupplier nanoClock;
+    private final LogSampler<Caller> slowLogs;
+
+    private final Map<Caller, Meters> meters = new ConcurrentHashMap<>();
+
+    public SqlTimingDataSource(
+            DataSource target,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            Duration slowThreshold,
+            Duration logInterval) {
+        this(target, meterRegistry, slowThreshold, logInterval, System::nanoTime);
+    }
+
+    SqlTimingDataSource(
+            DataSource target,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            Duration slowThreshold,
+            Duration logInterval,
+            LongSupplier nanoClock) {
+        super(target);
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.nanoClock = nanoClock;
+        this.slowLogs = new LogSampler<>(logInterval, 1024, nanoClock);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return proxy(
+                Connection.class,
+                (proxy, method, args) -> {
+                    Object result = call(target, method, args);
+                    if (result instanceof Statement statement
+                            && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        String sql = args != null && args[0] instanceof String s ? s : null;
+                        return proxy(
+                                method.getReturnType().asSubclass(Statement.class),
+                                new StatementHandler(statement, sql));
+                    }
+                    return result;
+                });
+    }
+
+    void record(Caller caller, String sql, String parameters, long nanos, long rows) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Meters meter = meters.computeIfAbsent(caller, key -> meters(registry, key));
+            meter.duration().record(nanos, TimeUnit.NANOSECONDS);
+            meter.rows().record(rows);
+        }
+        if (nanos >= slowThresholdNanos) {
+            logSlow(caller, sql, parameters, nanos, rows);
+        }
+    }
+
+    private void logSlow(Caller caller, String sql, String parameters, long nanos, long rows) {
+        long skipped = slowLogs.sample(caller);
+        if (skipped != LogSampler.SKIP) {
+            logger.warn(
+                    "Slow SQL in {}.{}: {} ms, {} rows{}: {} {}",
+                    caller.repository(),
+                    caller.method(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos),
+                    rows,
+                    LogSampler.skipped(skipped),
+                    sql,
+                    parameters);
+        }
+    }
+
+    private static Meters meters(MeterRegistry registry, Caller caller) {
+        return new Meters(
+                Timer.builder("repository.sql")
+                        .description("JDBC statement time per repository method, fetch included")
+                        .tag("repository", caller.repository())
+                        .tag("method", caller.method())
+                        .register(registry),
+                DistributionSummary.builder("repository.sql.rows")
+                        .description("Rows returned or updated per statement")
+                        .tag("repository", caller.repository())
+                        .tag("method", caller.method())
+                        .register(registry));
+    }
+
+    /** Type of a bound parameter: the value's class, or {@code null} */
+    static String shape(Object value) {
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Map<Integer, String> parameters = new TreeMap<>();
+        private String sql;
+        private Execution pending;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2) {
+                if (args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? "null" : shape(args[1]));
+                }
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            } else if (name.equals("getResultSet") && pending != null) {
+                // The rows of a statement run with execute() are read from here
+                ResultSet resultSet = (ResultSet) call(target, method, args);
+                return resultSet == null
+                        ? null
+                        : proxy(ResultSet.class, new ResultSetHandler(resultSet, pending));
+            } else if (name.equals("close")) {
+                finish();
+            }
+            return call(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish();
+            if (args != null && args.length > 0 && args[0] instanceof String statementSql) {
+                sql = statementSql;
+            }
+            Execution execution =
+                    new Execution(
+                            RepositoryMethodInterceptor.current(),
+                            parameters.values().toString(),
+                            nanoClock.getAsLong());
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (Throwable e) {
+                execution.finish(0);
+                throw e;
+            }
+            switch (result) {
+                case ResultSet resultSet -> {
+                    // Finished when the result set (or the statement) is closed
+                    pending = execution;
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, execution));
+                }
+                case Boolean hasResultSet -> {
+                    if (hasResultSet) {
+                        // Rows are read through getResultSet(); finished when it is closed
+                        pending = execution;
+                    } else {
+                        execution.finish(Math.max(target.getUpdateCount(), 0));
+                    }
+                }
+                case Integer count -> execution.finish(Math.max(count, 0));
+                case Long count -> execution.finish(Math.max(count, 0));
+                case int[] counts -> execution.finish(sum(counts));
+                case long[] counts -> execution.finish(sum(counts));
+                default -> execution.finish(Math.max(target.getUpdateCount(), 0));
+            }
+            return result;
+        }
+
+        private void finish() {
+            if (pending != null) {
+                pending.finish(pending.rows);
+                pending = null;
+            }
+        }
+
+        private final class Execution {
+
+            private final Caller caller;
+            private final String parameterShapes;
+            private final long start;
+            private long rows;
+            private boolean finished;
+
+            private Execution(Caller caller, String parameterShapes, long start) {
+                this.caller = caller;
+                this.parameterShapes = parameterShapes;
+                this.start = start;
+            }
+
+            private void finish(long rowCount) {
+                if (!finished) {
+                    finished = true;
+                    record(caller, sql, parameterShapes, nanoClock.getAsLong() - start, rowCount);
+                }
+            }
+        }
+
+        private final class ResultSetHandler implements InvocationHandler {
+
+            private final ResultSet target;
+            private final Execution execution;
+
+            private ResultSetHandler(ResultSet target, Execution execution) {
+                this.target = target;
+                this.execution = execution;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = call(target, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    execution.rows++;
+                } else if (method.getName().equals("close")) {
+                    execution.finish(execution.rows);
+                }
+                return result;
+            }
+        }
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(
+                Proxy.newProxyInstance(
+                        SqlTimingDataSource.class.getClassLoader(),
+                        new Class<?>[] {type},
+                        handler));
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
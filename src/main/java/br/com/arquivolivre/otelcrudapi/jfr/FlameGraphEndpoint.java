@@ -0,0 +1,186 @@
+package br.com.arquivolivre.otelcrudapi.jfr;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@code GET /actuator/flamegraph}: records JFR samples for a while and returns them as collapsed
+ * stacks ({@code root;...;leaf weight} per line), the input of flamegraph.pl, speedscope or
+ * Grafana's flame graph panel.
+ *
+ * <p>{@code event=cpu} (default) uses {@code jdk.ExecutionSample}, one count per sample; {@code
+ * event=alloc} uses {@code jdk.ObjectAllocationSample}, weighted by bytes, with the allocated class
+ * as the leaf. {@code threads=request} keeps virtual threads and the platform threads whose name
+ * matches the request-thread pattern. One profile runs at a time; a second request gets 429.
+ */
+@Endpoint(id = "flamegraph")
+public class FlameGraphEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlameGraphEndpoint.class);
+
+    static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    public enum Event {
+        CPU,
+        ALLOC
+    }
+
+    public enum Threads {
+        ALL,
+        REQUEST
+    }
+
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final Duration sampleInterval;
+    private final String allocationThrottle;
+    private final Pattern requestThreads;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public FlameGraphEndpoint(
+            Duration defaultDuration,
+            Duration maxDuration,
+            Duration sampleInterval,
+            String allocationThrottle,
+            String requestThreads) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.sampleInterval = sampleInterval;
+        this.allocationThrottle = allocationThrottle;
+        this.requestThreads = Pattern.compile(requestThreads);
+    }
+
+    @ReadOperation(produces = "text/plain;charset=UTF-8")
+    public WebEndpointResponse<String> flameGraph(
+            @Nullable Duration duration, @Nullable Event event, @Nullable Threads threads) {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(
+                    "JFR is not available\n", WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        if (!running.compareAndSet(false, true)) {
+            return new WebEndpointResponse<>(
+                    "A profile is already running\n", WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            Duration length = duration == null ? defaultDuration : duration;
+            if (length.compareTo(maxDuration) > 0) {
+                length = maxDuration;
+            }
+            return new WebEndpointResponse<>(
+                    profile(
+                                    length,
+                                    event == null ? Event.CPU : event,
+                                    threads == null ? Threads.ALL : threads)
+                            .format());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WebEndpointResponse<>(
+                    "Profile interrupted\n", WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    boolean isRunning() {
+        return running.get();
+    }
+
+    CollapsedStacks profile(Duration duration, Event event, Threads threads)
+            throws InterruptedException {
+        CollapsedStacks stacks = new CollapsedStacks();
+        try (RecordingStream stream = new RecordingStream()) {
+            if (event == Event.CPU) {
+                stream.enable(EXECUTION_SAMPLE).withPeriod(sampleInterval).withStackTrace();
+                stream.onEvent(
+                        EXECUTION_SAMPLE,
+                        e -> {
+                            if (accept(e.getThread("sampledThread"), threads)) {
+                                stacks.add(frames(e.getStackTrace()), 1);
+                            }
+                        });
+            } else {
+                stream.enable(ALLOCATION_SAMPLE)
+                        .with("throttle", allocationThrottle)
+                        .withStackTrace();
+                stream.onEvent(
+                        ALLOCATION_SAMPLE,
+                        e -> {
+                            if (accept(e.getThread(), threads)) {
+                                List<String> frames = frames(e.getStackTrace());
+                                frames.add(e.getClass("objectClass").getName());
+                                stacks.add(frames, e.getLong("weight"));
+                            }
+                        });
+            }
+            logger.info("Profiling {} on {} threads for {}", event, threads, duration);
+            stream.startAsync();
+            Thread.sleep(duration);
+            // Unlike close(), stop() waits until the events recorded so far have been consumed
+            stream.stop();
+        }
+        return stacks;
+    }
+
+    boolean accept(RecordedThread thread, Threads threads) {
+        if (threads == Threads.ALL) {
+            return true;
+        }
+        return thread != null
+                && (thread.isVirtual()
+                        || thread.getJavaName() != null
+                                && requestThreads.matcher(thread.getJavaName()).matches());
+    }
+
+    /** Root first, as collapsed stacks expect; JFR lists the leaf first */
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        List<String> frames = new ArrayList<>();
+        if (stackTrace == null) {
+            return frames;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName());
+        }
+        if (stackTrace.isTruncated()) {
+            frames.add("[truncated]");
+        }
+        Collections.reverse(frames);
+        return frames;
+    }
+
+    /** Weight per distinct stack */
+    static final class CollapsedStacks {
+
+        private final Map<String, Long> weights = new TreeMap<>();
+
+        void add(List<String> rootFirst, long weight) {
+            if (!rootFirst.isEmpty()) {
+                weights.merge(String.join(";", rootFirst), weight, Long::sum);
+            }
+        }
+
+        String format() {
+            StringBuilder out = new StringBuilder();
+            weights.forEach(
+                    (stack, weight) -> out.append(stack).append(' ').append(weight).append('\n'));
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package br.com.arquivolivre.otelcrudapi.jfr;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleGauge;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams JVM runtime events from JFR into OpenTelemetry metrics, replacing what used to be read
+ * out of the GC log by hand.
+ *
+ * <ul>
+ *   <li>{@code jdk.ObjectAllocationSample} (throttled) estimates the allocated bytes, and the rate
+ *       of the top allocating classes over the last window
+ *   <li>{@code jdk.GarbageCollection} feeds a pause histogram per collector and cause
+ *   <li>{@code jdk.SafepointBegin} (time to reach the safepoint) and {@code jdk.ExecuteVMOperation}
+ *       (the operation run inside it) add up to the time application threads were stopped
+ *   <li>{@code jdk.JavaMonitorEnter} above the threshold feeds a contention histogram per monitor
+ *       class
+ * </ul>
+ *
+ * <p>No stack traces are taken. The metrics carry the service instance through the OpenTelemetry
+ * resource, like the request latency metrics.
+ */
+public class RuntimeEventMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeEventMonitor.class);
+
+    static final String ALLOCATION_EVENT = "jdk.ObjectAllocationSample";
+    static final String GC_EVENT = "jdk.GarbageCollection";
+    static final String SAFEPOINT_EVENT = "jdk.SafepointBegin";
+    static final String VM_OPERATION_EVENT = "jdk.ExecuteVMOperation";
+    static final String MONITOR_EVENT = "jdk.JavaMonitorEnter";
+
+    static final AttributeKey<String> CLASS_NAME = AttributeKey.stringKey("jvm.class.name");
+    static final AttributeKey<String> GC_NAME = AttributeKey.stringKey("jvm.gc.name");
+    static final AttributeKey<String> GC_CAUSE = AttributeKey.stringKey("jvm.gc.cause");
+    static final AttributeKey<String> OPERATION = AttributeKey.stringKey("jvm.safepoint.operation");
+    static final AttributeKey<String> MONITOR_CLASS = AttributeKey.stringKey("jvm.monitor.class");
+
+    /** Bucket boundaries in seconds for pause-like durations, from 100 us to 10 s */
+    static final List<Double> PAUSE_BUCKETS =
+            List.of(
+                    0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0,
+                    2.5, 5.0, 10.0);
+
+    /** Distinct monitor classes reported before the rest are folded into {@code other} */
+    static final int MAX_MONITOR_CLASSES = 64;
+
+    /** Bytes per second allocated for one class over the last completed window */
+    record AllocationRate(String className, double bytesPerSecond) {}
+
+    private final String allocationThrottle;
+    private final int topClasses;
+    private final long windowNanos;
+    private final Duration monitorThreshold;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, LongAdder> windowBytes = new ConcurrentHashMap<>();
+    private final Map<String, Attributes> monitorClasses = new ConcurrentHashMap<>();
+    private volatile List<AllocationRate> topAllocations = List.of();
+    private volatile long windowStart;
+
+    private final LongCounter allocated;
+    private final ObservableDoubleGauge allocationRate;
+    private final DoubleHistogram gcPause;
+    private final DoubleHistogram safepointSync;
+    private final DoubleHistogram safepointOperation;
+    private final DoubleHistogram monitorContention;
+
+    private RecordingStream stream;
+
+    public RuntimeEventMonitor(
+            String allocationThrottle,
+            int topClasses,
+            Duration allocationWindow,
+            Duration monitorThreshold,
+            Meter meter) {
+        this(
+                allocationThrottle,
+                topClasses,
+                allocationWindow,
+                monitorThreshold,
+                meter,
+                System::nanoTime);
+    }
+
+    RuntimeEventMonitor(
+            String allocationThrottle,
+            int topClasses,
+            Duration allocationWindow,
+            Duration monitorThreshold,
+            Meter meter,
+            LongSupplier nanoClock) {
+        this.allocationThrottle = allocationThrottle;
+        this.topClasses = topClasses;
+        this.windowNanos = allocationWindow.toNanos();
+        this.monitorThreshold = monitorThreshold;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+
+        allocated =
+                meter.counterBuilder("jvm.memory.allocated")
+                        .setUnit("By")
+                        .setDescription("Bytes allocated on the heap, estimated from JFR samples")
+                        .build();
+        allocationRate =
+                meter.gaugeBuilder("jvm.memory.allocation.rate")
+                        .setUnit("By/s")
+                        .setDescription("Allocation rate of the top allocating classes")
+                        .buildWithCallback(
+                                m ->
+                                        topAllocations.forEach(
+                                                rate ->
+                                                        m.record(
+                                                                rate.bytesPerSecond(),
+                                                                Attributes.of(
+                                                                        CLASS_NAME,
+                                                                        rate.className()))));
+        gcPause = histogram(meter, "jvm.gc.pause.duration", "Time spent in GC pauses");
+        safepointSync =
+                histogram(
+                        meter,
+                        "jvm.safepoint.sync.duration",
+                        "Time to bring application threads to a safepoint");
+        safepointOperation =
+                histogram(
+                        meter,
+                        "jvm.safepoint.operation.duration",
+                        "Time spent running VM operations at a safepoint");
+        monitorContention =
+                histogram(
+                        meter,
+                        "jvm.monitor.contention.duration",
+                        "Time threads blocked entering a contended monitor");
+    }
+
+    /** Start streaming; a JVM without Flight Recorder reports nothing */
+    public void start() {
+        if (!FlightRecorder.isAvailable()) {
+            logger.warn("JFR is not available, runtime metrics will not be reported");
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(ALLOCATION_EVENT).with("throttle", allocationThrottle).withoutStackTrace();
+        stream.enable(GC_EVENT);
+        stream.enable(SAFEPOINT_EVENT).withoutStackTrace();
+        stream.enable(VM_OPERATION_EVENT).withoutStackTrace();
+        stream.enable(MONITOR_EVENT).withThreshold(monitorThreshold).withoutStackTrace();
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.onEvent(
+                ALLOCATION_EVENT,
+                e -> onAllocation(className(e.getClass("objectClass")), e.getLong("weight")));
+        stream.onEvent(
+                GC_EVENT,
+                e ->
+                        onGarbageCollection(
+                                e.getString("name"),
+                                e.getString("cause"),
+                                e.getDuration("sumOfPauses")));
+        stream.onEvent(SAFEPOINT_EVENT, e -> onSafepoint(e.getDuration()));
+        stream.onEvent(VM_OPERATION_EVENT, this::onVmOperationEvent);
+        stream.onEvent(
+                MONITOR_EVENT,
+                e -> onMonitorContended(className(e.getClass("monitorClass")), e.getDuration()));
+        // Flushes happen about once a second, which is plenty to close allocation windows
+        stream.onFlush(this::rollWindow);
+        stream.startAsync();
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+        allocationRate.close();
+    }
+
+    void onAllocation(String className, long bytes) {
+        allocated.add(bytes);
+        windowBytes.computeIfAbsent(className, key -> new LongAdder()).add(bytes);
+    }
+
+    /** Publish the top classes of the current window once it is complete, and start a new one */
+    void rollWindow() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - windowStart;
+        if (elapsed < windowNanos) {
+            return;
+        }
+        windowStart = now;
+        double seconds = elapsed / 1e9;
+        topAllocations =
+                windowBytes.entrySet().stream()
+                        .map(e -> new AllocationRate(e.getKey(), e.getValue().sum() / seconds))
+                        .sorted(
+                                Comparator.comparingDouble(AllocationRate::bytesPerSecond)
+                                        .reversed())
+                        .limit(topClasses)
+                        .toList();
+        windowBytes.clear();
+    }
+
+    List<AllocationRate> topAllocations() {
+        return topAllocations;
+    }
+
+    void onGarbageCollection(String name, String cause, Duration pauses) {
+        gcPause.record(seconds(pauses), Attributes.of(GC_NAME, name, GC_CAUSE, cause));
+    }
+
+    void onSafepoint(Duration sync) {
+        safepointSync.record(seconds(sync));
+    }
+
+    private void onVmOperationEvent(RecordedEvent event) {
+        // Handshakes and other non-safepoint operations do not stop the application
+        if (event.getBoolean("safepoint")) {
+            onVmOperation(event.getString("operation"), event.getDuration());
+        }
+    }
+
+    void onVmOperation(String operation, Duration duration) {
+        safepointOperation.record(seconds(duration), Attributes.of(OPERATION, operation));
+    }
+
+    void onMonitorContended(String monitorClass, Duration blocked) {
+        Attributes attributes = monitorClasses.get(monitorClass);
+        if (attributes == null) {
+            attributes =
+                    monitorClasses.size() < MAX_MONITOR_CLASSES
+                            ? monitorClasses.computeIfAbsent(
+                                    monitorClass, key -> Attributes.of(MONITOR_CLASS, key))
+                            : Attributes.of(MONITOR_CLASS, "other");
+        }
+        monitorContention.record(seconds(blocked), attributes);
+    }
+
+    private static DoubleHistogram histogram(Meter meter, String name, String description) {
+        return meter.histogramBuilder(name)
+                .setUnit("s")
+                .setDescription(description)
+                .setExplicitBucketBoundariesAdvice(PAUSE_BUCKETS)
+                .build();
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass == null ? "unknown" : recordedClass.getName();
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,293 @@
+package br.com.arquivolivre.otelcrudapi.jfr;
+
+import br.com.arquivolivre.otelcrudapi.logging.LogSampler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams virtual-thread events from JFR into metrics.
+ *
+ * <p>{@code jdk.VirtualThreadPinned} (a virtual thread that blocked without releasing its carrier
+ * for longer than the threshold) feeds a pinned-time timer, and its stack is logged at WARN, once
+ * per call site per log interval so a hot pinning site cannot flood the log. {@code
+ * jdk.VirtualThreadSubmitFailed} (the scheduler rejected a virtual thread) feeds a counter.
+ * Scheduler parallelism, carrier pool size, mounted and queued virtual threads come from the
+ * scheduler MXBean (JDK 24+; reported as -1 when it is not available).
+ *
+ * <p>Everything is exported both to Micrometer and to the OpenTelemetry meter.
+ */
+public class VirtualThreadMonitor implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+
+    private static final String SCHEDULER_MBEAN = "jdk.management:type=VirtualThreadScheduler";
+
+    /** Aggregate virtual-thread scheduler state, as reported by {@code /thread-info} */
+    public record SchedulerStats(
+            int parallelism,
+            int poolSize,
+            int mountedVirtualThreads,
+            long queuedVirtualThreads,
+            long pinnedEvents,
+            double pinnedTotalMs,
+            long submitFailed) {}
+
+    private final Duration pinnedThreshold;
+    private final int stackDepth;
+    private final LogSampler<String> siteLogs;
+
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final LongAdder submitFailed = new LongAdder();
+
+    private final DoubleHistogram otelPinned;
+    private final LongCounter otelSubmitFailed;
+    private final List<ObservableLongGauge> otelGauges = new ArrayList<>();
+
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final ObjectName schedulerName;
+
+    private RecordingStream stream;
+
+    public VirtualThreadMonitor(
+            Duration pinnedThreshold, int stackDepth, Duration logInterval, Meter meter) {
+        this(pinnedThreshold, stackDepth, logInterval, meter, System::nanoTime);
+    }
+
+    VirtualThreadMonitor(
+            Duration pinnedThreshold,
+            int stackDepth,
+            Duration logInterval,
+            Meter meter,
+            LongSupplier nanoClock) {
+        this.pinnedThreshold = pinnedThreshold;
+        this.stackDepth = stackDepth;
+        this.siteLogs = new LogSampler<>(logInterval, 1024, nanoClock);
+        this.schedulerName = schedulerMBean(mbeanServer);
+
+        otelPinned =
+                meter.histogramBuilder("jvm.thread.virtual.pinned.duration")
+                        .setUnit("s")
+                        .setDescription("Time virtual threads blocked while pinned to a carrier")
+                        .setExplicitBucketBoundariesAdvice(RuntimeEventMonitor.PAUSE_BUCKETS)
+                        .build();
+        otelSubmitFailed =
+                meter.counterBuilder("jvm.thread.virtual.submit.failed")
+                        .setDescription("Virtual threads the scheduler failed to start or unpark")
+                        .build();
+        otelGauges.add(
+                meter.gaugeBuilder("jvm.thread.virtual.scheduler.pool.size")
+                        .ofLongs()
+                        .setDescription("Carrier threads in the virtual-thread scheduler")
+                        .buildWithCallback(m -> m.record(schedulerStats().poolSize())));
+        otelGauges.add(
+                meter.gaugeBuilder("jvm.thread.virtual.scheduler.mounted")
+                        .ofLongs()
+                        .setDescription("Virtual threads currently mounted on a carrier")
+                        .buildWithCallback(
+                                m -> m.record(schedulerStats().mountedVirtualThreads())));
+        otelGauges.add(
+                meter.gaugeBuilder("jvm.thread.virtual.scheduler.queued")
+                        .ofLongs()
+                        .setDescription("Virtual threads waiting for a carrier")
+                        .buildWithCallback(m -> m.record(schedulerStats().queuedVirtualThreads())));
+    }
+
+    /** Start streaming; a JVM without Flight Recorder only reports the scheduler MXBean */
+    public void start() {
+        if (!FlightRecorder.isAvailable()) {
+            logger.warn("JFR is not available, virtual-thread pinning will not be reported");
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        stream.enable(SUBMIT_FAILED_EVENT);
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.onEvent(PINNED_EVENT, this::onPinnedEvent);
+        stream.onEvent(SUBMIT_FAILED_EVENT, e -> onSubmitFailed(e.getString("exceptionMessage")));
+        stream.startAsync();
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+        otelGauges.forEach(ObservableLongGauge::close);
+    }
+
+    public SchedulerStats schedulerStats() {
+        return new SchedulerStats(
+                intAttribute("Parallelism", defaultParallelism()),
+                intAttribute("PoolSize", -1),
+                intAttribute("MountedVirtualThreadCount", -1),
+                longAttribute("QueuedVirtualThreadCount"),
+                pinnedCount.sum(),
+                pinnedNanos.sum() / 1_000_000.0,
+                submitFailed.sum());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same names as Micrometer's own VirtualThreadMetrics, so dashboards work with either
+        FunctionTimer.builder(
+                        "jvm.threads.virtual.pinned",
+                        this,
+                        m -> m.pinnedCount.sum(),
+                        m -> m.pinnedNanos.sum(),
+                        TimeUnit.NANOSECONDS)
+                .description("Time virtual threads blocked while pinned to a carrier")
+                .register(registry);
+        FunctionCounter.builder("jvm.threads.virtual.submit.failed", submitFailed, LongAdder::sum)
+                .description("Virtual threads the scheduler failed to start or unpark")
+                .register(registry);
+        Gauge.builder(
+                        "jvm.threads.virtual.scheduler.parallelism",
+                        this,
+                        m -> m.schedulerStats().parallelism())
+                .description("Target number of carrier threads")
+                .register(registry);
+        Gauge.builder(
+                        "jvm.threads.virtual.scheduler.pool.size",
+                        this,
+                        m -> m.schedulerStats().poolSize())
+                .description("Carrier threads in the virtual-thread scheduler")
+                .register(registry);
+        Gauge.builder(
+                        "jvm.threads.virtual.scheduler.mounted",
+                        this,
+                        m -> m.schedulerStats().mountedVirtualThreads())
+                .description("Virtual threads currently mounted on a carrier")
+                .register(registry);
+        Gauge.builder(
+                        "jvm.threads.virtual.scheduler.queued",
+                        this,
+                        m -> m.schedulerStats().queuedVirtualThreads())
+                .description("Virtual threads waiting for a carrier")
+                .register(registry);
+    }
+
+    private void onPinnedEvent(RecordedEvent event) {
+        // pinnedReason was added in JDK 24
+        String reason = event.hasField("pinnedReason") ? event.getString("pinnedReason") : null;
+        onPinned(event.getDuration(), reason, frames(event.getStackTrace()));
+    }
+
+    void onPinned(Duration duration, String reason, List<String> frames) {
+        pinnedCount.increment();
+        pinnedNanos.add(duration.toNanos());
+        otelPinned.record(duration.toNanos() / 1e9);
+
+        String site = site(frames);
+        long skipped = siteLogs.sample(site);
+        if (skipped != LogSampler.SKIP) {
+            logger.warn(
+                    "Virtual thread pinned for {} ms{} at {}{}\n\tat {}",
+                    duration.toMillis(),
+                    reason == null ? "" : " (" + reason + ")",
+                    site,
+                    LogSampler.skipped(skipped),
+                    String.join("\n\tat ", frames));
+        }
+    }
+
+    void onSubmitFailed(String message) {
+        submitFailed.increment();
+        otelSubmitFailed.add(1);
+        logger.error("Virtual thread could not be scheduled: {}", message);
+    }
+
+    private List<String> frames(RecordedStackTrace stackTrace) {
+        List<String> frames = new ArrayList<>();
+        if (stackTrace == null) {
+            return frames;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frames.size() == stackDepth) {
+                break;
+            }
+            frames.add(
+                    frame.getMethod().getType().getName()
+                            + "."
+                            + frame.getMethod().getName()
+                            + ":"
+                            + frame.getLineNumber());
+        }
+        return frames;
+    }
+
+    /** First frame outside the JDK, i.e. the code that did the pinning */
+    static String site(List<String> frames) {
+        for (String frame : frames) {
+            if (!frame.startsWith("java.")
+                    && !frame.startsWith("jdk.")
+                    && !frame.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0);
+    }
+
+    private int intAttribute(String name, int fallback) {
+        Object value = attribute(name);
+        return value instanceof Number number ? number.intValue() : fallback;
+    }
+
+    private long longAttribute(String name) {
+        Object value = attribute(name);
+        return value instanceof Number number ? number.longValue() : -1;
+    }
+
+    private Object attribute(String name) {
+        if (schedulerName == null) {
+            return null;
+        }
+        try {
+            return mbeanServer.getAttribute(schedulerName, name);
+        } catch (JMException e) {
+            return null;
+        }
+    }
+
+    private static ObjectName schedulerMBean(MBeanServer server) {
+        try {
+            ObjectName name = new ObjectName(SCHEDULER_MBEAN);
+            return server.isRegistered(name) ? name : null;
+        } catch (JMException e) {
+            return null;
+        }
+    }
+
+    private static int defaultParallelism() {
+        String configured = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return configured != null
+                ? Integer.parseInt(configured)
+                : Runtime.getRuntime().availableProcessors();
+    }
+}
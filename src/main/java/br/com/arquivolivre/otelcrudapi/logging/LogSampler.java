@@ -0,0 +1,65 @@
+package br.com.arquivolivre.otelcrudapi.logging;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate-limits a log line per key: the first event of a key is logged, then at most one per
+ * interval, reporting how many events of that key were skipped in between. Used for the pinning
+ * stacks and the slow SQL warnings, so a hot site cannot flood the log.
+ *
+ * <p>Keys are forgotten all at once past {@code maxKeys}; the next event of each is logged again.
+ */
+public class LogSampler<K> {
+
+    /** Returned by {@link #sample} for an event that should not be logged */
+    public static final long SKIP = -1;
+
+    /**
+     * When a key was last logged and how many of its events were skipped since; {@code report} is
+     * the skipped count to log with this event, or {@link #SKIP}
+     */
+    private record Entry(long loggedAt, long skipped, long report) {}
+
+    private final long intervalNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry> entries = new ConcurrentHashMap<>();
+
+    public LogSampler(Duration interval, int maxKeys, LongSupplier nanoClock) {
+        this.intervalNanos = interval.toNanos();
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Records an event of {@code key}: {@link #SKIP} if it should not be logged, otherwise the
+     * number of events skipped since the key was last logged
+     */
+    public long sample(K key) {
+        long now = nanoClock.getAsLong();
+        Entry entry =
+                entries.compute(
+                        key,
+                        (k, last) -> {
+                            if (last == null) {
+                                return new Entry(now, 0, 0);
+                            }
+                            if (now - last.loggedAt() >= intervalNanos) {
+                                return new Entry(now, 0, last.skipped());
+                            }
+                            return new Entry(last.loggedAt(), last.skipped() + 1, SKIP);
+                        });
+        if (entries.size() > maxKeys) {
+            entries.clear();
+        }
+        return entry.report();
+    }
+
+    /** Suffix for a logged line: how many events were skipped since the last report, if any */
+    public static String skipped(long report) {
+        return report > 0 ? " (" + report + " more since last report)" : "";
+    }
+}
@@ -0,0 +1,297 @@
+package br.com.arquivolivre.otelcrudapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous appender backed by a lock-free bounded ring buffer. Logging threads only format the
+ * event and claim a slot; a single drainer thread writes to the attached appenders, so console and
+ * file I/O happen off the request path.
+ *
+ * <p>The buffer is a multi-producer, single-consumer array queue: each slot carries a sequence
+ * number that tells producers whether it is free for their position and the consumer whether it has
+ * been published, so neither side takes a lock. What happens when it is full is set by {@link
+ * OverflowPolicy}; WARN and ERROR events always wait for space rather than being lost.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    /** What a logging thread does when the buffer is full */
+    public enum OverflowPolicy {
+        /** Discard the event and count it */
+        DROP,
+        /** Wait for the drainer to free a slot */
+        BLOCK,
+        /** Wait for one event in every {@code sampleRate}, discard the rest */
+        SAMPLE
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private int capacity = 8192;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private int sampleRate = 10;
+
+    private int mask;
+    private AtomicReferenceArray<ILoggingEvent> slots;
+    private AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private volatile boolean drainerWaiting;
+    private Thread drainer;
+    private AppenderAttachable<ILoggingEvent> parent;
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        super.start();
+        drainer = new Thread(this::drain, "async-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /** Stop accepting events, write out what is buffered and stop the drainer thread */
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Move the console and file appenders behind this one and start it. They are looked for on the
+     * root logger and one level down, since the OpenTelemetry MDC appender wraps them to add trace
+     * ids. Other appenders stay where they are: the OpenTelemetry log appender, for one, reads the
+     * current span when it is called and must run on the logging thread.
+     */
+    public void wrapOutputAppenders(LoggerContext loggerContext) {
+        setContext(loggerContext);
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        parent = root;
+        List<Appender<ILoggingEvent>> outputs = outputAppenders(root);
+        if (outputs.isEmpty()) {
+            Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders();
+            while (it.hasNext() && outputs.isEmpty()) {
+                if (it.next() instanceof AppenderAttachable<?> attachable) {
+                    @SuppressWarnings("unchecked")
+                    AppenderAttachable<ILoggingEvent> candidate =
+                            (AppenderAttachable<ILoggingEvent>) attachable;
+                    parent = candidate;
+                    outputs = outputAppenders(candidate);
+                }
+            }
+        }
+        if (outputs.isEmpty()) {
+            parent = root;
+        }
+        outputs.forEach(this::addAppender);
+        start();
+        outputs.forEach(parent::detachAppender);
+        parent.addAppender(this);
+    }
+
+    /** Flush the buffer and give the wrapped appenders back to where they were */
+    public void unwrapOutputAppenders() {
+        parent.detachAppender(this);
+        stop();
+        iteratorForAppenders().forEachRemaining(parent::addAppender);
+    }
+
+    private static List<Appender<ILoggingEvent>> outputAppenders(
+            AppenderAttachable<ILoggingEvent> attachable) {
+        List<Appender<ILoggingEvent>> outputs = new ArrayList<>();
+        attachable
+                .iteratorForAppenders()
+                .forEachRemaining(
+                        appender -> {
+                            if (appender instanceof OutputStreamAppender) {
+                                outputs.add(appender);
+                            }
+                        });
+        return outputs;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Resolve the message and MDC on the calling thread; the drainer runs without its context
+        event.prepareForDeferredProcessing();
+        if (offer(event)) {
+            signalDrainer();
+            return;
+        }
+        overflowed.incrementAndGet();
+        if (mustWait(event)) {
+            while (isStarted() && !offer(event)) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            signalDrainer();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private boolean mustWait(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return true;
+        }
+        return switch (overflowPolicy) {
+            case DROP -> false;
+            case BLOCK -> true;
+            case SAMPLE -> overflowed.get() % sampleRate == 0;
+        };
+    }
+
+    private boolean offer(ILoggingEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (delta < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private ILoggingEvent poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        ILoggingEvent event = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return event;
+    }
+
+    private void signalDrainer() {
+        if (drainerWaiting) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            ILoggingEvent event = poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+            if (!isStarted()) {
+                return;
+            }
+            drainerWaiting = true;
+            // Re-check after announcing so a producer that missed the flag is not left waiting
+            if (getQueueDepth() == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            drainerWaiting = false;
+        }
+    }
+
+    public int getQueueDepth() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
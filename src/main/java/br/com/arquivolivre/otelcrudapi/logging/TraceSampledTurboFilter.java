@@ -0,0 +1,81 @@
+package br.com.arquivolivre.otelcrudapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Marker;
+
+/**
+ * Suppresses INFO and lower from hot-path loggers unless the current trace was sampled, so the log
+ * volume follows the trace sampling ratio and every kept line has a trace to go with it. WARN and
+ * ERROR always pass, as does anything logged outside a span (startup, scheduled jobs).
+ *
+ * <p>Runs as a turbo filter, before the event is created or its message formatted, so a suppressed
+ * call costs a level check and a context lookup.
+ */
+public class TraceSampledTurboFilter extends TurboFilter {
+
+    private final List<String> loggerPrefixes;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public TraceSampledTurboFilter(List<String> loggerPrefixes) {
+        this.loggerPrefixes = List.copyOf(loggerPrefixes);
+    }
+
+    /** Start filtering every logger of {@code loggerContext} */
+    public void install(LoggerContext loggerContext) {
+        setContext(loggerContext);
+        start();
+        loggerContext.addTurboFilter(this);
+    }
+
+    /** Stop filtering; the context keeps consulting registered turbo filters until removed */
+    @Override
+    public void stop() {
+        if (getContext() instanceof LoggerContext loggerContext) {
+            loggerContext.getTurboFilterList().remove(this);
+        }
+        super.stop();
+    }
+
+    @Override
+    public FilterReply decide(
+            Marker marker,
+            Logger logger,
+            Level level,
+            String format,
+            Object[] params,
+            Throwable t) {
+        // Leave calls the logger would discard anyway to the normal level check
+        if (level == null
+                || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        SpanContext spanContext = Span.current().getSpanContext();
+        if (!spanContext.isValid() || spanContext.isSampled() || !isHotPath(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private boolean isHotPath(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+}
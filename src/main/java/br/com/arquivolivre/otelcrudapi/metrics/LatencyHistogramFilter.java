@@ -0,0 +1,79 @@
+package br.com.arquivolivre.otelcrudapi.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Publishes the selected timers as histograms with fixed buckets, per target: {@code METHOD /uri}
+ * for HTTP server timers (the {@code uri} tag is the route template) and {@code Class.method} for
+ * {@code @Timed} and repository SQL timers. Everything else under those meter names, actuator
+ * routes included, gets the default buckets: Prometheus cannot mix histograms and summaries in one
+ * family.
+ */
+public class LatencyHistogramFilter implements MeterFilter {
+
+    private final Set<String> meters;
+    private final double[] defaultBuckets;
+    private final Map<String, double[]> buckets = new HashMap<>();
+
+    /**
+     * @param rules {@code target=boundary boundary ...}, e.g. {@code GET /api/users/search=5ms 10ms
+     *     50ms} or {@code UserService.searchUsersByName=1ms 5ms 20ms}
+     */
+    public LatencyHistogramFilter(
+            Collection<String> meters, List<Duration> defaultBuckets, List<String> rules) {
+        this.meters = Set.copyOf(meters);
+        this.defaultBuckets = nanos(defaultBuckets);
+        for (String rule : rules) {
+            int equals = rule.lastIndexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException(
+                        "Bucket rule must look like 'target=5ms 10ms ...': " + rule);
+            }
+            List<Duration> boundaries =
+                    List.of(rule.substring(equals + 1).trim().split("\\s+")).stream()
+                            .map(DurationStyle::detectAndParse)
+                            .toList();
+            buckets.put(rule.substring(0, equals).trim(), nanos(boundaries));
+        }
+    }
+
+    @Override
+    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (!meters.contains(id.getName())) {
+            return config;
+        }
+        return DistributionStatisticConfig.builder()
+                .percentilesHistogram(false)
+                .serviceLevelObjectives(buckets.getOrDefault(target(id), defaultBuckets))
+                .build()
+                .merge(config);
+    }
+
+    /**
+     * Bucket key of a timer: {@code METHOD /uri}, {@code Class.method} or {@code Repository.method}
+     */
+    static String target(Meter.Id id) {
+        String uri = id.getTag("uri");
+        if (uri != null) {
+            return id.getTag("method") + " " + uri;
+        }
+        String type = id.getTag("class");
+        if (type == null) {
+            type = id.getTag("repository");
+        }
+        return type + "." + id.getTag("method");
+    }
+
+    private static double[] nanos(List<Duration> boundaries) {
+        return boundaries.stream().mapToDouble(Duration::toNanos).sorted().toArray();
+    }
+}
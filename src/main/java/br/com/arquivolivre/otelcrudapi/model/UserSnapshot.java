@@ -0,0 +1,32 @@
+package br.com.arquivolivre.otelcrudapi.model;
+
+import java.time.LocalDateTime;
+
+/** Immutable copy of a {@link User} row, safe to share across threads and transactions */
+public record UserSnapshot(
+        Long id,
+        String name,
+        String email,
+        String bio,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getBio(),
+                user.getCreatedAt(),
+                user.getUpdatedAt());
+    }
+
+    /** A detached {@link User} holding this state */
+    public User toUser() {
+        User user = new User(name, email, bio);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        return user;
+    }
+}
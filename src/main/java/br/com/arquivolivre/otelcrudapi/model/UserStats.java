@@ -0,0 +1,12 @@
+package br.com.arquivolivre.otelcrudapi.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SortedMap;
+
+/** Aggregate user statistics served by the stats endpoint */
+public record UserStats(
+        long totalUsers,
+        long usersWithBio,
+        SortedMap<LocalDate, Long> signupsPerDay,
+        LocalDateTime reconciledAt) {}
@@ -1,8 +1,10 @@
 package br.com.arquivolivre.otelcrudapi.repository;
 
 import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,4 +29,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /** Count users with non-null bio */
     @Query("SELECT COUNT(u) FROM User u WHERE u.bio IS NOT NULL")
     long countUsersWithBio();
+
+    /** Count users created per calendar day since a specific date, as [LocalDate, Long] rows */
+    @Query(
+            "SELECT CAST(u.createdAt AS LocalDate), COUNT(u) FROM User u"
+                    + " WHERE u.createdAt >= :date GROUP BY CAST(u.createdAt AS LocalDate)")
+    List<Object[]> countSignupsPerDaySince(@Param("date") java.time.LocalDateTime date);
+
+    /** All users as unmanaged snapshots, ordered by id */
+    @Query(
+            "SELECT new br.com.arquivolivre.otelcrudapi.model.UserSnapshot(u.id, u.name, u.email,"
+                    + " u.bio, u.createdAt, u.updatedAt) FROM User u ORDER BY u.id")
+    List<UserSnapshot> findAllSnapshots();
+
+    /** Same as {@link #findAllSnapshots}, streamed; needs a surrounding transaction */
+    @Query(
+            "SELECT new br.com.arquivolivre.otelcrudapi.model.UserSnapshot(u.id, u.name, u.email,"
+                    + " u.bio, u.createdAt, u.updatedAt) FROM User u ORDER BY u.id")
+    Stream<UserSnapshot> streamAllSnapshots();
+
+    /** One user as an unmanaged snapshot */
+    @Query(
+            "SELECT new br.com.arquivolivre.otelcrudapi.model.UserSnapshot(u.id, u.name, u.email,"
+                    + " u.bio, u.createdAt, u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<UserSnapshot> findSnapshotById(@Param("id") Long id);
 }
@@ -0,0 +1,9 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+/** Another user already has the requested email */
+public class EmailAlreadyExistsException extends UserServiceException {
+
+    public EmailAlreadyExistsException(String message) {
+        super(message);
+    }
+}
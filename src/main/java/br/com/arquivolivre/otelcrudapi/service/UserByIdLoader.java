@@ -0,0 +1,185 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalescing loader in front of {@link UserRepository#findById}.
+ *
+ * <p>Concurrent callers asking for the same id share a single in-flight lookup (singleflight).
+ * Under contention, while another lookup is already running, distinct ids arriving within {@code
+ * batchWindow} of each other are gathered into a single {@code findAllById}. The first caller of a
+ * batch acts as its leader: it parks for the window and then runs the query on its own thread, so
+ * no background dispatcher is needed and the loader plays well with virtual threads. A leader with
+ * no lookup running dispatches right away, so an uncontended lookup does not wait for the window.
+ *
+ * <p>Every caller gets its own detached {@link User}, copied from a {@link UserSnapshot} of the
+ * row, so no entity instance is shared across threads and persistence contexts.
+ */
+@Component
+public class UserByIdLoader {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+
+    private final Map<Long, CompletableFuture<Optional<UserSnapshot>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger fetching = new AtomicInteger();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private List<Long> pending = new ArrayList<>();
+
+    private final Counter requests;
+    private final Counter coalesced;
+    private final DistributionSummary batchSize;
+
+    @Autowired
+    public UserByIdLoader(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.user-loader.enabled:true}") boolean enabled,
+            @Value("${app.user-loader.batch-window:200us}") Duration batchWindow,
+            @Value("${app.user-loader.max-batch-size:100}") int maxBatchSize) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        this.requests =
+                Counter.builder("users.loader.requests")
+                        .description("Lookups by id received by the loader")
+                        .register(meterRegistry);
+        this.coalesced =
+                Counter.builder("users.loader.coalesced")
+                        .description("Lookups served by joining an in-flight lookup")
+                        .register(meterRegistry);
+        this.batchSize =
+                DistributionSummary.builder("users.loader.batch.size")
+                        .description("Distinct ids fetched per repository round trip")
+                        .register(meterRegistry);
+        Gauge.builder("users.loader.coalescing.ratio", this, UserByIdLoader::coalescingRatio)
+                .description("Share of lookups that did not reach the repository themselves")
+                .register(meterRegistry);
+    }
+
+    /** Load a user by id, sharing the lookup with concurrent callers */
+    public Optional<User> load(Long id) {
+        if (!enabled) {
+            return userRepository.findById(id);
+        }
+        requests.increment();
+
+        CompletableFuture<Optional<UserSnapshot>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<UserSnapshot>> existing = inFlight.putIfAbsent(id, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        boolean leader;
+        List<Long> full = null;
+        pendingLock.lock();
+        try {
+            leader = pending.isEmpty();
+            pending.add(id);
+            if (pending.size() >= maxBatchSize) {
+                full = drainPending();
+                leader = false;
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+
+        if (full != null) {
+            fetch(full);
+        } else if (leader) {
+            // Wait for ids to batch with only while other lookups are running
+            if (batchWindowNanos > 0 && fetching.get() > 0) {
+                LockSupport.parkNanos(batchWindowNanos);
+            }
+            pendingLock.lock();
+            List<Long> batch;
+            try {
+                batch = drainPending();
+            } finally {
+                pendingLock.unlock();
+            }
+            fetch(batch);
+        }
+        return await(mine);
+    }
+
+    double coalescingRatio() {
+        double total = requests.count();
+        return total == 0 ? 0.0 : coalesced.count() / total;
+    }
+
+    private List<Long> drainPending() {
+        List<Long> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void fetch(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        batchSize.record(ids.size());
+        Map<Long, UserSnapshot> found = new HashMap<>();
+        fetching.incrementAndGet();
+        try {
+            if (ids.size() == 1) {
+                userRepository
+                        .findById(ids.get(0))
+                        .ifPresent(u -> found.put(u.getId(), UserSnapshot.of(u)));
+            } else {
+                userRepository
+                        .findAllById(ids)
+                        .forEach(u -> found.put(u.getId(), UserSnapshot.of(u)));
+            }
+        } catch (Throwable e) {
+            // Errors included: a future left in flight would block every later lookup of its id
+            ids.forEach(id -> inFlight.remove(id).completeExceptionally(e));
+            return;
+        } finally {
+            fetching.decrementAndGet();
+        }
+        ids.forEach(id -> inFlight.remove(id).complete(Optional.ofNullable(found.get(id))));
+    }
+
+    /** A detached copy for this caller */
+    private static Optional<User> await(CompletableFuture<Optional<UserSnapshot>> future) {
+        try {
+            return future.join().map(UserSnapshot::toUser);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
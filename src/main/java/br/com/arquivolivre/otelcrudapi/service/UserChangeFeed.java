@@ -0,0 +1,229 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events feed of committed user changes.
+ *
+ * <p>Every change gets a sequential id and is kept in a bounded ring buffer, so a client
+ * reconnecting with {@code Last-Event-ID} receives what it missed. If the buffer cannot serve the
+ * id, because it has been overwritten or is ahead of the feed after a restart, the client gets a
+ * {@code reset} event and should resync from {@code GET /api/users}.
+ *
+ * <p>Each subscriber has its own bounded queue drained by its own virtual thread, so a slow
+ * consumer never delays the writer or other subscribers: when its queue is full it is disconnected
+ * and can resume from the buffer. Idle subscribers cost a parked virtual thread and a periodic
+ * heartbeat comment.
+ */
+@Service
+public class UserChangeFeed implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    /** A committed change as sent to subscribers */
+    public record UserChange(long id, UserChangedEvent.Type type, UserSnapshot user, Instant at) {}
+
+    private final UserChange[] ring;
+    private final int subscriberQueueSize;
+    private final long heartbeatNanos;
+    private final long emitterTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastId;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /** One permit per subscriber slot, taken before the subscriber exists and returned on close */
+    private final Semaphore slots;
+
+    private final AtomicLong slowConsumerDisconnects = new AtomicLong();
+
+    @Autowired
+    public UserChangeFeed(
+            @Value("${app.changes.buffer-size:1024}") int bufferSize,
+            @Value("${app.changes.subscriber-queue-size:256}") int subscriberQueueSize,
+            @Value("${app.changes.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.changes.heartbeat:15s}") Duration heartbeat,
+            @Value("${app.changes.emitter-timeout:30m}") Duration emitterTimeout) {
+        this.ring = new UserChange[bufferSize];
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.slots = new Semaphore(maxSubscribers);
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.emitterTimeoutMs = emitterTimeout.toMillis();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        lock.lock();
+        try {
+            UserChange change =
+                    new UserChange(
+                            ++lastId, event.type(), UserSnapshot.of(event.user()), Instant.now());
+            ring[(int) (change.id() % ring.length)] = change;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(change)) {
+                    subscriber.overflowed = true;
+                    subscriber.thread.interrupt();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Open a subscription, replaying buffered changes after {@code lastEventId} first.
+     *
+     * @throws IllegalStateException if the subscriber limit has been reached
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (!slots.tryAcquire()) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        SseEmitter emitter;
+        Subscriber subscriber;
+        try {
+            emitter = new SseEmitter(emitterTimeoutMs);
+            subscriber = new Subscriber(emitter);
+        } catch (RuntimeException | Error e) {
+            slots.release();
+            throw e;
+        }
+
+        // Registering and snapshotting under the writer lock keeps replay and live events
+        // contiguous: nothing can be published between the two
+        lock.lock();
+        try {
+            long oldestRetained = Math.max(1, lastId - ring.length + 1);
+            long from = lastEventId == null ? lastId + 1 : lastEventId + 1;
+            // An id the ring cannot serve is a gap: either already overwritten, or ahead of the
+            // feed because ids started over with the process
+            subscriber.reset =
+                    lastEventId != null && (from < oldestRetained || lastEventId > lastId);
+            if (subscriber.reset) {
+                from = oldestRetained;
+            }
+            for (long id = Math.max(from, oldestRetained); id <= lastId; id++) {
+                subscriber.replay.add(ring[(int) (id % ring.length)]);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscriber.thread.start();
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed subscriptions")
+                .register(registry);
+        FunctionCounter.builder(
+                        "users.changes.slow.disconnects", slowConsumerDisconnects, AtomicLong::get)
+                .description("Subscribers disconnected because their queue overflowed")
+                .register(registry);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<UserChange> queue;
+        private final Thread thread;
+        private final List<UserChange> replay = new ArrayList<>();
+        private boolean reset;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+            this.thread = Thread.ofVirtual().name("user-changes-subscriber").unstarted(this::run);
+        }
+
+        private void run() {
+            try {
+                if (reset) {
+                    emitter.send(SseEmitter.event().name("reset").data("resync"));
+                }
+                for (UserChange change : replay) {
+                    send(change);
+                }
+                while (!closed) {
+                    UserChange change = queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                    if (change != null) {
+                        send(change);
+                    } else {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Closed through the emitter callbacks, or overflowed (handled below)
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, or the overflow interrupt landed in the middle of a send
+                logger.debug("Change feed subscriber disconnected: {}", e.getMessage());
+            } finally {
+                if (overflowed) {
+                    slowConsumerDisconnects.incrementAndGet();
+                    logger.warn("Disconnecting slow change feed subscriber");
+                }
+                close();
+                // Whatever ended the loop, end the response too, or the client waits for the
+                // emitter timeout; a no-op if the emitter already completed
+                emitter.complete();
+            }
+        }
+
+        private void send(UserChange change) throws IOException {
+            emitter.send(
+                    SseEmitter.event()
+                            .id(Long.toString(change.id()))
+                            .name(change.type().name().toLowerCase())
+                            .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        private void close() {
+            closed = true;
+            // Close runs from several callbacks and the subscriber thread; only the first one
+            // to deregister gives the slot back
+            if (subscribers.remove(this)) {
+                slots.release();
+            }
+            if (thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+}
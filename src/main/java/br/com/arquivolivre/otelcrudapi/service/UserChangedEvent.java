@@ -0,0 +1,33 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
+
+/**
+ * Published by {@link UserService} for every write. Listeners should use
+ * {@code @TransactionalEventListener} so they only observe committed changes.
+ *
+ * <p>{@code user} is the entity as written; take a {@link UserSnapshot} of it after commit, when
+ * the timestamps have been flushed. {@code previous} holds the state before an update and is {@code
+ * null} for other change types.
+ */
+public record UserChangedEvent(Type type, User user, UserSnapshot previous) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static UserChangedEvent created(User user) {
+        return new UserChangedEvent(Type.CREATED, user, null);
+    }
+
+    public static UserChangedEvent updated(User user, UserSnapshot previous) {
+        return new UserChangedEvent(Type.UPDATED, user, previous);
+    }
+
+    public static UserChangedEvent deleted(User user) {
+        return new UserChangedEvent(Type.DELETED, user, null);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+/** No user exists with the requested id */
+public class UserNotFoundException extends UserServiceException {
+
+    public UserNotFoundException(Long id) {
+        super("User not found with id: " + id);
+    }
+}
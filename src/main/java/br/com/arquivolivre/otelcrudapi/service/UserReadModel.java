@@ -0,0 +1,293 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory read side of the users table. {@link UserService} answers its lookups, searches and
+ * listings from here without a transaction or a query once the model is ready.
+ *
+ * <p>The model is built from the database at startup, before the application reports ready, and
+ * then kept current from committed writes. Users are immutable {@link UserSnapshot}s indexed by id
+ * (ordered, so listings come back in id order like the database ones), email and creation time.
+ * Writes are applied under a lock, reads never block; a reader may briefly see one index ahead of
+ * another while a write is being applied.
+ *
+ * <p>Rows written behind {@link UserService}'s back are not seen until the periodic consistency
+ * check, which compares the model with the database row by row and repairs what differs.
+ */
+@Service
+@ConditionalOnProperty(name = "app.read-model.enabled", havingValue = "true")
+@Order(200) // after DatasetLoader, so a synthetic dataset is part of the first build
+public class UserReadModel implements ApplicationRunner, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserReadModel.class);
+
+    private static final Comparator<UserSnapshot> BY_CREATION =
+            Comparator.comparing(UserSnapshot::createdAt).thenComparing(UserSnapshot::id);
+
+    /** A user with its name upper-cased once, for case-insensitive search */
+    private record Entry(UserSnapshot user, String upperName) {
+
+        static Entry of(UserSnapshot user) {
+            return new Entry(user, user.name().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** The three indexes, swapped as a whole when the model is rebuilt */
+    private static final class Indexes {
+        final ConcurrentNavigableMap<Long, Entry> byId = new ConcurrentSkipListMap<>();
+        final ConcurrentMap<String, UserSnapshot> byEmail = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<UserSnapshot> byCreation =
+                new ConcurrentSkipListSet<>(BY_CREATION);
+
+        void put(UserSnapshot user) {
+            Entry previous = byId.put(user.id(), Entry.of(user));
+            if (previous != null) {
+                unindex(previous.user());
+            }
+            byEmail.put(user.email(), user);
+            byCreation.add(user);
+        }
+
+        void remove(Long id) {
+            Entry previous = byId.remove(id);
+            if (previous != null) {
+                unindex(previous.user());
+            }
+        }
+
+        private void unindex(UserSnapshot user) {
+            byEmail.remove(user.email(), user);
+            byCreation.remove(user);
+        }
+    }
+
+    private final UserRepository userRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Indexes indexes = new Indexes();
+    private volatile boolean ready;
+    // Changes committed while a build reads the table, replayed on top of what it read
+    private List<UserChangedEvent> pending;
+    private final AtomicLong repairs = new AtomicLong();
+
+    @Autowired
+    public UserReadModel(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /** Load every user from the database and start serving reads */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Indexes fresh = new Indexes();
+        try {
+            userRepository.findAllSnapshots().forEach(fresh::put);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            pending.forEach(event -> apply(fresh, event));
+            pending = null;
+            indexes = fresh;
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        logger.info(
+                "User read model built with {} users in {} ms",
+                fresh.byId.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Whether the model has been built; until then reads go to the database */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return indexes.byId.size();
+    }
+
+    public Optional<User> findById(Long id) {
+        Entry entry = indexes.byId.get(id);
+        return entry != null ? Optional.of(entry.user().toUser()) : Optional.empty();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(indexes.byEmail.get(email)).map(UserSnapshot::toUser);
+    }
+
+    public List<User> findAll() {
+        return indexes.byId.values().stream().map(entry -> entry.user().toUser()).toList();
+    }
+
+    /** Users whose name contains {@code name}, ignoring case, in id order */
+    public List<User> searchByName(String name) {
+        String upper = name.toUpperCase(Locale.ROOT);
+        List<User> users = new ArrayList<>();
+        for (Entry entry : indexes.byId.values()) {
+            if (entry.upperName().contains(upper)) {
+                users.add(entry.user().toUser());
+            }
+        }
+        return users;
+    }
+
+    /** Users created at or after {@code date}, in id order */
+    public List<User> findCreatedAfter(LocalDateTime date) {
+        UserSnapshot from = new UserSnapshot(Long.MIN_VALUE, null, null, null, date, null);
+        return indexes.byCreation.tailSet(from, true).stream()
+                .sorted(Comparator.comparing(UserSnapshot::id))
+                .map(UserSnapshot::toUser)
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(indexes, event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void apply(Indexes indexes, UserChangedEvent event) {
+        User user = event.user();
+        switch (event.type()) {
+            case CREATED, UPDATED -> indexes.put(UserSnapshot.of(user));
+            case DELETED -> indexes.remove(user.getId());
+        }
+    }
+
+    /**
+     * Compare the model with the database and repair the users that differ.
+     *
+     * @return the number of users repaired
+     */
+    @Scheduled(
+            fixedDelayString = "${app.read-model.check-interval-ms:60000}",
+            initialDelayString = "${app.read-model.check-initial-delay-ms:60000}")
+    @Transactional(readOnly = true)
+    public long check() {
+        if (!ready) {
+            return 0;
+        }
+        // Both sides are in id order, so one merge pass finds every difference
+        List<Long> suspects = new ArrayList<>();
+        Iterator<Entry> model = indexes.byId.values().iterator();
+        Entry current = model.hasNext() ? model.next() : null;
+        try (Stream<UserSnapshot> rows = userRepository.streamAllSnapshots()) {
+            for (Iterator<UserSnapshot> db = rows.iterator(); db.hasNext(); ) {
+                UserSnapshot row = db.next();
+                while (current != null && current.user().id() < row.id()) {
+                    suspects.add(current.user().id());
+                    current = model.hasNext() ? model.next() : null;
+                }
+                if (current != null && current.user().id().equals(row.id())) {
+                    if (!current.user().equals(row)) {
+                        suspects.add(row.id());
+                    }
+                    current = model.hasNext() ? model.next() : null;
+                } else {
+                    suspects.add(row.id());
+                }
+            }
+        }
+        while (current != null) {
+            suspects.add(current.user().id());
+            current = model.hasNext() ? model.next() : null;
+        }
+
+        // A write committed during the scan shows up as a difference; re-read each row under the
+        // lock so only users that still differ are repaired
+        long repaired = 0;
+        for (Long id : suspects) {
+            lock.lock();
+            try {
+                Indexes live = indexes;
+                Optional<UserSnapshot> row = userRepository.findSnapshotById(id);
+                Entry entry = live.byId.get(id);
+                UserSnapshot held = entry != null ? entry.user() : null;
+                if (!Objects.equals(row.orElse(null), held)) {
+                    row.ifPresentOrElse(live::put, () -> live.remove(id));
+                    repaired++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        repairs.addAndGet(repaired);
+        if (repaired > 0) {
+            logger.warn(
+                    "User read model repaired {} users that differed from the database", repaired);
+        }
+        return repaired;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.read.model.size", this, UserReadModel::size)
+                .description("Users held by the in-memory read model")
+                .register(registry);
+        FunctionCounter.builder("users.read.model.repairs", repairs, AtomicLong::get)
+                .description("Users the consistency check found different from the database")
+                .register(registry);
+    }
+}
@@ -1,41 +1,62 @@
 package br.com.arquivolivre.otelcrudapi.service;
 
 import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
 import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Transactional
+@Timed(value = "user.service", description = "UserService method latency")
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
+    private final UserByIdLoader userByIdLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    // Resolved once: it sits on every read path
+    private final UserReadModel readModel;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(
+            UserRepository userRepository,
+            UserByIdLoader userByIdLoader,
+            ApplicationEventPublisher eventPublisher,
+            ObjectProvider<UserReadModel> readModel) {
         this.userRepository = userRepository;
+        this.userByIdLoader = userByIdLoader;
+        this.eventPublisher = eventPublisher;
+        this.readModel = readModel.getIfAvailable();
     }
 
-    @Transactional(readOnly = true)
+    // Reads run without a transaction of their own: with the read model they never touch JPA, and
+    // without it each is a single query
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<User> getAllUsers() {
         logger.info("Fetching all users");
-        List<User> users = userRepository.findAll();
+        List<User> users = readModelReady() ? readModel.findAll() : userRepository.findAll();
         logger.info("Retrieved {} users", users.size());
         return users;
     }
 
-    @Transactional(readOnly = true)
+    // Without the read model, concurrent lookups are coalesced by the loader into one query
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserById(Long id) {
         logger.info("Fetching user with id: {}", id);
-        Optional<User> user = userRepository.findById(id);
+        Optional<User> user = readModelReady() ? readModel.findById(id) : userByIdLoader.load(id);
         if (user.isPresent()) {
             logger.info("User found: {}", user.get().getEmail());
         } else {
@@ -44,10 +65,10 @@ public class UserService {
         return user;
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserByEmail(String email) {
         logger.info("Fetching user with email: {}", email);
-        return userRepository.findByEmail(email);
+        return readModelReady() ? readModel.findByEmail(email) : userRepository.findByEmail(email);
     }
 
     public User createUser(User user) {
@@ -55,11 +76,12 @@ public class UserService {
 
         if (userRepository.existsByEmail(user.getEmail())) {
             logger.warn("User with email {} already exists", user.getEmail());
-            throw new IllegalArgumentException(
+            throw new EmailAlreadyExistsException(
                     "User with email " + user.getEmail() + " already exists");
         }
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.created(savedUser));
         logger.info("User created successfully with id: {}", savedUser.getId());
         return savedUser;
     }
@@ -67,27 +89,23 @@ public class UserService {
     public User updateUser(Long id, User userDetails) {
         logger.info("Updating user with id: {}", id);
 
-        User user =
-                userRepository
-                        .findById(id)
-                        .orElseThrow(
-                                () ->
-                                        new IllegalArgumentException(
-                                                "User not found with id: " + id));
+        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
 
         // Check if email is being changed and if the new email already exists
         if (!user.getEmail().equals(userDetails.getEmail())
                 && userRepository.existsByEmail(userDetails.getEmail())) {
             logger.warn("Email {} already exists", userDetails.getEmail());
-            throw new IllegalArgumentException(
+            throw new EmailAlreadyExistsException(
                     "Email " + userDetails.getEmail() + " already exists");
         }
 
+        UserSnapshot previous = UserSnapshot.of(user);
         user.setName(userDetails.getName());
         user.setEmail(userDetails.getEmail());
         user.setBio(userDetails.getBio());
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.updated(updatedUser, previous));
         logger.info("User updated successfully: {}", updatedUser.getEmail());
         return updatedUser;
     }
@@ -95,29 +113,46 @@ public class UserService {
     public void deleteUser(Long id) {
         logger.info("Deleting user with id: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            logger.warn("User not found with id: {}", id);
-            throw new IllegalArgumentException("User not found with id: " + id);
-        }
+        // Load the row rather than just checking existence: listeners need what was deleted
+        User user =
+                userRepository
+                        .findById(id)
+                        .orElseThrow(
+                                () -> {
+                                    logger.warn("User not found with id: {}", id);
+                                    return new UserNotFoundException(id);
+                                });
 
-        userRepository.deleteById(id);
+        userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(user));
         logger.info("User deleted successfully with id: {}", id);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<User> searchUsersByName(String name) {
         logger.info("Searching users by name: {}", name);
-        List<User> users = userRepository.findByNameContainingIgnoreCase(name);
+        List<User> users =
+                readModelReady()
+                        ? readModel.searchByName(name)
+                        : userRepository.findByNameContainingIgnoreCase(name);
         logger.info("Found {} users matching name: {}", users.size(), name);
         return users;
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<User> getRecentUsers(int days) {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
         logger.info("Fetching users created after: {}", cutoffDate);
-        List<User> users = userRepository.findUsersCreatedAfter(cutoffDate);
+        List<User> users =
+                readModelReady()
+                        ? readModel.findCreatedAfter(cutoffDate)
+                        : userRepository.findUsersCreatedAfter(cutoffDate);
         logger.info("Found {} recent users", users.size());
         return users;
     }
+
+    /** Until the read model is enabled and built, reads go to the database */
+    private boolean readModelReady() {
+        return readModel != null && readModel.isReady();
+    }
 }
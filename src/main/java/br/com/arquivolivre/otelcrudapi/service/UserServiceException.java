@@ -0,0 +1,20 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+/**
+ * Expected business outcome of a {@link UserService} call, such as a missing user or a taken email.
+ * These are thrown for ordinary client mistakes, so they skip the stack-trace capture: the message
+ * says everything, and under abusive traffic the capture dominates the cost of the request.
+ *
+ * <p>Extends {@link IllegalArgumentException} so existing callers keep catching them unchanged.
+ */
+public abstract class UserServiceException extends IllegalArgumentException {
+
+    protected UserServiceException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
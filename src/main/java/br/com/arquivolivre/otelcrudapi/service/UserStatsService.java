@@ -0,0 +1,128 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserStats;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * User statistics kept in memory and maintained from committed writes, so reading them never
+ * touches the users table. A periodic reconciliation against the database corrects any drift (e.g.
+ * rows written outside {@link UserService}).
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserRepository userRepository;
+    private final int signupDays;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong usersWithBio = new AtomicLong();
+    private final ConcurrentMap<LocalDate, AtomicLong> signupsPerDay = new ConcurrentHashMap<>();
+    private volatile LocalDateTime reconciledAt;
+
+    @Autowired
+    public UserStatsService(
+            UserRepository userRepository, @Value("${app.stats.signup-days:30}") int signupDays) {
+        this.userRepository = userRepository;
+        this.signupDays = signupDays;
+    }
+
+    public UserStats getStats() {
+        LocalDate firstDay = firstTrackedDay();
+        SortedMap<LocalDate, Long> signups = new TreeMap<>();
+        signupsPerDay.forEach(
+                (day, count) -> {
+                    if (!day.isBefore(firstDay) && count.get() > 0) {
+                        signups.put(day, count.get());
+                    }
+                });
+        return new UserStats(totalUsers.get(), usersWithBio.get(), signups, reconciledAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.user();
+        switch (event.type()) {
+            case CREATED -> {
+                totalUsers.incrementAndGet();
+                if (user.getBio() != null) {
+                    usersWithBio.incrementAndGet();
+                }
+                signups(signupDay(user)).incrementAndGet();
+            }
+            case UPDATED -> {
+                boolean hadBio = event.previous().bio() != null;
+                boolean hasBio = user.getBio() != null;
+                if (hadBio != hasBio) {
+                    usersWithBio.addAndGet(hasBio ? 1 : -1);
+                }
+            }
+            case DELETED -> {
+                totalUsers.decrementAndGet();
+                if (user.getBio() != null) {
+                    usersWithBio.decrementAndGet();
+                }
+                signups(signupDay(user)).decrementAndGet();
+            }
+        }
+    }
+
+    /** Replace the counters with fresh values from the database */
+    @Scheduled(
+            fixedDelayString = "${app.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.stats.reconcile-initial-delay-ms:0}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        long total = userRepository.count();
+        long withBio = userRepository.countUsersWithBio();
+        List<Object[]> perDay =
+                userRepository.countSignupsPerDaySince(firstTrackedDay().atStartOfDay());
+
+        long driftTotal = total - totalUsers.getAndSet(total);
+        long driftBio = withBio - usersWithBio.getAndSet(withBio);
+        Map<LocalDate, Long> fresh = new HashMap<>();
+        for (Object[] row : perDay) {
+            fresh.put((LocalDate) row[0], ((Number) row[1]).longValue());
+        }
+        signupsPerDay.keySet().retainAll(fresh.keySet());
+        fresh.forEach((day, count) -> signups(day).set(count));
+        reconciledAt = LocalDateTime.now();
+
+        if (driftTotal != 0 || driftBio != 0) {
+            logger.info(
+                    "User stats reconciled with drift: total={}, withBio={}", driftTotal, driftBio);
+        }
+    }
+
+    private AtomicLong signups(LocalDate day) {
+        return signupsPerDay.computeIfAbsent(day, d -> new AtomicLong());
+    }
+
+    private LocalDate firstTrackedDay() {
+        return LocalDate.now().minusDays(signupDays - 1L);
+    }
+
+    private static LocalDate signupDay(User user) {
+        return user.getCreatedAt() != null ? user.getCreatedAt().toLocalDate() : LocalDate.now();
+    }
+}
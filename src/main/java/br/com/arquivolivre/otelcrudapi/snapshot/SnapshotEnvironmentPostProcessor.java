@@ -0,0 +1,74 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Keeps an H2 database open until the shutdown snapshot is written when {@code
+ * app.snapshot.enabled=true}.
+ *
+ * <p>Unless its URL says {@code DB_CLOSE_ON_EXIT=FALSE}, H2 closes the database from a JVM shutdown
+ * hook of its own. That hook runs concurrently with Spring's, so on SIGTERM it can close the
+ * database before {@link SnapshotManager} writes the table. The setting is appended to an H2 URL
+ * that does not have it; the database is then closed with the connection pool, after the snapshot.
+ * An explicit {@code DB_CLOSE_ON_EXIT=TRUE} fails startup.
+ */
+public class SnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String PROPERTY_SOURCE_NAME = "snapshotDatasource";
+
+    private static final String URL_PROPERTY = "spring.datasource.url";
+    private static final String CLOSE_ON_EXIT = "DB_CLOSE_ON_EXIT";
+
+    @Override
+    public void postProcessEnvironment(
+            ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.getProperty("app.snapshot.enabled", Boolean.class, false)) {
+            return;
+        }
+        String url = environment.getProperty(URL_PROPERTY);
+        if (url == null || !url.startsWith("jdbc:h2:")) {
+            return;
+        }
+        String closeOnExit = setting(url, CLOSE_ON_EXIT);
+        if (closeOnExit == null) {
+            environment
+                    .getPropertySources()
+                    .addFirst(
+                            new MapPropertySource(
+                                    PROPERTY_SOURCE_NAME,
+                                    Map.of(URL_PROPERTY, url + ";" + CLOSE_ON_EXIT + "=FALSE")));
+        } else if (!closeOnExit.equalsIgnoreCase("FALSE")) {
+            throw new IllegalStateException(
+                    "app.snapshot.enabled=true needs "
+                            + CLOSE_ON_EXIT
+                            + "=FALSE in "
+                            + URL_PROPERTY
+                            + ", or H2 may close the database before the shutdown snapshot");
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // After config data has been loaded, so profiles can enable snapshots and set the URL
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /** Value of an H2 URL setting ({@code ;NAME=value}), matched case-insensitively */
+    static String setting(String url, String name) {
+        String[] parts = url.split(";");
+        for (int i = 1; i < parts.length; i++) {
+            int equals = parts[i].indexOf('=');
+            if (equals > 0
+                    && parts[i].substring(0, equals).trim().toUpperCase(Locale.ROOT).equals(name)) {
+                return parts[i].substring(equals + 1).trim();
+            }
+        }
+        return null;
+    }
+}
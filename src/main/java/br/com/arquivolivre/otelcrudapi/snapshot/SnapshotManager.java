@@ -0,0 +1,193 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import br.com.arquivolivre.otelcrudapi.service.UserChangedEvent;
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the users table across restarts of an in-memory database.
+ *
+ * <p>At startup, before the application reports ready and before any dataset is loaded, an existing
+ * snapshot replaces the table contents (the data.sql rows included). A corrupt or truncated
+ * snapshot is logged, skipped and later overwritten. The table is then written to the snapshot
+ * after {@code app.snapshot.interval-ms}, again every interval in which users changed through the
+ * API, and once more on shutdown after the web server has stopped. Rows written behind the API's
+ * back reach the snapshot with the next API write or on shutdown.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+@Order(0) // before DatasetLoader and UserReadModel, which build on the restored table
+public class SnapshotManager implements ApplicationRunner, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotManager.class);
+
+    private final DataSource dataSource;
+    private final ObjectProvider<UserStatsService> userStatsService;
+    private final Path path;
+    private final int batchSize;
+    private final Timer writes;
+    private final Timer restores;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Nothing is written until the restore has succeeded, or an empty table could replace a
+    // snapshot
+    private volatile boolean restored;
+    private volatile boolean dirty = true;
+    private volatile boolean running;
+
+    @Autowired
+    public SnapshotManager(
+            DataSource dataSource,
+            ObjectProvider<UserStatsService> userStatsService,
+            MeterRegistry meterRegistry,
+            @Value("${app.snapshot.path:data/users.snapshot}") Path path,
+            @Value("${app.snapshot.batch-size:5000}") int batchSize) {
+        this.dataSource =
+                dataSource instanceof DelegatingDataSource delegating
+                        ? delegating.getTargetDataSource()
+                        : dataSource;
+        this.userStatsService = userStatsService;
+        this.path = path;
+        this.batchSize = Math.max(1, batchSize);
+        this.writes =
+                Timer.builder("users.snapshot")
+                        .tag("operation", "write")
+                        .description("Time to write or restore the users table snapshot")
+                        .register(meterRegistry);
+        this.restores =
+                Timer.builder("users.snapshot")
+                        .tag("operation", "restore")
+                        .description("Time to write or restore the users table snapshot")
+                        .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        restore();
+        restored = true;
+    }
+
+    /**
+     * Replace the users table with the snapshot, if there is a valid one
+     *
+     * @return the number of users restored, -1 if nothing was restored
+     */
+    public long restore() throws SQLException, IOException {
+        if (!Files.exists(path)) {
+            logger.info("No users snapshot at {}, starting from the current table", path);
+            return -1;
+        }
+        long start = System.nanoTime();
+        long rows;
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"H2".equals(product)) {
+                logger.warn("Users snapshots can only be restored into H2, not {}", product);
+                return -1;
+            }
+            rows = UserTableSnapshot.restore(path, connection, batchSize);
+        } catch (UserTableSnapshot.InvalidSnapshotException e) {
+            logger.error("Not restoring {}: {}", path, e.getMessage());
+            return -1;
+        }
+        long nanos = System.nanoTime() - start;
+        restores.record(nanos, TimeUnit.NANOSECONDS);
+        logger.info("Restored {} users from {} in {} ms", rows, path, nanos / 1_000_000);
+        userStatsService.ifAvailable(UserStatsService::reconcile);
+        return rows;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        dirty = true;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.snapshot.interval-ms:300000}",
+            initialDelayString = "${app.snapshot.interval-ms:300000}")
+    public void writeIfChanged() throws SQLException, IOException {
+        if (dirty) {
+            write();
+        }
+    }
+
+    /**
+     * Write the users table to the snapshot
+     *
+     * @return the number of users written, -1 before the startup restore has succeeded
+     */
+    public long write() throws SQLException, IOException {
+        if (!restored) {
+            return -1;
+        }
+        lock.lock();
+        try {
+            // Cleared first: a change committed during the write marks the next one as needed
+            dirty = false;
+            long start = System.nanoTime();
+            long rows;
+            try (Connection connection = dataSource.getConnection()) {
+                rows = UserTableSnapshot.write(connection, path);
+            } catch (SQLException | IOException | RuntimeException e) {
+                dirty = true;
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            writes.record(nanos, TimeUnit.NANOSECONDS);
+            logger.info("Wrote {} users to {} in {} ms", rows, path, nanos / 1_000_000);
+            return rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /** Last snapshot on shutdown, once the web server is stopped and before the database is */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            write();
+        } catch (SQLException | IOException | RuntimeException e) {
+            logger.error("Could not write the users snapshot on shutdown", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stopped after the web server (DEFAULT_PHASE - 2048), so no request writes after the snapshot
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,346 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the users table.
+ *
+ * <p>Layout, big-endian: a header ({@code USNP} magic, format version), then per user the id, the
+ * creation and update times as microseconds since the epoch ({@link Long#MIN_VALUE} for no update
+ * time) and name, email and bio as UTF-8 with an unsigned 16-bit length ({@code 0xFFFF} for no
+ * bio), then a trailer with the row count, the CRC32 of everything before it and the magic again.
+ *
+ * <p>A snapshot is written to a temporary file and moved into place, so readers only ever see a
+ * complete one. Restoring maps the file in windows of {@value #WINDOW_BYTES} bytes, checks the
+ * trailer and the CRC before touching the table, then inserts the rows in batches with their
+ * original ids. Unique constraints are dropped for the load and added back afterwards, as an H2
+ * {@code SCRIPT} does: building the email index once from the full table is much cheaper than
+ * checking and updating it on every insert.
+ */
+public final class UserTableSnapshot {
+
+    static final int MAGIC = 0x55534E50; // "USNP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int TRAILER_BYTES = 16;
+    static final int WINDOW_BYTES = 64 << 20;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_STRING = 0xFFFF;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String SELECT =
+            "SELECT id, name, email, bio, created_at, updated_at FROM users ORDER BY id";
+    private static final String INSERT =
+            "INSERT INTO users (id, name, email, bio, created_at, updated_at)"
+                    + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UNIQUE_CONSTRAINTS =
+            "SELECT tc.constraint_name, kcu.column_name"
+                    + " FROM information_schema.table_constraints tc"
+                    + " JOIN information_schema.key_column_usage kcu"
+                    + " ON kcu.constraint_schema = tc.constraint_schema"
+                    + " AND kcu.constraint_name = tc.constraint_name"
+                    + " WHERE tc.table_schema = CURRENT_SCHEMA AND tc.table_name = 'USERS'"
+                    + " AND tc.constraint_type = 'UNIQUE'"
+                    + " ORDER BY tc.constraint_name, kcu.ordinal_position";
+
+    private UserTableSnapshot() {}
+
+    /**
+     * Write every user to {@code file}, replacing it atomically
+     *
+     * @return the number of users written
+     */
+    public static long write(Connection connection, Path file) throws SQLException, IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        long rows = 0;
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(10_000);
+                try (ResultSet resultSet = statement.executeQuery(SELECT);
+                        CheckedOutputStream checked =
+                                new CheckedOutputStream(
+                                        new BufferedOutputStream(
+                                                Files.newOutputStream(temp), 1 << 16),
+                                        new CRC32());
+                        DataOutputStream out = new DataOutputStream(checked)) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    while (resultSet.next()) {
+                        out.writeLong(resultSet.getLong(1));
+                        out.writeLong(micros(resultSet.getObject(5, LocalDateTime.class)));
+                        out.writeLong(micros(resultSet.getObject(6, LocalDateTime.class)));
+                        writeString(out, resultSet.getString(2));
+                        writeString(out, resultSet.getString(3));
+                        writeString(out, resultSet.getString(4));
+                        rows++;
+                    }
+                    out.flush();
+                    int crc = (int) checked.getChecksum().getValue();
+                    out.writeLong(rows);
+                    out.writeInt(crc);
+                    out.writeInt(MAGIC);
+                }
+            }
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Replace the contents of the users table with {@code file}, committing every {@code batchSize}
+     * rows, and restart the id sequence after the highest id. H2 only; a failure part way leaves
+     * the table partly restored and possibly without its unique constraints.
+     *
+     * @return the number of users restored
+     * @throws InvalidSnapshotException if the file is truncated or corrupt; the table is untouched
+     */
+    public static long restore(Path file, Connection connection, int batchSize)
+            throws SQLException, IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long rows = verify(channel);
+            MappedReader reader =
+                    new MappedReader(channel, HEADER_BYTES, channel.size() - TRAILER_BYTES);
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            long maxId = 0;
+            try (Statement statement = connection.createStatement();
+                    PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                Map<String, List<String>> uniqueConstraints = uniqueConstraints(connection);
+                statement.executeUpdate("DELETE FROM users");
+                for (String name : uniqueConstraints.keySet()) {
+                    statement.execute("ALTER TABLE users DROP CONSTRAINT " + quote(name));
+                }
+                for (long i = 0; i < rows; i++) {
+                    long id = reader.getLong();
+                    LocalDateTime createdAt = time(reader.getLong());
+                    LocalDateTime updatedAt = time(reader.getLong());
+                    insert.setLong(1, id);
+                    insert.setString(2, reader.getString());
+                    insert.setString(3, reader.getString());
+                    String bio = reader.getString();
+                    if (bio != null) {
+                        insert.setString(4, bio);
+                    } else {
+                        insert.setNull(4, Types.VARCHAR);
+                    }
+                    insert.setObject(5, createdAt);
+                    if (updatedAt != null) {
+                        insert.setObject(6, updatedAt);
+                    } else {
+                        insert.setNull(6, Types.TIMESTAMP);
+                    }
+                    insert.addBatch();
+                    maxId = Math.max(maxId, id);
+                    if ((i + 1) % batchSize == 0 || i + 1 == rows) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                for (Map.Entry<String, List<String>> constraint : uniqueConstraints.entrySet()) {
+                    statement.execute(
+                            "ALTER TABLE users ADD CONSTRAINT "
+                                    + quote(constraint.getKey())
+                                    + " UNIQUE ("
+                                    + String.join(
+                                            ", ",
+                                            constraint.getValue().stream()
+                                                    .map(UserTableSnapshot::quote)
+                                                    .toList())
+                                    + ")");
+                }
+                // DDL takes no parameters; maxId is a long read from a checksummed file
+                statement.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (maxId + 1));
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return rows;
+        }
+    }
+
+    /** Unique constraints on the users table, by name, with their columns in order */
+    private static Map<String, List<String>> uniqueConstraints(Connection connection)
+            throws SQLException {
+        Map<String, List<String>> constraints = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(UNIQUE_CONSTRAINTS)) {
+            while (resultSet.next()) {
+                constraints
+                        .computeIfAbsent(resultSet.getString(1), name -> new ArrayList<>())
+                        .add(resultSet.getString(2));
+            }
+        }
+        return constraints;
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /** Check magic, version, trailer and CRC, returning the row count */
+    private static long verify(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_BYTES + TRAILER_BYTES) {
+            throw new InvalidSnapshotException("too short: " + size + " bytes");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        ByteBuffer trailer =
+                channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_BYTES, TRAILER_BYTES);
+        if (header.getInt() != MAGIC || trailer.getInt(12) != MAGIC) {
+            throw new InvalidSnapshotException("not a users snapshot");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new InvalidSnapshotException("unsupported version " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        long end = size - TRAILER_BYTES;
+        for (long position = 0; position < end; position += WINDOW_BYTES) {
+            crc.update(
+                    channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            position,
+                            Math.min(WINDOW_BYTES, end - position)));
+        }
+        if ((int) crc.getValue() != trailer.getInt(8)) {
+            throw new InvalidSnapshotException("checksum mismatch");
+        }
+        return trailer.getLong(0);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NO_STRING) {
+            throw new IOException("value too long for a snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static long micros(LocalDateTime time) {
+        return time == null ? NO_TIME : ChronoUnit.MICROS.between(EPOCH, time);
+    }
+
+    private static LocalDateTime time(long micros) {
+        return micros == NO_TIME
+                ? null
+                : LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(micros, 1_000_000),
+                        (int) Math.floorMod(micros, 1_000_000) * 1_000,
+                        ZoneOffset.UTC);
+    }
+
+    /** Thrown when a file is not a complete, intact snapshot */
+    public static class InvalidSnapshotException extends IOException {
+
+        public InvalidSnapshotException(String message) {
+            super("Invalid users snapshot: " + message);
+        }
+    }
+
+    /**
+     * Reads a region of a file through memory-mapped windows, remapping at the current position
+     * when a value does not fit in what is left of the window
+     */
+    static final class MappedReader {
+
+        private final FileChannel channel;
+        private final long end;
+        private final int windowBytes;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedReader(FileChannel channel, long start, long end) throws IOException {
+            this(channel, start, end, WINDOW_BYTES);
+        }
+
+        MappedReader(FileChannel channel, long start, long end, int windowBytes)
+                throws IOException {
+            this.channel = channel;
+            this.end = end;
+            this.windowBytes = windowBytes;
+            map(start);
+        }
+
+        long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        String getString() throws IOException {
+            ensure(Short.BYTES);
+            int length = Short.toUnsignedInt(window.getShort());
+            if (length == NO_STRING) {
+                return null;
+            }
+            ensure(length);
+            byte[] bytes = new byte[length];
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + window.position();
+            if (end - position < bytes) {
+                throw new EOFException("snapshot ends in the middle of a row");
+            }
+            map(position);
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window =
+                    channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            position,
+                            Math.min(windowBytes, end - position));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.arquivolivre.otelcrudapi.tracing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-second budget of new traces that shrinks as the process gets busier. Up to {@code cpuTarget}
+ * CPU the full {@code maxPerSecond} is allowed; above it the budget falls linearly towards {@code
+ * minPerSecond} at 100% CPU, so tracing backs off exactly when it would hurt most.
+ *
+ * <p>The budget is recomputed once per one-second window; within a window acquiring is a single
+ * atomic increment.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxPerSecond;
+    private final int minPerSecond;
+    private final double cpuTarget;
+    private final DoubleSupplier cpuLoad;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger used = new AtomicInteger();
+    private volatile int limit;
+
+    public AdaptiveRateLimiter(
+            int maxPerSecond,
+            int minPerSecond,
+            double cpuTarget,
+            DoubleSupplier cpuLoad,
+            LongSupplier nanoClock) {
+        this.maxPerSecond = maxPerSecond;
+        this.minPerSecond = Math.min(minPerSecond, maxPerSecond);
+        this.cpuTarget = Math.min(cpuTarget, 0.99);
+        this.cpuLoad = cpuLoad;
+        this.nanoClock = nanoClock;
+        this.limit = maxPerSecond;
+    }
+
+    public boolean tryAcquire() {
+        long current = nanoClock.getAsLong() / WINDOW_NANOS;
+        long previous = window.get();
+        if (current != previous && window.compareAndSet(previous, current)) {
+            limit = computeLimit();
+            used.set(0);
+        }
+        return used.incrementAndGet() <= limit;
+    }
+
+    /** Traces allowed in the current window */
+    public int getLimit() {
+        return limit;
+    }
+
+    private int computeLimit() {
+        double cpu = cpuLoad.getAsDouble();
+        if (!(cpu > cpuTarget)) {
+            // Also covers a load that cannot be measured (negative or NaN)
+            return maxPerSecond;
+        }
+        double headroom = Math.max(0.0, (1.0 - cpu) / (1.0 - cpuTarget));
+        return (int) Math.max(minPerSecond, Math.round(maxPerSecond * headroom));
+    }
+}
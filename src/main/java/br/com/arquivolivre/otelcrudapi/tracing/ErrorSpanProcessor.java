@@ -0,0 +1,83 @@
+package br.com.arquivolivre.otelcrudapi.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Front of the export pipeline: forwards sampled spans, and spans that the sampler only recorded
+ * when they end in error, so failures stay visible at any sampling ratio. {@link RouteSampler}
+ * records the server span of every request it does not sample; the delegate is the single batch
+ * processor, built with {@code exportUnsampledSpans}, so each exporter has one processor and is
+ * exported to and shut down once.
+ *
+ * <p>The delegate is attached once the SDK has built its exporters; until then nothing is
+ * forwarded.
+ */
+public class ErrorSpanProcessor implements SpanProcessor, MeterBinder {
+
+    private volatile SpanProcessor delegate;
+    private final AtomicLong exported = new AtomicLong();
+
+    public void attach(SpanProcessor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {}
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanProcessor target = delegate;
+        if (target == null) {
+            return;
+        }
+        if (span.getSpanContext().isSampled()) {
+            target.onEnd(span);
+        } else if (span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+            exported.incrementAndGet();
+            target.onEnd(span);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /** Unsampled spans exported because they failed */
+    public long getExportedCount() {
+        return exported.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tracing.sampler.error.spans", exported, AtomicLong::get)
+                .description("Unsampled spans exported because they ended in error")
+                .register(registry);
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        SpanProcessor target = delegate;
+        return target != null ? target.shutdown() : CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        SpanProcessor target = delegate;
+        return target != null ? target.forceFlush() : CompletableResultCode.ofSuccess();
+    }
+}
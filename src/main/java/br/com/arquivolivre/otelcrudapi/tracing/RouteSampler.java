@@ -0,0 +1,192 @@
+package br.com.arquivolivre.otelcrudapi.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Head sampler for new traces, chosen per route. Child spans follow their parent, so a trace is
+ * kept or dropped as a whole, JPA and JDBC spans included.
+ *
+ * <p>For a new trace: writes ({@code POST}, {@code PUT}, {@code PATCH}, {@code DELETE}) are always
+ * sampled; other server requests use the ratio of the first matching route rule, or the default
+ * ratio, and then need a slot from the global {@link AdaptiveRateLimiter}. A request that is not
+ * sampled still records its server span (but none below it) so {@link ErrorSpanProcessor} can
+ * export it if it fails.
+ *
+ * <p>Rules are written as {@code METHOD /path/pattern=ratio}, with Spring path patterns, e.g.
+ * {@code GET /api/users/{id:\d+}=0.1}.
+ */
+public class RouteSampler implements Sampler, MeterBinder {
+
+    static final AttributeKey<String> HTTP_REQUEST_METHOD =
+            AttributeKey.stringKey("http.request.method");
+    static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private enum Outcome {
+        SAMPLED,
+        RATE_LIMITED,
+        NOT_SAMPLED
+    }
+
+    /** A route and its ratio, with a decision count per {@link Outcome} */
+    private record Rule(
+            String name, String method, PathPattern pattern, Sampler sampler, LongAdder[] counts) {
+
+        Rule(String name, String method, PathPattern pattern, double ratio) {
+            this(name, method, pattern, Sampler.traceIdRatioBased(ratio), newCounts());
+        }
+
+        private static LongAdder[] newCounts() {
+            LongAdder[] counts = new LongAdder[Outcome.values().length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+            return counts;
+        }
+    }
+
+    private final List<Rule> rules;
+    private final Rule defaultRule;
+    private final LongAdder writes = new LongAdder();
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public RouteSampler(List<String> rules, double defaultRatio, AdaptiveRateLimiter rateLimiter) {
+        this.rules = new ArrayList<>();
+        PathPatternParser parser = new PathPatternParser();
+        for (String rule : rules) {
+            this.rules.add(parseRule(rule, parser));
+        }
+        this.defaultRule = new Rule("default", null, null, defaultRatio);
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks) {
+        SpanContext parent = Span.fromContext(parentContext).getSpanContext();
+        if (parent.isValid()) {
+            return parent.isSampled() ? SamplingResult.recordAndSample() : SamplingResult.drop();
+        }
+
+        boolean server = spanKind == SpanKind.SERVER;
+        String method = attributes.get(HTTP_REQUEST_METHOD);
+        if (server && method != null && WRITE_METHODS.contains(method)) {
+            writes.increment();
+            return SamplingResult.recordAndSample();
+        }
+
+        Rule rule = server ? match(method, attributes.get(URL_PATH)) : defaultRule;
+        Outcome outcome;
+        if (rule.sampler()
+                        .shouldSample(
+                                parentContext, traceId, name, spanKind, attributes, parentLinks)
+                        .getDecision()
+                == SamplingDecision.DROP) {
+            outcome = Outcome.NOT_SAMPLED;
+        } else if (!rateLimiter.tryAcquire()) {
+            outcome = Outcome.RATE_LIMITED;
+        } else {
+            outcome = Outcome.SAMPLED;
+        }
+        rule.counts()[outcome.ordinal()].increment();
+
+        if (outcome == Outcome.SAMPLED) {
+            return SamplingResult.recordAndSample();
+        }
+        return server ? SamplingResult.recordOnly() : SamplingResult.drop();
+    }
+
+    @Override
+    public String getDescription() {
+        return "RouteSampler{rules=" + rules.stream().map(Rule::name).toList() + "}";
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerDecisions(registry, "write", "sampled", writes);
+        List<Rule> all = new ArrayList<>(rules);
+        all.add(defaultRule);
+        for (Rule rule : all) {
+            for (Outcome outcome : Outcome.values()) {
+                registerDecisions(
+                        registry,
+                        rule.name(),
+                        outcome.name().toLowerCase(Locale.ROOT),
+                        rule.counts()[outcome.ordinal()]);
+            }
+        }
+        Gauge.builder("tracing.sampler.limit", rateLimiter, AdaptiveRateLimiter::getLimit)
+                .description("New traces allowed per second at the current load")
+                .baseUnit("traces")
+                .register(registry);
+    }
+
+    private static void registerDecisions(
+            MeterRegistry registry, String rule, String decision, LongAdder count) {
+        FunctionCounter.builder("tracing.sampler.decisions", count, LongAdder::sum)
+                .description("Head sampling decisions for new traces")
+                .tag("rule", rule)
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    private Rule match(String method, String path) {
+        if (path == null) {
+            return defaultRule;
+        }
+        PathContainer container = null;
+        for (Rule rule : rules) {
+            if (rule.method() != null && !rule.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+            if (container == null) {
+                container = PathContainer.parsePath(path);
+            }
+            if (rule.pattern().matches(container)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private static Rule parseRule(String rule, PathPatternParser parser) {
+        int equals = rule.lastIndexOf('=');
+        if (equals < 0) {
+            throw new IllegalArgumentException(
+                    "Sampler rule must look like 'METHOD /path=ratio': " + rule);
+        }
+        String route = rule.substring(0, equals).trim();
+        double ratio = Double.parseDouble(rule.substring(equals + 1).trim());
+        int space = route.indexOf(' ');
+        String method = space < 0 ? null : route.substring(0, space).toUpperCase(Locale.ROOT);
+        String path = space < 0 ? route : route.substring(space + 1).trim();
+        return new Rule(route, method, parser.parse(path), ratio);
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.arquivolivre.otelcrudapi.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Per-route-group concurrency limits, so that a flood of slow requests in one group (say {@code
+ * /search}) cannot take the threads, connections and database time the others need.
+ *
+ * <p>Groups are {@code name=limit}; routes are {@code METHOD /path/pattern=group} with Spring path
+ * patterns, first match wins, and requests matching no route are not limited. A request waits up to
+ * {@code max-wait} for a permit of its group, then gets 503 with {@code Retry-After}. Runs inside
+ * the tracing and HTTP metrics filters, so rejections show up in both.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true")
+public class BulkheadFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    private record Group(String name, int limit, Semaphore permits, LongAdder rejected) {
+
+        Group(String name, int limit) {
+            this(name, limit, new Semaphore(limit), new LongAdder());
+        }
+
+        int active() {
+            return limit - permits.availablePermits();
+        }
+    }
+
+    private record Route(String method, PathPattern pattern, Group group) {}
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+    private final List<Route> routes = new ArrayList<>();
+    private final long maxWaitNanos;
+
+    @Autowired
+    public BulkheadFilter(
+            @Value("${app.bulkhead.groups:reads=256,writes=64,search=32}") List<String> groups,
+            @Value(
+                            "${app.bulkhead.routes:GET /api/users/search=search,GET /api/users/**=reads,"
+                                    + "POST /api/users/**=writes,PUT /api/users/**=writes,"
+                                    + "DELETE /api/users/**=writes}")
+                    List<String> routes,
+            @Value("${app.bulkhead.max-wait:50ms}") Duration maxWait) {
+        for (String group : groups) {
+            int equals = group.lastIndexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException(
+                        "Bulkhead group must look like 'name=limit': " + group);
+            }
+            String name = group.substring(0, equals).trim();
+            this.groups.put(
+                    name, new Group(name, Integer.parseInt(group.substring(equals + 1).trim())));
+        }
+        PathPatternParser parser = new PathPatternParser();
+        for (String route : routes) {
+            this.routes.add(parseRoute(route, parser));
+        }
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /** Requests of the group currently holding a permit, or -1 for an unknown group */
+    public int getActive(String group) {
+        Group g = groups.get(group);
+        return g == null ? -1 : g.active();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Group group : groups.values()) {
+            Gauge.builder("bulkhead.active", group, Group::active)
+                    .description("Requests holding a permit of the bulkhead")
+                    .tag("group", group.name())
+                    .register(registry);
+            Gauge.builder("bulkhead.limit", group, Group::limit)
+                    .description("Concurrent requests allowed by the bulkhead")
+                    .tag("group", group.name())
+                    .register(registry);
+            FunctionCounter.builder("bulkhead.rejected", group.rejected(), LongAdder::sum)
+                    .description("Requests rejected because the bulkhead stayed full")
+                    .tag("group", group.name())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = match(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!acquire(group)) {
+            group.rejected().increment();
+            logger.debug("Bulkhead {} full, rejecting {}", group.name(), request.getRequestURI());
+            reject(response, group);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            group.permits().release();
+        }
+    }
+
+    private boolean acquire(Group group) {
+        if (group.permits().tryAcquire()) {
+            return true;
+        }
+        try {
+            return maxWaitNanos > 0
+                    && group.permits().tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, Group group) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        // Same shape as ApiExceptionHandler's error responses
+        response.getWriter()
+                .write(
+                        "{\"error\":\"Too many concurrent "
+                                + group.name()
+                                + " requests\",\"timestamp\":\""
+                                + LocalDateTime.now()
+                                + "\"}");
+    }
+
+    private Group match(String method, String uri) {
+        PathContainer path = null;
+        for (Route route : routes) {
+            if (route.method() != null && !route.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(uri);
+            }
+            if (route.pattern().matches(path)) {
+                return route.group();
+            }
+        }
+        return null;
+    }
+
+    private Route parseRoute(String route, PathPatternParser parser) {
+        int equals = route.lastIndexOf('=');
+        if (equals < 0) {
+            throw new IllegalArgumentException(
+                    "Bulkhead route must look like 'METHOD /path=group': " + route);
+        }
+        String name = route.substring(equals + 1).trim();
+        Group group = groups.get(name);
+        if (group == null) {
+            throw new IllegalArgumentException(
+                    "Bulkhead route " + route + " refers to unknown group " + name);
+        }
+        String target = route.substring(0, equals).trim();
+        int space = target.indexOf(' ');
+        String method = space < 0 ? null : target.substring(0, space).toUpperCase(Locale.ROOT);
+        String path = space < 0 ? target : target.substring(space + 1).trim();
+        return new Route(method, parser.parse(path), group);
+    }
+}
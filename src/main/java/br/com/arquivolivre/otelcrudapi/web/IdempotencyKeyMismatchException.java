@@ -0,0 +1,12 @@
+package br.com.arquivolivre.otelcrudapi.web;
+
+/**
+ * An idempotency key was reused with a request that differs from the original one. A client error,
+ * so no stack trace is captured.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message, null, false, false);
+    }
+}
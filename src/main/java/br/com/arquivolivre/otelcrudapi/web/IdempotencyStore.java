@@ -0,0 +1,178 @@
+package br.com.arquivolivre.otelcrudapi.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-evicting store of responses keyed by {@code Idempotency-Key}.
+ *
+ * <p>The first request for a key runs the action and stores its response; retries get the stored
+ * response back with an {@value #REPLAYED_HEADER} header and never run the action. A duplicate
+ * arriving while the first request is still running waits for it instead of racing it. Client
+ * errors are kept like any other response, so callers return a rejection rather than throw it.
+ * Server errors and exceptions are not kept, so a retry after a 5xx runs again.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private record Entry(
+            String fingerprint, CompletableFuture<ResponseEntity<?>> response, long expiresAt) {}
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    // Insertion order is also expiry order because every entry gets the same TTL
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong replays = new AtomicLong();
+
+    @Autowired
+    public IdempotencyStore(
+            @Value("${app.idempotency.ttl:1h}") Duration ttl,
+            @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyStore(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Run {@code action} once per key and replay its response for later calls with the same key.
+     *
+     * @throws IdempotencyKeyMismatchException if the key was already used for a different request
+     */
+    public ResponseEntity<?> execute(
+            String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        Entry entry;
+        boolean owner = false;
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            evictExpired(now);
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(fingerprint, new CompletableFuture<>(), now + ttlNanos);
+                entries.put(key, entry);
+                owner = true;
+                evictOverflow();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency key " + key + " was already used for a different request");
+        }
+        if (!owner) {
+            replays.incrementAndGet();
+            return replayed(await(entry.response()));
+        }
+
+        try {
+            ResponseEntity<?> response = action.get();
+            if (response.getStatusCode().is5xxServerError()) {
+                remove(key, entry);
+            }
+            entry.response().complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Errors included: a future left pending would block every retry with this key
+            remove(key, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.idempotency.entries", this, IdempotencyStore::size)
+                .description("Responses held for idempotent replay")
+                .register(registry);
+        FunctionCounter.builder("http.idempotency.replays", replays, AtomicLong::get)
+                .description("Requests answered from the idempotency store")
+                .register(registry);
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && it.next().expiresAt() - now <= 0) {
+            it.remove();
+        }
+    }
+
+    /**
+     * Drops the oldest completed entries. Requests still running are kept, or a duplicate would run
+     * the action a second time; the store can exceed {@code maxEntries} by the requests in flight.
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            if (it.next().getValue().response().isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        lock.lock();
+        try {
+            entries.remove(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static ResponseEntity<?> replayed(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.arquivolivre.otelcrudapi;
+
+import static org.assertj.core.api.Assertions.*;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.FilterReply;
+import io.opentelemetry.instrumentation.logback.appender.v1_0.OpenTelemetryAppender;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/** The otlp-logs profile exports through the OpenTelemetry bridge and silences local output */
+@SpringBootTest
+@ActiveProfiles("otlp-logs")
+@TestPropertySource(
+        properties = {
+            "otel.traces.exporter=none",
+            "otel.metrics.exporter=none",
+            "spring.threads.virtual.enabled=false"
+        })
+class OtlpLogsProfileTest {
+
+    @Test
+    void otlpLogsProfile_ShouldBridgeToOpenTelemetryAndSilenceLocalAppenders() {
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        collect(rootLogger(), appenders);
+
+        assertThat(appenders).anyMatch(OpenTelemetryAppender.class::isInstance);
+        assertThat(appenders).noneMatch(FileAppender.class::isInstance);
+
+        LoggingEvent error =
+                new LoggingEvent(Logger.FQCN, rootLogger(), Level.ERROR, "not printed", null, null);
+        assertThat(appenders)
+                .filteredOn(ConsoleAppender.class::isInstance)
+                .allMatch(console -> console.getFilterChainDecision(error) == FilterReply.DENY);
+    }
+
+    private static Logger rootLogger() {
+        return ((LoggerContext) LoggerFactory.getILoggerFactory())
+                .getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collect(
+            AppenderAttachable<ILoggingEvent> parent, List<Appender<ILoggingEvent>> appenders) {
+        parent.iteratorForAppenders()
+                .forEachRemaining(
+                        appender -> {
+                            appenders.add(appender);
+                            if (appender instanceof AppenderAttachable<?> nested) {
+                                collect((AppenderAttachable<ILoggingEvent>) nested, appenders);
+                            }
+                        });
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import br.com.arquivolivre.otelcrudapi.OtelCrudApiApplication;
+import br.com.arquivolivre.otelcrudapi.service.UserService;
+import br.com.arquivolivre.otelcrudapi.service.UserServiceException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * A {@code POST /api/users} with a taken email through the running server: Tomcat, the filters, the
+ * transactional service and its {@code existsByEmail} query, and the advice that turns the
+ * rejection into a 400. {@code stackless} is the path as it is; {@code legacy} rethrows the
+ * rejection from the service with a stack trace captured at the same depth, as the plain {@link
+ * IllegalArgumentException} thrown before the switch did. Run with {@code make bench
+ * BENCH=DuplicateEmailBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateEmailBenchmark {
+
+    @Param({"stackless", "legacy"})
+    public String exceptions;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest duplicate;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        // Command line arguments, so they win over application.properties; data.sql seeds the
+        // email the benchmark keeps posting
+        SpringApplicationBuilder builder =
+                new SpringApplicationBuilder(OtelCrudApiApplication.class);
+        if (exceptions.equals("legacy")) {
+            builder.initializers(
+                    context ->
+                            context.getBeanFactory()
+                                    .registerSingleton("legacyRejections", legacyRejections()));
+        }
+        context =
+                builder.run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:duplicate-bench",
+                        "--otel.traces.exporter=none",
+                        "--otel.metrics.exporter=none",
+                        "--otel.logs.exporter=none",
+                        "--logging.level.root=WARN",
+                        "--logging.level.br.com.arquivolivre=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--spring.jpa.show-sql=false");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newHttpClient();
+        duplicate =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users"))
+                        .header("Content-Type", "application/json")
+                        .POST(
+                                HttpRequest.BodyPublishers.ofString(
+                                        "{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\","
+                                                + "\"bio\":\"Duplicate\"}"))
+                        .build();
+        int status = client.send(duplicate, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 400) {
+            throw new IllegalStateException("Expected a 400 for a taken email, got " + status);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int postDuplicateEmail() throws Exception {
+        return client.send(duplicate, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /** Rethrows rejections from {@link UserService#createUser} with a stack trace */
+    private static DefaultPointcutAdvisor legacyRejections() {
+        NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+        pointcut.setMappedName("createUser");
+        pointcut.setClassFilter(UserService.class::isAssignableFrom);
+        MethodInterceptor rethrow =
+                invocation -> {
+                    try {
+                        return invocation.proceed();
+                    } catch (UserServiceException e) {
+                        throw new StackCapturingRejection(e.getMessage());
+                    }
+                };
+        return new DefaultPointcutAdvisor(pointcut, rethrow);
+    }
+
+    /**
+     * Handled like any rejection, but pays for the stack walk the plain exception used to. The
+     * trace is captured while the superclass constructor runs, into a field without initializer.
+     */
+    static final class StackCapturingRejection extends UserServiceException {
+
+        @SuppressWarnings("unused")
+        private Throwable stack;
+
+        StackCapturingRejection(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            stack = new Throwable();
+            return this;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.coyote.AbstractProtocol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Compares HTTP/1.1 and h2c for the user read endpoints: server-side connection count, throughput
+ * and latency percentiles with the same client concurrency. {@link Http2TlsMultiplexingBenchmark}
+ * runs the same comparison over TLS, HTTP/1.1 against h2 negotiated through ALPN. Run both with
+ * {@code make bench-http2}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+        properties = {
+            "server.http2.enabled=true",
+            "spring.threads.virtual.enabled=true",
+            "logging.level.root=WARN",
+            "spring.jpa.show-sql=false"
+        })
+class Http2MultiplexingBenchmark {
+
+    @LocalServerPort private int port;
+
+    @Autowired private ServletWebServerApplicationContext context;
+
+    @Autowired private UserRepository userRepository;
+
+    @Value("${bench.http2.users:200}")
+    private int userCount;
+
+    @Value("${bench.http2.requests:20000}")
+    private int requests;
+
+    @Value("${bench.http2.concurrency:64}")
+    private int concurrency;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        userRepository.deleteAll();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("Bench User " + i, "bench" + i + "@example.com", "bio " + i);
+            ids.add(userRepository.save(user).getId());
+        }
+    }
+
+    @Test
+    void compareHttp11AndHttp2() throws Exception {
+        // Warm up both paths so JIT and connection setup do not skew the first run
+        run(HttpClient.Version.HTTP_1_1, requests / 10);
+        run(HttpClient.Version.HTTP_2, requests / 10);
+
+        Result http11 = run(HttpClient.Version.HTTP_1_1, requests);
+        Result http2 = run(HttpClient.Version.HTTP_2, requests);
+
+        System.out.println();
+        System.out.printf(
+                "%-9s %12s %14s %9s %9s %9s %9s%n",
+                "protocol", "connections", "throughput/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        System.out.println(http11);
+        System.out.println(http2);
+
+        assertThat(http11.errors()).isZero();
+        assertThat(http2.errors()).isZero();
+        assertThat(http2.peakConnections()).isLessThan(http11.peakConnections());
+    }
+
+    private Result run(HttpClient.Version version, int total) throws Exception {
+        AbstractProtocol<?> protocol =
+                (AbstractProtocol<?>)
+                        ((TomcatWebServer) context.getWebServer())
+                                .getTomcat()
+                                .getConnector()
+                                .getProtocolHandler();
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong peakConnections = new AtomicLong();
+        Semaphore permits = new Semaphore(concurrency);
+
+        try (HttpClient client = clientBuilder().version(version).build();
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // One sequential request first so h2c upgrades a single connection before the
+            // concurrent phase; otherwise every early request negotiates its own connection
+            client.send(request(0), HttpResponse.BodyHandlers.discarding());
+
+            long start = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                permits.acquire();
+                executor.execute(
+                        () -> {
+                            int n = next.getAndIncrement();
+                            try {
+                                long begin = System.nanoTime();
+                                HttpResponse<Void> response =
+                                        client.send(
+                                                request(n), HttpResponse.BodyHandlers.discarding());
+                                latencies[n] = System.nanoTime() - begin;
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                }
+                                peakConnections.accumulateAndGet(
+                                        protocol.getConnectionCount(), Math::max);
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            } finally {
+                                permits.release();
+                            }
+                        });
+            }
+            permits.acquire(concurrency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            return new Result(
+                    version == HttpClient.Version.HTTP_2 ? http2Protocol() : "HTTP/1.1",
+                    peakConnections.get(),
+                    total / seconds,
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.90),
+                    percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6,
+                    errors.get());
+        }
+    }
+
+    /** Mix of the read endpoints: mostly lookups by id, some list and search calls */
+    private HttpRequest request(int n) {
+        String path =
+                switch (n % 10) {
+                    case 0 -> "/api/users";
+                    case 1 -> "/api/users/search?name=User%201";
+                    default -> "/api/users/" + ids.get(n % ids.size());
+                };
+        return HttpRequest.newBuilder(URI.create(scheme() + "://localhost:" + port + path))
+                .GET()
+                .build();
+    }
+
+    String scheme() {
+        return "http";
+    }
+
+    /** HTTP/2 as negotiated over {@link #scheme()} */
+    String http2Protocol() {
+        return "h2c";
+    }
+
+    HttpClient.Builder clientBuilder() {
+        return HttpClient.newBuilder();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(
+            String protocol,
+            long peakConnections,
+            double throughput,
+            double p50,
+            double p90,
+            double p99,
+            double max,
+            int errors) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%-9s %12d %14.0f %9.2f %9.2f %9.2f %9.2f",
+                    protocol, peakConnections, throughput, p50, p90, p99, max);
+        }
+    }
+}
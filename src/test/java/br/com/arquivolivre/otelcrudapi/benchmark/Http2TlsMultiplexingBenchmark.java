@@ -0,0 +1,115 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link Http2MultiplexingBenchmark} over TLS: Tomcat negotiates h2 through ALPN, as HTTP/2 is
+ * deployed, so handshakes and encryption are part of both sides of the comparison. The server
+ * certificate is a self-signed one generated with {@code keytool}, which the client trusts alone.
+ */
+@TestPropertySource(properties = "server.ssl.enabled=true")
+class Http2TlsMultiplexingBenchmark extends Http2MultiplexingBenchmark {
+
+    private static final String PASSWORD = "benchmark";
+    private static final String ALIAS = "localhost";
+
+    private static Path keyStore;
+
+    @DynamicPropertySource
+    static void ssl(DynamicPropertyRegistry registry) {
+        registry.add("server.ssl.key-store", () -> "file:" + keyStore());
+        registry.add("server.ssl.key-store-password", () -> PASSWORD);
+        registry.add("server.ssl.key-store-type", () -> "PKCS12");
+        registry.add("server.ssl.key-alias", () -> ALIAS);
+    }
+
+    @Override
+    String scheme() {
+        return "https";
+    }
+
+    @Override
+    String http2Protocol() {
+        return "h2";
+    }
+
+    @Override
+    HttpClient.Builder clientBuilder() {
+        return HttpClient.newBuilder().sslContext(trustingKeyStore());
+    }
+
+    /** Self-signed certificate for localhost, generated once per JVM */
+    private static synchronized Path keyStore() {
+        if (keyStore != null) {
+            return keyStore;
+        }
+        try {
+            Path file = Files.createTempDirectory("http2-bench").resolve("keystore.p12");
+            Process keytool =
+                    new ProcessBuilder(
+                                    Path.of(System.getProperty("java.home"), "bin", "keytool")
+                                            .toString(),
+                                    "-genkeypair",
+                                    "-alias",
+                                    ALIAS,
+                                    "-keyalg",
+                                    "EC",
+                                    "-dname",
+                                    "CN=localhost",
+                                    "-ext",
+                                    "SAN=dns:localhost",
+                                    "-validity",
+                                    "1",
+                                    "-storetype",
+                                    "PKCS12",
+                                    "-keystore",
+                                    file.toString(),
+                                    "-storepass",
+                                    PASSWORD)
+                            .redirectErrorStream(true)
+                            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                            .start();
+            if (!keytool.waitFor(1, TimeUnit.MINUTES) || keytool.exitValue() != 0) {
+                throw new IllegalStateException("keytool could not generate " + file);
+            }
+            keyStore = file;
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not generate the benchmark keystore", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the keystore", e);
+        }
+    }
+
+    /** Client context that trusts the benchmark certificate only */
+    private static SSLContext trustingKeyStore() {
+        try (InputStream in = Files.newInputStream(keyStore())) {
+            KeyStore server = KeyStore.getInstance("PKCS12");
+            server.load(in, PASSWORD.toCharArray());
+            KeyStore trusted = KeyStore.getInstance(KeyStore.getDefaultType());
+            trusted.load(null, null);
+            trusted.setCertificateEntry(ALIAS, server.getCertificate(ALIAS));
+            TrustManagerFactory trustManagers =
+                    TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trusted);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagers.getTrustManagers(), null);
+            return context;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load the benchmark keystore", e);
+        }
+    }
+}
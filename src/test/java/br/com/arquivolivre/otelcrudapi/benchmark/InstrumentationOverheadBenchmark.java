@@ -0,0 +1,126 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import br.com.arquivolivre.otelcrudapi.OtelCrudApiApplication;
+import br.com.arquivolivre.otelcrudapi.config.InstrumentationModeEnvironmentPostProcessor;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Per-request cost of each {@code app.instrumentation.mode}: the full application on a random port,
+ * one HTTP client thread, a lookup by id and a list call. Exporters are {@code none} and every
+ * trace is sampled, so the difference to {@code None} is span and metric creation, not network. The
+ * agent runs in its own fork with {@code target/opentelemetry-javaagent.jar}. Run with {@code make
+ * bench BENCH=InstrumentationOverheadBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class InstrumentationOverheadBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest getById;
+    private HttpRequest getAll;
+
+    abstract String mode();
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command line arguments, so they win over application.properties
+        context =
+                new SpringApplicationBuilder(OtelCrudApiApplication.class)
+                        .run(
+                                "--server.port=0",
+                                "--app.instrumentation.mode=" + mode(),
+                                "--app.tracing.sampler.enabled=false",
+                                "--otel.traces.exporter=none",
+                                "--otel.metrics.exporter=none",
+                                "--otel.logs.exporter=none",
+                                "--logging.level.root=WARN",
+                                "--logging.level.org.springframework.web=WARN",
+                                "--logging.level.org.hibernate.SQL=WARN",
+                                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                                "--spring.jpa.show-sql=false");
+        if (mode().equals("agent")
+                && !InstrumentationModeEnvironmentPostProcessor.isAgentAttached()) {
+            throw new IllegalStateException("javaagent not attached, run through make bench");
+        }
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        getById =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/1"))
+                        .build();
+        getAll =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users"))
+                        .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getUserById() throws Exception {
+        return client.send(getById, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int getAllUsers() throws Exception {
+        return client.send(getAll, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @State(Scope.Benchmark)
+    public static class None extends InstrumentationOverheadBenchmark {
+        @Override
+        String mode() {
+            return "none";
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Starter extends InstrumentationOverheadBenchmark {
+        @Override
+        String mode() {
+            return "starter";
+        }
+    }
+
+    @State(Scope.Benchmark)
+    @Fork(
+            value = 1,
+            jvmArgsAppend = {
+                "-javaagent:target/opentelemetry-javaagent.jar",
+                "-Dotel.traces.exporter=none",
+                "-Dotel.metrics.exporter=none",
+                "-Dotel.logs.exporter=none"
+            })
+    public static class Agent extends InstrumentationOverheadBenchmark {
+        @Override
+        String mode() {
+            return "agent";
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import br.com.arquivolivre.otelcrudapi.config.MetricsConfig;
+import br.com.arquivolivre.otelcrudapi.metrics.LatencyHistogramFilter;
+import br.com.arquivolivre.otelcrudapi.metrics.OtelExemplarSpanContext;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Hot-path cost of the latency histograms, per recorded request or service call:
+ *
+ * <ul>
+ *   <li>{@code summary}: a plain timer, which is what {@code http.server.requests} used to be
+ *   <li>{@code histogram}: the same timer with the configured buckets
+ *   <li>{@code histogramWithExemplar}: buckets plus exemplar sampling, inside a sampled span
+ *   <li>{@code directCall} / {@code timedCall}: a service method without and with the {@code Timed}
+ *       advice
+ * </ul>
+ *
+ * Run with {@code make bench BENCH=LatencyHistogramBenchmark}.
+ */
+// Thread state: set-up runs on the benchmark thread, where the span has to be current
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyHistogramBenchmark {
+
+    private static final List<Duration> BUCKETS =
+            List.of(5, 10, 25, 50, 100, 250, 500, 1000).stream().map(Duration::ofMillis).toList();
+
+    private SdkTracerProvider tracerProvider;
+    private Span span;
+    private io.opentelemetry.context.Scope scope;
+
+    private Timer summary;
+    private Timer histogram;
+    private Timer histogramWithExemplar;
+    private Lookup direct;
+    private Lookup timed;
+    private long latency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        summary = timer(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), false);
+        histogram = timer(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), true);
+        histogramWithExemplar =
+                timer(
+                        new PrometheusMeterRegistry(
+                                PrometheusConfig.DEFAULT,
+                                new PrometheusRegistry(),
+                                Clock.SYSTEM,
+                                new OtelExemplarSpanContext()),
+                        true);
+
+        direct = new Lookup();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Lookup());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(
+                new MetricsConfig()
+                        .timedAspect(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        timed = proxyFactory.getProxy();
+
+        // Exemplars are only taken inside a sampled span, as for a traced request
+        tracerProvider = SdkTracerProvider.builder().build();
+        span = tracerProvider.get("bench").spanBuilder("GET /api/users/search").startSpan();
+        scope = span.makeCurrent();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scope.close();
+        span.end();
+        tracerProvider.close();
+    }
+
+    @Benchmark
+    public void summary() {
+        summary.record(nextLatency(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void histogram() {
+        histogram.record(nextLatency(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void histogramWithExemplar() {
+        histogramWithExemplar.record(nextLatency(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public long directCall() {
+        return direct.find(latency++);
+    }
+
+    @Benchmark
+    public long timedCall() {
+        return timed.find(latency++);
+    }
+
+    /** Spread the recorded values over the buckets, 0 to ~1.3 s */
+    private long nextLatency() {
+        return (latency++ & 0x3ff) * 1_300_000L;
+    }
+
+    private static Timer timer(PrometheusMeterRegistry registry, boolean buckets) {
+        if (buckets) {
+            registry.config()
+                    .meterFilter(
+                            new LatencyHistogramFilter(
+                                    List.of("http.server.requests"), BUCKETS, List.of()));
+        }
+        return Timer.builder("http.server.requests")
+                .tags("method", "GET", "uri", "/api/users/search", "status", "200")
+                .register(registry);
+    }
+
+    @Timed("user.service")
+    public static class Lookup {
+
+        public long find(long id) {
+            return id * 31;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the same request mix against each server engine and threading model, one fresh JVM per
+ * variant, and reports throughput, latency percentiles, startup time and RSS. Plain JDK only, so it
+ * runs as a single-file program against the jars that {@code make bench-servers} builds:
+ *
+ * <pre>
+ * java -Dbench.servers.requests=20000 ServerEngineBenchmark.java target/servers
+ * </pre>
+ *
+ * <p>Each variant is {@code name:jar:profile}, with {@code jar} the engine's jar in the given
+ * directory. Settings are system properties {@code bench.servers.*}: {@code variants}, {@code
+ * users}, {@code requests}, {@code concurrency} and {@code jvm-args}. RSS comes from {@code
+ * /proc/<pid>/status} ({@code ps} elsewhere, current RSS only).
+ */
+public final class ServerEngineBenchmark {
+
+    private static final List<String> DEFAULT_VARIANTS =
+            List.of(
+                    "tomcat-platform:tomcat:tomcat-platform",
+                    "tomcat-virtual:tomcat:default",
+                    "jetty-virtual:jetty:jetty-virtual",
+                    "undertow:undertow:undertow");
+
+    // Same settings for every variant, so only the engine and threading model differ
+    private static final List<String> APP_ARGS =
+            List.of(
+                    "--otel.sdk.disabled=true",
+                    "--app.bulkhead.enabled=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.springframework.web=WARN",
+                    "--logging.level.br.com.arquivolivre=WARN");
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private record Variant(String name, String jar, String profile) {
+
+        static Variant parse(String spec) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(
+                        "Variant must look like 'name:jar:profile': " + spec);
+            }
+            return new Variant(parts[0], parts[1], parts[2]);
+        }
+    }
+
+    private record Result(
+            String variant,
+            double startupSeconds,
+            double throughput,
+            double p50,
+            double p90,
+            double p99,
+            double max,
+            int errors,
+            long rssMb,
+            long peakRssMb) {
+
+        static final String HEADER =
+                String.format(
+                        "%-16s %9s %13s %9s %9s %9s %9s %7s %7s %8s",
+                        "variant",
+                        "start s",
+                        "throughput/s",
+                        "p50 ms",
+                        "p90 ms",
+                        "p99 ms",
+                        "max ms",
+                        "errors",
+                        "RSS MB",
+                        "peak MB");
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%-16s %9.1f %13.0f %9.2f %9.2f %9.2f %9.2f %7d %7d %8s",
+                    variant,
+                    startupSeconds,
+                    throughput,
+                    p50,
+                    p90,
+                    p99,
+                    max,
+                    errors,
+                    rssMb,
+                    peakRssMb < 0 ? "-" : String.valueOf(peakRssMb));
+        }
+
+        String toCsv() {
+            return String.format(
+                    "%s,%.1f,%.0f,%.2f,%.2f,%.2f,%.2f,%d,%d,%d",
+                    variant,
+                    startupSeconds,
+                    throughput,
+                    p50,
+                    p90,
+                    p99,
+                    max,
+                    errors,
+                    rssMb,
+                    peakRssMb);
+        }
+    }
+
+    private final Path jarDir;
+    private final int userCount = Integer.getInteger("bench.servers.users", 200);
+    private final int requests = Integer.getInteger("bench.servers.requests", 20000);
+    private final int concurrency = Integer.getInteger("bench.servers.concurrency", 64);
+    private final List<String> jvmArgs =
+            List.of(System.getProperty("bench.servers.jvm-args", "-Xms512m -Xmx512m").split(" "));
+
+    private final HttpClient client =
+            HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+    private ServerEngineBenchmark(Path jarDir) {
+        this.jarDir = jarDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jarDir = Path.of(args.length > 0 ? args[0] : "target/servers");
+        String variants = System.getProperty("bench.servers.variants");
+        List<Variant> selected =
+                (variants == null ? DEFAULT_VARIANTS : Arrays.asList(variants.split(",")))
+                        .stream().map(Variant::parse).toList();
+
+        ServerEngineBenchmark benchmark = new ServerEngineBenchmark(jarDir);
+        List<Result> results = new ArrayList<>();
+        for (Variant variant : selected) {
+            System.out.println("Running " + variant.name() + " ...");
+            results.add(benchmark.run(variant));
+        }
+
+        System.out.println();
+        System.out.println(Result.HEADER);
+        results.forEach(System.out::println);
+
+        List<String> csv = new ArrayList<>();
+        csv.add(
+                "variant,startup_s,throughput,p50_ms,p90_ms,p99_ms,max_ms,errors,rss_mb,peak_rss_mb");
+        results.forEach(result -> csv.add(result.toCsv()));
+        Path report = jarDir.resolve("server-bench.csv");
+        Files.write(report, csv);
+        System.out.println("\nCSV written to " + report);
+    }
+
+    private Result run(Variant variant) throws Exception {
+        Path jar = jarDir.resolve(variant.jar() + ".jar");
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("No jar for " + variant.name() + " at " + jar);
+        }
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+        command.add("--spring.profiles.active=" + variant.profile());
+        command.addAll(APP_ARGS);
+
+        long launched = System.nanoTime();
+        Process server =
+                new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(jarDir.resolve(variant.name() + ".log").toFile())
+                        .start();
+        try {
+            String base = "http://localhost:" + port;
+            awaitHealthy(server, base, variant);
+            double startupSeconds = (System.nanoTime() - launched) / 1e9;
+
+            List<Long> ids = seed(base);
+            // Warm up so JIT and connection setup do not skew the measured run
+            load(base, ids, requests / 10, "warmup");
+            Result measured = load(base, ids, requests, variant.name());
+            long[] rss = rssMb(server.pid());
+            return new Result(
+                    variant.name(),
+                    startupSeconds,
+                    measured.throughput(),
+                    measured.p50(),
+                    measured.p90(),
+                    measured.p99(),
+                    measured.max(),
+                    measured.errors(),
+                    rss[0],
+                    rss[1]);
+        } finally {
+            server.destroy();
+            if (!server.waitFor(30, TimeUnit.SECONDS)) {
+                server.destroyForcibly();
+            }
+        }
+    }
+
+    private void awaitHealthy(Process server, String base, Variant variant) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(base + "/actuator/health")).build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException(
+                        variant.name() + " exited during startup, see its .log file");
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode()
+                        == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException(variant.name() + " did not become healthy in 2 minutes");
+    }
+
+    private List<Long> seed(String base) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            HttpResponse<String> response =
+                    client.send(create(base, "seed" + i), HttpResponse.BodyHandlers.ofString());
+            Matcher id = ID.matcher(response.body());
+            if (response.statusCode() != 201 || !id.find()) {
+                throw new IllegalStateException("Seeding failed: " + response.body());
+            }
+            ids.add(Long.parseLong(id.group(1)));
+        }
+        return ids;
+    }
+
+    private Result load(String base, List<Long> ids, int total, String label) throws Exception {
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore permits = new Semaphore(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                permits.acquire();
+                executor.execute(
+                        () -> {
+                            int n = next.getAndIncrement();
+                            try {
+                                long begin = System.nanoTime();
+                                HttpResponse<Void> response =
+                                        client.send(
+                                                request(base, ids, label, n),
+                                                HttpResponse.BodyHandlers.discarding());
+                                latencies[n] = System.nanoTime() - begin;
+                                if (response.statusCode() >= 300) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            } finally {
+                                permits.release();
+                            }
+                        });
+            }
+            permits.acquire(concurrency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            return new Result(
+                    label,
+                    0,
+                    total / seconds,
+                    percentile(latencies, 0.50),
+                    percentile(latencies, 0.90),
+                    percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6,
+                    errors.get(),
+                    0,
+                    0);
+        }
+    }
+
+    /**
+     * Fixed mix per 100 requests: 90 lookups by id, 5 searches, 3 creates and 2 full lists. The mix
+     * depends only on {@code n}, so every variant sees the same requests.
+     */
+    private HttpRequest request(String base, List<Long> ids, String label, int n) {
+        int slot = n % 100;
+        if (slot < 2) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/users")).GET().build();
+        }
+        if (slot < 7) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/users/search?name=seed" + slot))
+                    .GET()
+                    .build();
+        }
+        if (slot < 10) {
+            return create(base, label + "-" + n);
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/api/users/" + ids.get(n % ids.size())))
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest create(String base, String key) {
+        String body =
+                String.format(
+                        "{\"name\":\"Bench %s\",\"email\":\"%s@example.com\",\"bio\":\"bio\"}",
+                        key, key);
+        return HttpRequest.newBuilder(URI.create(base + "/api/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /** Current and peak RSS in MB; peak is -1 where {@code /proc} is not available */
+    private static long[] rssMb(long pid) throws Exception {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (Files.isReadable(status)) {
+            long rss = -1;
+            long peak = -1;
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    rss = kilobytes(line) / 1024;
+                } else if (line.startsWith("VmHWM:")) {
+                    peak = kilobytes(line) / 1024;
+                }
+            }
+            return new long[] {rss, peak};
+        }
+        Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", String.valueOf(pid)).start();
+        String out = new String(ps.getInputStream().readAllBytes()).trim();
+        ps.waitFor();
+        return new long[] {out.isEmpty() ? -1 : Long.parseLong(out) / 1024, -1};
+    }
+
+    private static long kilobytes(String statusLine) {
+        return Long.parseLong(statusLine.replaceAll("[^0-9]", ""));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
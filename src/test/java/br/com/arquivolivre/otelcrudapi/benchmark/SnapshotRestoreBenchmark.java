@@ -0,0 +1,216 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.dataset.DatasetLoader;
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import br.com.arquivolivre.otelcrudapi.snapshot.UserTableSnapshot;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * How long an empty in-memory H2 takes to get its users table back: restoring a binary snapshot
+ * ({@link UserTableSnapshot}) versus replaying an H2 {@code SCRIPT} dump with {@code RUNSCRIPT},
+ * with generating the dataset from scratch for reference. Run with {@code make bench-snapshot};
+ * sizes with {@code -Dbench.snapshot.rows=1000000,10000000}, runs per size with {@code
+ * -Dbench.snapshot.repeats}. Results go to {@code target/snapshot/snapshot-bench.csv}.
+ */
+@Tag("benchmark")
+class SnapshotRestoreBenchmark {
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL UNIQUE,"
+                    + " bio VARCHAR(255), created_at TIMESTAMP(6) NOT NULL,"
+                    + " updated_at TIMESTAMP(6))";
+
+    private record Result(
+            long rows,
+            double generateSeconds,
+            double snapshotWriteSeconds,
+            long snapshotBytes,
+            double restoreSeconds,
+            double scriptWriteSeconds,
+            long scriptBytes,
+            double replaySeconds) {}
+
+    private final List<Long> sizes =
+            Arrays.stream(System.getProperty("bench.snapshot.rows", "1000000,10000000").split(","))
+                    .map(String::trim)
+                    .map(Long::parseLong)
+                    .toList();
+    private final int batchSize = Integer.getInteger("bench.snapshot.batch-size", 5000);
+    private final int repeats = Integer.getInteger("bench.snapshot.repeats", 3);
+    private final Path dir = Path.of(System.getProperty("bench.snapshot.dir", "target/snapshot"));
+
+    @Test
+    void restoreShouldBeatRegeneratingTheDataset() throws Exception {
+        Files.createDirectories(dir);
+        List<Result> results = new ArrayList<>();
+        for (long rows : sizes) {
+            results.add(measure(rows));
+        }
+
+        System.out.println();
+        System.out.printf(
+                "%10s %10s %10s %12s %10s %10s %12s %10s %8s%n",
+                "rows",
+                "generate s",
+                "write s",
+                "snapshot MB",
+                "restore s",
+                "script s",
+                "script MB",
+                "replay s",
+                "speedup");
+        StringBuilder csv =
+                new StringBuilder(
+                        "rows,generate_s,snapshot_write_s,snapshot_bytes,restore_s,"
+                                + "script_write_s,script_bytes,replay_s\n");
+        for (Result result : results) {
+            System.out.printf(
+                    "%10d %10.1f %10.1f %12.1f %10.1f %10.1f %12.1f %10.1f %7.1fx%n",
+                    result.rows(),
+                    result.generateSeconds(),
+                    result.snapshotWriteSeconds(),
+                    result.snapshotBytes() / 1e6,
+                    result.restoreSeconds(),
+                    result.scriptWriteSeconds(),
+                    result.scriptBytes() / 1e6,
+                    result.replaySeconds(),
+                    result.replaySeconds() / result.restoreSeconds());
+            csv.append(
+                    String.format(
+                            Locale.ROOT,
+                            "%d,%.3f,%.3f,%d,%.3f,%.3f,%d,%.3f%n",
+                            result.rows(),
+                            result.generateSeconds(),
+                            result.snapshotWriteSeconds(),
+                            result.snapshotBytes(),
+                            result.restoreSeconds(),
+                            result.scriptWriteSeconds(),
+                            result.scriptBytes(),
+                            result.replaySeconds()));
+        }
+        Files.writeString(dir.resolve("snapshot-bench.csv"), csv);
+        System.out.println("Results written to " + dir.resolve("snapshot-bench.csv"));
+
+        // Against replay the margin is small (both are bound by H2's index inserts), so only the
+        // reload the snapshot exists to avoid is asserted
+        for (Result result : results) {
+            assertThat(result.restoreSeconds())
+                    .as("restore of %d rows", result.rows())
+                    .isLessThan(result.generateSeconds());
+        }
+    }
+
+    private Result measure(long rows) throws Exception {
+        Path snapshot = dir.resolve("users-" + rows + ".snapshot");
+        Path script = dir.resolve("users-" + rows + ".sql");
+
+        // Source: the table as the dataset loader leaves it
+        DriverManagerDataSource source = database("source");
+        execute(source, CREATE_TABLE);
+        long start = System.nanoTime();
+        new DatasetLoader(
+                        source,
+                        new DefaultListableBeanFactory().getBeanProvider(UserStatsService.class),
+                        rows,
+                        "csv",
+                        batchSize,
+                        42,
+                        730)
+                .load();
+        double generate = seconds(start);
+
+        start = System.nanoTime();
+        try (Connection connection = source.getConnection()) {
+            UserTableSnapshot.write(connection, snapshot);
+        }
+        double snapshotWrite = seconds(start);
+
+        start = System.nanoTime();
+        execute(source, "SCRIPT TO '" + script.toAbsolutePath() + "' TABLE users");
+        double scriptWrite = seconds(start);
+        long expected = count(source);
+        shutdown(source);
+
+        // Alternated and repeated, keeping the best of each: the first runs mostly measure the JIT
+        double restore = Double.MAX_VALUE;
+        double replay = Double.MAX_VALUE;
+        for (int i = 0; i < repeats; i++) {
+            DriverManagerDataSource replayed = database("replayed");
+            start = System.nanoTime();
+            execute(replayed, "RUNSCRIPT FROM '" + script.toAbsolutePath() + "'");
+            replay = Math.min(replay, seconds(start));
+            assertThat(count(replayed)).isEqualTo(expected);
+            shutdown(replayed);
+
+            DriverManagerDataSource restored = database("restored");
+            execute(restored, CREATE_TABLE);
+            start = System.nanoTime();
+            try (Connection connection = restored.getConnection()) {
+                UserTableSnapshot.restore(snapshot, connection, batchSize);
+            }
+            restore = Math.min(restore, seconds(start));
+            assertThat(count(restored)).isEqualTo(expected);
+            shutdown(restored);
+        }
+
+        Result result =
+                new Result(
+                        rows,
+                        generate,
+                        snapshotWrite,
+                        Files.size(snapshot),
+                        restore,
+                        scriptWrite,
+                        Files.size(script),
+                        replay);
+        Files.delete(snapshot);
+        Files.delete(script);
+        return result;
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:snapshot-bench-" + name + ";DB_CLOSE_DELAY=-1");
+    }
+
+    private static void shutdown(DriverManagerDataSource dataSource) throws SQLException {
+        execute(dataSource, "SHUTDOWN");
+    }
+
+    private static long count(DriverManagerDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void execute(DriverManagerDataSource dataSource, String sql)
+            throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
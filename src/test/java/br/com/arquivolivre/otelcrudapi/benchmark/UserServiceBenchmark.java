@@ -0,0 +1,133 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import br.com.arquivolivre.otelcrudapi.OtelCrudApiApplication;
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.service.UserService;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link UserService} hot paths through the real service, repository and H2 stack (transactions,
+ * {@code @Timed}, SQL timing) at several table sizes, without the web layer. The table is seeded
+ * with {@code tableSize} users created over the last year, so {@code getRecentUsers(7)} returns
+ * about 2% of them and the name search scans the whole table. The coalescing loader is off: its
+ * batch window would dominate a single-threaded lookup. Users created during an iteration are
+ * removed before the next one. Run with {@code make bench BENCH=UserServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private JdbcTemplate jdbcTemplate;
+    private long maxSeededId;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command line arguments, so they win over application.properties
+        context =
+                new SpringApplicationBuilder(OtelCrudApiApplication.class)
+                        .web(WebApplicationType.NONE)
+                        .run(
+                                "--spring.datasource.url=jdbc:h2:mem:bench" + tableSize,
+                                "--spring.sql.init.mode=never",
+                                "--app.user-loader.enabled=false",
+                                "--otel.traces.exporter=none",
+                                "--otel.metrics.exporter=none",
+                                "--otel.logs.exporter=none",
+                                "--logging.level.root=WARN",
+                                "--logging.level.br.com.arquivolivre=WARN",
+                                "--logging.level.org.hibernate.SQL=WARN",
+                                "--spring.jpa.show-sql=false");
+        userService = context.getBean(UserService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed();
+        maxSeededId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeCreatedUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE id > ?", maxSeededId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> getUserById() {
+        return userService.getUserById(ThreadLocalRandom.current().nextLong(1, maxSeededId + 1));
+    }
+
+    @Benchmark
+    public User createUser() {
+        long n = ++created;
+        return userService.createUser(
+                new User("Created " + n, "created" + n + "@example.com", "bio " + n));
+    }
+
+    @Benchmark
+    public List<User> searchUsersByName() {
+        // Matches about 1 in 1000 users, after a full scan of the table
+        return userService.searchUsersByName(
+                "user " + ThreadLocalRandom.current().nextInt(100, 1000) + "x");
+    }
+
+    @Benchmark
+    public List<User> getRecentUsers() {
+        return userService.getRecentUsers(7);
+    }
+
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            Timestamp createdAt =
+                    Timestamp.valueOf(now.minusMinutes((long) i * 525600 / tableSize));
+            rows.add(
+                    new Object[] {
+                        // 1000 name groups; the x ends the group number, so a search hits one group
+                        "User " + (i % 1000) + "x " + i,
+                        "seed" + i + "@example.com",
+                        "Seeded user " + i,
+                        createdAt,
+                        createdAt
+                    });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (name, email, bio, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                rows);
+    }
+}
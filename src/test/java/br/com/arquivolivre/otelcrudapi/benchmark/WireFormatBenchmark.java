@@ -0,0 +1,124 @@
+package br.com.arquivolivre.otelcrudapi.benchmark;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Encode and decode cost of {@link User} and user lists per wire format. Payload sizes are printed
+ * once per trial. Run with {@code make bench BENCH=WireFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"10", "100", "1000"})
+    public int listSize;
+
+    private User user;
+    private List<User> users;
+    private ObjectWriter userWriter;
+    private ObjectWriter listWriter;
+    private ObjectReader userReader;
+    private ObjectReader listReader;
+    private byte[] encodedUser;
+    private byte[] encodedList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper mapper = mapper(format);
+        userWriter = mapper.writerFor(User.class);
+        listWriter = mapper.writerFor(new TypeReference<List<User>>() {});
+        userReader = mapper.readerFor(User.class);
+        listReader = mapper.readerFor(new TypeReference<List<User>>() {});
+
+        user = user(1);
+        users = new ArrayList<>();
+        for (int i = 0; i < listSize; i++) {
+            users.add(user(i));
+        }
+        encodedUser = userWriter.writeValueAsBytes(user);
+        encodedList = listWriter.writeValueAsBytes(users);
+
+        System.out.printf(
+                "%n[payload] format=%s user=%d bytes list(%d)=%d bytes%n",
+                format, encodedUser.length, listSize, encodedList.length);
+    }
+
+    @Benchmark
+    public byte[] encodeUser() throws Exception {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User decodeUser() throws Exception {
+        return userReader.readValue(encodedUser);
+    }
+
+    @Benchmark
+    public byte[] encodeList() throws Exception {
+        return listWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> decodeList() throws Exception {
+        return listReader.readValue(encodedList);
+    }
+
+    /** Same settings the application applies through spring.jackson.* */
+    static ObjectMapper mapper(String format) {
+        Jackson2ObjectMapperBuilder builder =
+                switch (format) {
+                    case "json" -> Jackson2ObjectMapperBuilder.json();
+                    case "smile" -> Jackson2ObjectMapperBuilder.smile();
+                    case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+                    default -> throw new IllegalArgumentException("Unknown format: " + format);
+                };
+        return builder.featuresToDisable(
+                        SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+    }
+
+    private static User user(int i) {
+        User user =
+                new User(
+                        "Benchmark User " + i,
+                        "benchmark.user" + i + "@example.com",
+                        "Software engineer working on observability pipelines, team " + i % 7);
+        user.setId((long) i + 1);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+        user.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 12, 0).plusMinutes(i));
+        return user;
+    }
+}
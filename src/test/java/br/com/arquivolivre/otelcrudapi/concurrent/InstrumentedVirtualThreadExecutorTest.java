@@ -0,0 +1,86 @@
+package br.com.arquivolivre.otelcrudapi.concurrent;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class InstrumentedVirtualThreadExecutorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final InstrumentedVirtualThreadExecutor executor =
+            new InstrumentedVirtualThreadExecutor("test", "test-worker-", clock::get);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_ShouldRunEachTaskOnANamedVirtualThread() throws Exception {
+        Future<Thread> thread = executor.submit(Thread::currentThread);
+
+        assertThat(thread.get().isVirtual()).isTrue();
+        assertThat(thread.get().getName()).startsWith("test-worker-");
+    }
+
+    @Test
+    void counts_ShouldTrackSubmittedActiveAndCompletedTasks() throws Exception {
+        executor.bindTo(registry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> running = executor.submit(() -> awaitQuietly(release));
+        await().atMost(Duration.ofSeconds(5)).until(() -> executor.getActive() == 1);
+        assertThat(executor.getSubmitted()).isEqualTo(1);
+        assertThat(executor.getCompleted()).isZero();
+        assertThat(registry.get("executor.active").tag("name", "test").gauge().value())
+                .isEqualTo(1);
+
+        release.countDown();
+        running.get();
+        await().atMost(Duration.ofSeconds(5)).until(() -> executor.getCompleted() == 1);
+        assertThat(executor.getActive()).isZero();
+        assertThat(registry.get("executor.submitted").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("executor.completed").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldTimeWaitingAndRunning() throws Exception {
+        executor.bindTo(registry);
+
+        executor.submit(() -> clock.addAndGet(Duration.ofMillis(30).toNanos())).get();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> executor.getCompleted() == 1);
+        Timer execution = registry.get("executor").tag("name", "test").timer();
+        assertThat(execution.count()).isEqualTo(1);
+        assertThat(execution.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30.0);
+        assertThat(registry.get("executor.idle").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldNotCountTasksRejectedAfterShutdown() {
+        executor.shutdown();
+
+        assertThatThrownBy(() -> executor.execute(() -> {}))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getSubmitted()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+        properties = {
+            "server.http2.enabled=true",
+            "app.http2.max-concurrent-streams=64",
+            "spring.threads.virtual.enabled=true"
+        })
+class Http2ConfigTest {
+
+    @LocalServerPort private int port;
+
+    @Autowired private ServletWebServerApplicationContext context;
+
+    @Test
+    void http2Enabled_ShouldApplyConfiguredStreamLimits() {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+
+        assertThat(connector.findUpgradeProtocols())
+                .hasAtLeastOneElementOfType(Http2Protocol.class)
+                .allSatisfy(
+                        protocol ->
+                                assertThat(((Http2Protocol) protocol).getMaxConcurrentStreams())
+                                        .isEqualTo(64));
+    }
+
+    @Test
+    void h2cRequest_ShouldBeServedOverHttp2OnVirtualThread() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        HttpRequest request =
+                HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/api/users/thread-info"))
+                        .GET()
+                        .build();
+
+        // The first request upgrades the connection, the second one runs as an HTTP/2 stream
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(response.body()).contains("\"isVirtual\":true");
+    }
+}
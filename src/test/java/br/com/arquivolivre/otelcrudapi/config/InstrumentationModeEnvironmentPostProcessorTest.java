@@ -0,0 +1,100 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+class InstrumentationModeEnvironmentPostProcessorTest {
+
+    private static final Log LOG =
+            LogFactory.getLog(InstrumentationModeEnvironmentPostProcessorTest.class);
+
+    @Test
+    void starterModeLeavesStarterEnabled() {
+        MockEnvironment environment = new MockEnvironment();
+
+        process(environment, false);
+
+        assertThat(environment.getProperty("otel.sdk.disabled")).isNull();
+        assertThat(
+                        environment
+                                .getPropertySources()
+                                .contains(
+                                        InstrumentationModeEnvironmentPostProcessor
+                                                .PROPERTY_SOURCE_NAME))
+                .isFalse();
+    }
+
+    @Test
+    void agentModeDisablesStarter() {
+        MockEnvironment environment =
+                new MockEnvironment()
+                        .withProperty("app.instrumentation.mode", "agent")
+                        .withProperty("otel.sdk.disabled", "false");
+
+        process(environment, true);
+
+        assertThat(environment.getProperty("otel.sdk.disabled")).isEqualTo("true");
+        assertThat(environment.getProperty("otel.instrumentation.common.default-enabled"))
+                .isEqualTo("false");
+    }
+
+    @Test
+    void agentModeWithoutAgentStillDisablesStarter() {
+        MockEnvironment environment =
+                new MockEnvironment().withProperty("app.instrumentation.mode", "AGENT");
+
+        process(environment, false);
+
+        assertThat(environment.getProperty("otel.sdk.disabled")).isEqualTo("true");
+    }
+
+    @Test
+    void noneModeDisablesStarter() {
+        MockEnvironment environment =
+                new MockEnvironment().withProperty("app.instrumentation.mode", "none");
+
+        process(environment, false);
+
+        assertThat(environment.getProperty("otel.sdk.disabled")).isEqualTo("true");
+        assertThat(environment.getProperty("otel.instrumentation.common.default-enabled"))
+                .isEqualTo("false");
+    }
+
+    @Test
+    void agentAttachedOutsideAgentModeFailsStartup() {
+        assertThatThrownBy(() -> process(new MockEnvironment(), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("double instrumentation");
+
+        MockEnvironment none =
+                new MockEnvironment().withProperty("app.instrumentation.mode", "none");
+        assertThatThrownBy(() -> process(none, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.instrumentation.mode=none");
+    }
+
+    @Test
+    void invalidModeFailsStartup() {
+        MockEnvironment environment =
+                new MockEnvironment().withProperty("app.instrumentation.mode", "both");
+
+        assertThatThrownBy(() -> process(environment, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("'both'");
+    }
+
+    @Test
+    void agentIsNotAttachedToTests() {
+        assertThat(InstrumentationModeEnvironmentPostProcessor.isAgentAttached()).isFalse();
+    }
+
+    private static void process(MockEnvironment environment, boolean agentAttached) {
+        new InstrumentationModeEnvironmentPostProcessor(LOG, () -> agentAttached)
+                .postProcessEnvironment(environment, new SpringApplication());
+    }
+}
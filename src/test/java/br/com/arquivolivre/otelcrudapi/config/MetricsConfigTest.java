@@ -0,0 +1,63 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void timedAspect_ShouldTimeEveryPublicMethodOfTimedClasses() {
+        Greeter greeter = timed(new Greeter());
+
+        assertThat(greeter.greet("john")).isEqualTo("hello john");
+        greeter.greet("jane");
+
+        // Simple class name, as used by the Class.method bucket rules
+        Timer timer =
+                registry.get("greeter")
+                        .tags("class", "Greeter", "method", "greet", "exception", "none")
+                        .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.getId().getDescription()).isEqualTo("Greeter latency");
+    }
+
+    @Test
+    void timedAspect_ShouldTagFailuresWithTheException() {
+        Greeter greeter = timed(new Greeter());
+
+        assertThatThrownBy(() -> greeter.greet(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(
+                        registry.get("greeter")
+                                .tags("method", "greet", "exception", "IllegalArgumentException")
+                                .timer()
+                                .count())
+                .isEqualTo(1);
+        assertThat(registry.find("greeter").tag("exception", "none").timer()).isNull();
+    }
+
+    private <T> T timed(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new MetricsConfig().timedAspect(registry));
+        return proxyFactory.getProxy();
+    }
+
+    @Timed(value = "greeter", description = "Greeter latency")
+    static class Greeter {
+
+        public String greet(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("name is required");
+            }
+            return "hello " + name;
+        }
+    }
+}
@@ -2,9 +2,10 @@ package br.com.arquivolivre.otelcrudapi.config;
 
 import static org.assertj.core.api.Assertions.*;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.TestConfiguration;
-import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
@@ -19,8 +20,7 @@ class VirtualThreadsConfigTest {
         AsyncTaskExecutor executor = config.applicationTaskExecutor();
         assertThat(executor).isNotNull();
 
-        TomcatProtocolHandlerCustomizer<?> customizer =
-                config.protocolHandlerVirtualThreadExecutorCustomizer();
+        WebServerFactoryCustomizer<?> customizer = config.tomcatVirtualThreadExecutorCustomizer();
         assertThat(customizer).isNotNull();
     }
 
@@ -48,10 +48,9 @@ class VirtualThreadsConfigTest {
     }
 
     @Test
-    void protocolHandlerVirtualThreadExecutorCustomizer_ShouldReturnValidCustomizer() {
+    void tomcatVirtualThreadExecutorCustomizer_ShouldReturnValidCustomizer() {
         VirtualThreadsConfig config = new VirtualThreadsConfig();
-        TomcatProtocolHandlerCustomizer<?> customizer =
-                config.protocolHandlerVirtualThreadExecutorCustomizer();
+        WebServerFactoryCustomizer<?> customizer = config.tomcatVirtualThreadExecutorCustomizer();
 
         assertThat(customizer).isNotNull();
 
@@ -60,6 +59,17 @@ class VirtualThreadsConfigTest {
         // This test verifies the customizer bean is created successfully
     }
 
+    @Test
+    void virtualThreadExecutorMetrics_ShouldBindBothExecutors() {
+        VirtualThreadsConfig config = new VirtualThreadsConfig();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        config.virtualThreadExecutorMetrics().bindTo(registry);
+
+        assertThat(registry.find("executor.active").tag("name", "application").gauge()).isNotNull();
+        assertThat(registry.find("executor.active").tag("name", "tomcat").gauge()).isNotNull();
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
@@ -0,0 +1,113 @@
+package br.com.arquivolivre.otelcrudapi.config;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import br.com.arquivolivre.otelcrudapi.controller.UserController;
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.service.UserService;
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import br.com.arquivolivre.otelcrudapi.web.IdempotencyStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(UserController.class)
+@Import(IdempotencyStore.class)
+class WireFormatConfigTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockBean private UserService userService;
+
+    @MockBean private UserStatsService userStatsService;
+
+    private final CBORMapper cborMapper =
+            CBORMapper.builder().addModule(new JavaTimeModule()).build();
+    private final SmileMapper smileMapper =
+            SmileMapper.builder().addModule(new JavaTimeModule()).build();
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("John Doe", "john.doe@example.com", "Software Engineer");
+        testUser.setId(1L);
+        testUser.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    @Test
+    void getUser_WithoutAcceptHeader_ShouldDefaultToJson() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getUser_WithCborAccept_ShouldReturnCbor() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(testUser));
+
+        byte[] body =
+                mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsByteArray();
+
+        User decoded = cborMapper.readValue(body, User.class);
+        assertThat(decoded.getEmail()).isEqualTo("john.doe@example.com");
+        assertThat(decoded.getCreatedAt()).isEqualTo(testUser.getCreatedAt());
+    }
+
+    @Test
+    void getAllUsers_WithSmileAccept_ShouldReturnSmileList() throws Exception {
+        when(userService.getAllUsers()).thenReturn(List.of(testUser));
+
+        byte[] body =
+                mockMvc.perform(get("/api/users").accept(SMILE))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(SMILE))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsByteArray();
+
+        List<User> decoded = smileMapper.readValue(body, new TypeReference<List<User>>() {});
+        assertThat(decoded).extracting(User::getName).containsExactly("John Doe");
+    }
+
+    @Test
+    void createUser_WithCborBody_ShouldBeDecoded() throws Exception {
+        when(userService.createUser(any(User.class))).thenReturn(testUser);
+        User request = new User("John Doe", "john.doe@example.com", "Software Engineer");
+
+        mockMvc.perform(
+                        post("/api/users")
+                                .contentType(MediaType.APPLICATION_CBOR)
+                                .accept(MediaType.APPLICATION_CBOR)
+                                .content(cborMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        verify(userService, times(1)).createUser(any(User.class));
+    }
+}
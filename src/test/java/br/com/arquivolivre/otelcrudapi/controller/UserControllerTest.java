@@ -1,5 +1,6 @@
 package br.com.arquivolivre.otelcrudapi.controller;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -7,13 +8,21 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import br.com.arquivolivre.otelcrudapi.jfr.VirtualThreadMonitor;
 import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserStats;
+import br.com.arquivolivre.otelcrudapi.service.EmailAlreadyExistsException;
+import br.com.arquivolivre.otelcrudapi.service.UserNotFoundException;
 import br.com.arquivolivre.otelcrudapi.service.UserService;
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import br.com.arquivolivre.otelcrudapi.web.IdempotencyStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,17 +30,23 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 @ExtendWith(MockitoExtension.class)
 @WebMvcTest(UserController.class)
+@Import(IdempotencyStore.class)
 class UserControllerTest {
 
     @Autowired private MockMvc mockMvc;
 
     @MockBean private UserService userService;
 
+    @MockBean private UserStatsService userStatsService;
+
+    @MockBean private VirtualThreadMonitor virtualThreadMonitor;
+
     @Autowired private ObjectMapper objectMapper;
 
     private User testUser;
@@ -149,6 +164,126 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createUser_WithExistingEmail_ShouldReturnBadRequest() throws Exception {
+        User newUser = new User("John Doe", "john.doe@example.com", "Software Engineer");
+        when(userService.createUser(any(User.class)))
+                .thenThrow(
+                        new EmailAlreadyExistsException(
+                                "User with email john.doe@example.com already exists"));
+
+        mockMvc.perform(
+                        post("/api/users")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(newUser)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("already exists")))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
+    @Test
+    void updateUser_WithUnknownId_ShouldReturnBadRequest() throws Exception {
+        User details = new User("John Doe", "john.doe@example.com", "Software Engineer");
+        when(userService.updateUser(eq(999L), any(User.class)))
+                .thenThrow(new UserNotFoundException(999L));
+
+        mockMvc.perform(
+                        put("/api/users/999")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(details)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("User not found with id: 999")));
+    }
+
+    @Test
+    void updateUser_WithUnexpectedIllegalArgument_ShouldNotBeMappedToBadRequest() {
+        User details = new User("John Doe", "john.doe@example.com", "Software Engineer");
+        when(userService.updateUser(eq(1L), any(User.class)))
+                .thenThrow(new IllegalArgumentException("bug in a library call"));
+
+        // Left to Boot's error handling (a 500); MockMvc has no error page, so it surfaces here
+        assertThatThrownBy(
+                        () ->
+                                mockMvc.perform(
+                                        put("/api/users/1")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(details))))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void createUser_WithRepeatedIdempotencyKey_ShouldReplayWithoutCallingService()
+            throws Exception {
+        User newUser = new User("Alice Johnson", "alice.johnson@example.com", "DevOps Engineer");
+        when(userService.createUser(any(User.class))).thenReturn(testUser);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(
+                            post("/api/users")
+                                    .header(IdempotencyStore.KEY_HEADER, "retry-key")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(newUser)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id", is(1)));
+        }
+
+        verify(userService, times(1)).createUser(any(User.class));
+    }
+
+    @Test
+    void createUser_WithRepeatedIdempotencyKeyAndExistingEmail_ShouldReplayTheBadRequest()
+            throws Exception {
+        User newUser = new User("John Doe", "john.doe@example.com", "Software Engineer");
+        when(userService.createUser(any(User.class)))
+                .thenThrow(
+                        new EmailAlreadyExistsException(
+                                "User with email john.doe@example.com already exists"));
+
+        mockMvc.perform(
+                        post("/api/users")
+                                .header(IdempotencyStore.KEY_HEADER, "duplicate-key")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(newUser)))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+
+        mockMvc.perform(
+                        post("/api/users")
+                                .header(IdempotencyStore.KEY_HEADER, "duplicate-key")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(newUser)))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.error", containsString("already exists")));
+
+        verify(userService, times(1)).createUser(any(User.class));
+    }
+
+    @Test
+    void createUser_WithIdempotencyKeyReusedForOtherPayload_ShouldReturnUnprocessable()
+            throws Exception {
+        when(userService.createUser(any(User.class))).thenReturn(testUser);
+        User first = new User("Alice Johnson", "alice.johnson@example.com", "DevOps Engineer");
+        User second = new User("Bob Stone", "bob.stone@example.com", "QA Engineer");
+
+        mockMvc.perform(
+                        post("/api/users")
+                                .header(IdempotencyStore.KEY_HEADER, "reused-key")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(
+                        post("/api/users")
+                                .header(IdempotencyStore.KEY_HEADER, "reused-key")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(second)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error", containsString("reused-key")));
+
+        verify(userService, times(1)).createUser(any(User.class));
+    }
+
     @Test
     void updateUser_WithValidData_ShouldReturnUpdatedUser() throws Exception {
         User updatedUser = new User();
@@ -211,6 +346,23 @@ class UserControllerTest {
         verify(userService, times(1)).searchUsersByName("John");
     }
 
+    @Test
+    void getStats_ShouldReturnCountersWithoutQueryingUsers() throws Exception {
+        TreeMap<LocalDate, Long> signups = new TreeMap<>();
+        signups.put(LocalDate.of(2024, 5, 1), 3L);
+        when(userStatsService.getStats())
+                .thenReturn(new UserStats(5, 4, signups, LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalUsers", is(5)))
+                .andExpect(jsonPath("$.usersWithBio", is(4)))
+                .andExpect(jsonPath("$.signupsPerDay['2024-05-01']", is(3)));
+
+        verify(userStatsService, times(1)).getStats();
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void getRecentUsers_ShouldReturnRecentUsers() throws Exception {
         when(userService.getRecentUsers(7)).thenReturn(testUsers);
@@ -255,4 +407,18 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.threadClass", notNullValue()))
                 .andExpect(jsonPath("$.timestamp", notNullValue()));
     }
+
+    @Test
+    void threadInfo_ShouldIncludeSchedulerStats() throws Exception {
+        when(virtualThreadMonitor.schedulerStats())
+                .thenReturn(new VirtualThreadMonitor.SchedulerStats(8, 8, 3, 12, 2, 45.5, 0));
+
+        mockMvc.perform(get("/api/users/thread-info"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scheduler.parallelism", is(8)))
+                .andExpect(jsonPath("$.scheduler.mountedVirtualThreads", is(3)))
+                .andExpect(jsonPath("$.scheduler.queuedVirtualThreads", is(12)))
+                .andExpect(jsonPath("$.scheduler.pinnedEvents", is(2)))
+                .andExpect(jsonPath("$.scheduler.pinnedTotalMs", is(45.5)));
+    }
 }
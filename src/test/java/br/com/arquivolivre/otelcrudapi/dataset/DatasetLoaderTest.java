@@ -0,0 +1,134 @@
+package br.com.arquivolivre.otelcrudapi.dataset;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class DatasetLoaderTest {
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:dataset;DB_CLOSE_DELAY=-1");
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        execute(
+                "CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                        + " name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL UNIQUE,"
+                        + " bio VARCHAR(255), created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP)");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP TABLE users");
+    }
+
+    @Test
+    void load_WithCsv_ShouldInsertEveryRowInChunks() throws Exception {
+        long users = DatasetLoader.CSV_CHUNK_ROWS + 500;
+
+        assertThat(loader(users, "csv").load()).isEqualTo(users);
+
+        assertThat(query("SELECT COUNT(*) FROM users")).isEqualTo(users);
+        assertThat(query("SELECT COUNT(*) FROM users WHERE bio IS NULL")).isPositive();
+        assertThat(query("SELECT COUNT(*) FROM users WHERE bio = ''")).isZero();
+        assertThat(query("SELECT COUNT(*) FROM users WHERE updated_at <> created_at")).isZero();
+    }
+
+    @Test
+    void load_WithJdbc_ShouldInsertTheSameRowsAsCsv() throws Exception {
+        loader(2_500, "jdbc").load();
+        String jdbc = fingerprint();
+        execute("DELETE FROM users");
+        loader(2_500, "csv").load();
+
+        assertThat(query("SELECT COUNT(*) FROM users")).isEqualTo(2_500);
+        assertThat(fingerprint()).isEqualTo(jdbc);
+    }
+
+    @Test
+    void load_ShouldTopUpAnExistingTableAndSkipAFullOne() throws Exception {
+        execute(
+                "INSERT INTO users (name, email, created_at) VALUES"
+                        + " ('John Doe', 'john.doe@example.com', CURRENT_TIMESTAMP)");
+
+        assertThat(loader(1_000, "csv").load()).isEqualTo(999);
+        assertThat(loader(1_500, "jdbc").load()).isEqualTo(500);
+        assertThat(loader(1_500, "csv").load()).isZero();
+        assertThat(query("SELECT COUNT(*) FROM users")).isEqualTo(1_500);
+    }
+
+    @Test
+    void run_ShouldLoadThroughTheDelegateAndReconcileStats() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        DatasetLoader loader =
+                new DatasetLoader(
+                        new DelegatingDataSource(dataSource),
+                        beanFactory.getBeanProvider(UserStatsService.class),
+                        100,
+                        "JDBC",
+                        7,
+                        42,
+                        30);
+
+        loader.run(null);
+
+        assertThat(query("SELECT COUNT(*) FROM users")).isEqualTo(100);
+    }
+
+    private DatasetLoader loader(long users, String strategy) {
+        return new DatasetLoader(
+                dataSource,
+                new DefaultListableBeanFactory().getBeanProvider(UserStatsService.class),
+                users,
+                strategy,
+                1_000,
+                42,
+                730);
+    }
+
+    private String fingerprint() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet =
+                        statement.executeQuery(
+                                "SELECT name, email, bio FROM users ORDER BY email")) {
+            StringBuilder fingerprint = new StringBuilder();
+            while (resultSet.next()) {
+                fingerprint
+                        .append(resultSet.getString(1))
+                        .append('|')
+                        .append(resultSet.getString(2))
+                        .append('|')
+                        .append(resultSet.getString(3))
+                        .append('\n');
+            }
+            return fingerprint.toString();
+        }
+    }
+
+    private long query(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
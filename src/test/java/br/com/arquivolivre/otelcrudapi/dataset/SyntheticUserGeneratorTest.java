@@ -0,0 +1,85 @@
+package br.com.arquivolivre.otelcrudapi.dataset;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SyntheticUserGeneratorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @TempDir Path dir;
+
+    private final SyntheticUserGenerator generator = new SyntheticUserGenerator(42, 730, NOW);
+
+    @Test
+    void row_ShouldDependOnlyOnSeedAndIndex() {
+        SyntheticUserGenerator same = new SyntheticUserGenerator(42, 730, NOW);
+        SyntheticUserGenerator other = new SyntheticUserGenerator(7, 730, NOW);
+
+        assertThat(same.row(12_345)).isEqualTo(generator.row(12_345));
+        assertThat(other.row(12_345)).isNotEqualTo(generator.row(12_345));
+    }
+
+    @Test
+    void rows_ShouldHaveUniqueEmailsAndFitTheUserConstraints() {
+        List<SyntheticUserGenerator.Row> rows =
+                LongStream.range(0, 20_000).mapToObj(generator::row).toList();
+
+        Set<String> emails = new HashSet<>();
+        for (SyntheticUserGenerator.Row row : rows) {
+            assertThat(emails.add(row.email())).as(row.email()).isTrue();
+            assertThat(row.email()).matches("[a-z._0-9]+@[a-z]+\\.com");
+            assertThat(row.name().length()).isBetween(2, 50);
+            if (row.bio() != null) {
+                assertThat(row.bio().length()).isLessThanOrEqualTo(200);
+            }
+            assertThat(row.createdAt()).isBetween(NOW.minusDays(730), NOW);
+        }
+    }
+
+    @Test
+    void rows_ShouldFollowTheDocumentedDistributions() {
+        List<SyntheticUserGenerator.Row> rows =
+                LongStream.range(0, 20_000).mapToObj(generator::row).toList();
+
+        double withBio = rows.stream().filter(row -> row.bio() != null).count() / 20_000.0;
+        double lastWeek =
+                rows.stream().filter(row -> row.createdAt().isAfter(NOW.minusDays(7))).count()
+                        / 20_000.0;
+        long mostCommonFirstName =
+                rows.stream().filter(row -> row.name().startsWith("James ")).count();
+        long rareFirstName = rows.stream().filter(row -> row.name().startsWith("Mateo ")).count();
+
+        assertThat(withBio).isBetween(0.62, 0.68);
+        assertThat(lastWeek).isBetween(0.01, 0.03);
+        assertThat(mostCommonFirstName).isGreaterThan(rareFirstName * 20);
+    }
+
+    @Test
+    void writeCsv_ShouldQuoteFieldsAndLeaveMissingBiosEmpty() throws Exception {
+        Path file = dir.resolve("users.csv");
+        generator.writeCsv(file, 100, 200);
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(101);
+        assertThat(lines.getFirst()).isEqualTo("NAME,EMAIL,BIO,CREATED_AT");
+        SyntheticUserGenerator.Row first = generator.row(100);
+        assertThat(lines.get(1)).startsWith("\"" + first.name() + "\",\"" + first.email() + "\",");
+        assertThat(lines).anyMatch(line -> line.contains("\",,\""));
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveDays() {
+        assertThatThrownBy(() -> new SyntheticUserGenerator(42, 0, NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.arquivolivre.otelcrudapi.health;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import br.com.arquivolivre.otelcrudapi.health.LoadSampler.LoadSample;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+@ExtendWith(MockitoExtension.class)
+class BackpressureHealthIndicatorTest {
+
+    private static final Duration TTL = Duration.ofSeconds(1);
+
+    @Mock private LoadSampler loadSampler;
+
+    private AtomicLong clock;
+    private BackpressureHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        indicator =
+                new BackpressureHealthIndicator(loadSampler, 100.0, 10, 0.2, 0.5, TTL, clock::get);
+    }
+
+    @Test
+    void health_WithLoadBelowThresholds_ShouldBeUp() {
+        when(loadSampler.sample()).thenReturn(new LoadSample(5.0, 2, 0.01));
+
+        Health health = indicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("inFlight", 2);
+    }
+
+    @Test
+    void health_WithAnyThresholdExceeded_ShouldBeOutOfService() {
+        when(loadSampler.sample()).thenReturn(new LoadSample(150.0, 2, 0.01));
+
+        Health health = indicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsKey("exceeded");
+    }
+
+    @Test
+    void health_WhenLoadDropsJustBelowThreshold_ShouldStayOutOfServiceUntilRecovered() {
+        when(loadSampler.sample())
+                .thenReturn(new LoadSample(0.0, 11, 0.0))
+                .thenReturn(new LoadSample(0.0, 9, 0.0))
+                .thenReturn(new LoadSample(0.0, 4, 0.0));
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        clock.addAndGet(TTL.toNanos());
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        clock.addAndGet(TTL.toNanos());
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void health_WithinCacheTtl_ShouldNotResample() {
+        when(loadSampler.sample()).thenReturn(new LoadSample(0.0, 1, 0.0));
+
+        indicator.health();
+        clock.addAndGet(TTL.toNanos() - 1);
+        indicator.health();
+
+        verify(loadSampler, times(1)).sample();
+
+        clock.addAndGet(1);
+        indicator.health();
+
+        verify(loadSampler, times(2)).sample();
+    }
+}
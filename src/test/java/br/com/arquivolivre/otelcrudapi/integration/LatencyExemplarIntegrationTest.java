@@ -0,0 +1,74 @@
+package br.com.arquivolivre.otelcrudapi.integration;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:exemplars",
+            "otel.traces.exporter=none",
+            "otel.metrics.exporter=none",
+            "management.endpoints.web.exposure.include=prometheus",
+            "app.metrics.latency.exemplars=true",
+            "app.metrics.latency.buckets=GET /api/users/search=3ms 7ms 5s,"
+                    + "UserService.searchUsersByName=2ms 4ms 5s"
+        })
+class LatencyExemplarIntegrationTest {
+
+    private static final String OPEN_METRICS = "application/openmetrics-text; version=1.0.0";
+
+    @LocalServerPort private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void scrape_ShouldExposeConfiguredBucketsWithTraceIdExemplars() throws Exception {
+        assertThat(get("/api/users/search?name=john", "application/json").statusCode())
+                .isEqualTo(200);
+
+        // The first scrape times itself; both timer families must still render as histograms
+        get("/actuator/prometheus", OPEN_METRICS);
+        HttpResponse<String> response = get("/actuator/prometheus", OPEN_METRICS);
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        String scrape = response.body();
+
+        String endpoint = exemplarTraceId(scrape, "http_server_requests_seconds_bucket");
+        String service = exemplarTraceId(scrape, "user_service_seconds_bucket");
+        assertThat(endpoint).matches("[0-9a-f]{32}");
+        assertThat(service).isEqualTo(endpoint);
+        assertThat(scrape)
+                .contains("uri=\"/api/users/search\",le=\"0.003\"")
+                .contains("method=\"searchUsersByName\",le=\"0.002\"")
+                .contains("uri=\"/actuator/prometheus\",le=\"0.005\"");
+    }
+
+    /** Trace ID of the exemplar on one of the search buckets of this histogram */
+    private static String exemplarTraceId(String scrape, String bucket) {
+        Matcher matcher =
+                Pattern.compile(bucket + "\\{[^}]*search[^}]*} \\d+ # \\{[^}]*trace_id=\"(\\w+)\"")
+                        .matcher(scrape);
+        assertThat(matcher.find()).as("exemplar on " + bucket + " in\n" + scrape).isTrue();
+        return matcher.group(1);
+    }
+
+    private HttpResponse<String> get(String path, String accept) throws Exception {
+        return client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Accept", accept)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.arquivolivre.otelcrudapi.integration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import br.com.arquivolivre.otelcrudapi.service.UserReadModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:readmodel",
+            "app.read-model.enabled=true",
+            "app.read-model.check-initial-delay-ms=3600000"
+        })
+class ReadModelIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Autowired private UserReadModel readModel;
+
+    @Autowired private UserRepository userRepository;
+
+    @Autowired private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Built at startup from data.sql, before any test runs
+        assertThat(readModel.isReady()).isTrue();
+    }
+
+    @Test
+    void writes_ShouldBeVisibleToReadsServedFromTheModel() throws Exception {
+        String body =
+                mockMvc.perform(
+                                post("/api/users")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(
+                                                objectMapper.writeValueAsString(
+                                                        new User(
+                                                                "Read Model",
+                                                                "read.model@example.com",
+                                                                "CQRS"))))
+                        .andExpect(status().isCreated())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+        long id = objectMapper.readValue(body, User.class).getId();
+
+        mockMvc.perform(get("/api/users/email/read.model@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is((int) id)));
+        mockMvc.perform(get("/api/users/search").param("name", "READ mod"))
+                .andExpect(jsonPath("$[*].id", contains((int) id)));
+        mockMvc.perform(get("/api/users/recent").param("days", "1"))
+                .andExpect(jsonPath("$[*].id", hasItem((int) id)));
+
+        mockMvc.perform(
+                        put("/api/users/" + id)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                new User(
+                                                        "Read Model",
+                                                        "renamed@example.com",
+                                                        null))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/email/read.model@example.com"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/" + id))
+                .andExpect(jsonPath("$.email", is("renamed@example.com")))
+                .andExpect(jsonPath("$.bio").doesNotExist());
+
+        mockMvc.perform(delete("/api/users/" + id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/" + id)).andExpect(status().isNotFound());
+
+        assertThat(readModel.check()).isZero();
+    }
+
+    @Test
+    void check_ShouldPickUpRowsWrittenBehindTheServicesBack() {
+        User saved = userRepository.save(new User("Behind Back", "behind@example.com", null));
+        assertThat(readModel.findById(saved.getId())).isEmpty();
+
+        assertThat(readModel.check()).isEqualTo(1);
+        assertThat(readModel.findById(saved.getId()))
+                .map(User::getEmail)
+                .contains("behind@example.com");
+
+        userRepository.delete(saved);
+        assertThat(readModel.check()).isEqualTo(1);
+        assertThat(readModel.check()).isZero();
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.arquivolivre.otelcrudapi.integration;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:tomcat-executor",
+            "spring.threads.virtual.enabled=true",
+            "otel.traces.exporter=none",
+            "otel.metrics.exporter=none"
+        })
+class TomcatExecutorIntegrationTest {
+
+    @LocalServerPort private int port;
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void requests_ShouldRunOnTheInstrumentedTomcatExecutor() throws Exception {
+        double before = submitted();
+
+        HttpResponse<Void> response =
+                client.send(
+                        HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + port + "/api/users"))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        // Not Boot's own VirtualThreadExecutor, which would leave the meter at 0
+        assertThat(submitted()).isGreaterThan(before);
+    }
+
+    private double submitted() {
+        return meterRegistry
+                .get("executor.submitted")
+                .tag("name", "tomcat")
+                .functionCounter()
+                .count();
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.arquivolivre.otelcrudapi.integration;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -7,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import br.com.arquivolivre.otelcrudapi.model.User;
 import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,7 +28,9 @@ import org.springframework.web.context.WebApplicationContext;
         properties = {
             "spring.datasource.url=jdbc:h2:mem:testdb",
             "spring.threads.virtual.enabled=true",
-            "logging.level.com.example.otelcrudapi=DEBUG"
+            "logging.level.com.example.otelcrudapi=DEBUG",
+            "app.jfr.profiling.enabled=true",
+            "management.endpoints.web.exposure.include=health,info,metrics,prometheus,flamegraph"
         })
 @Transactional
 class UserIntegrationTest {
@@ -37,6 +41,8 @@ class UserIntegrationTest {
 
     @Autowired private ObjectMapper objectMapper;
 
+    @Autowired private MeterRegistry meterRegistry;
+
     private MockMvc mockMvc;
 
     @BeforeEach
@@ -222,6 +228,36 @@ class UserIntegrationTest {
                 .andExpect(jsonPath("$.error", containsString("not found")));
     }
 
+    @Test
+    void repositoryCalls_ShouldBeTimedPerRepositoryMethod() throws Exception {
+        createTestUser();
+
+        mockMvc.perform(get("/api/users/search").param("name", "Test")).andExpect(status().isOk());
+
+        assertThat(
+                        meterRegistry
+                                .get("repository.sql")
+                                .tags(
+                                        "repository",
+                                        "UserRepository",
+                                        "method",
+                                        "findByNameContainingIgnoreCase")
+                                .timer()
+                                .count())
+                .isPositive();
+    }
+
+    @Test
+    void flameGraph_ShouldReturnCollapsedStacks() throws Exception {
+        mockMvc.perform(
+                        get("/actuator/flamegraph")
+                                .param("duration", "1s")
+                                .param("event", "cpu")
+                                .param("threads", "request"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN));
+    }
+
     @Test
     void healthCheck_ShouldReturnHealthStatus() throws Exception {
         mockMvc.perform(get("/api/users/health"))
@@ -0,0 +1,39 @@
+package br.com.arquivolivre.otelcrudapi.integration;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The web server matches the {@code server-*} build profile: {@code server.engine} is set by the
+ * profile through surefire, so a Tomcat left on the test classpath fails the Jetty and Undertow
+ * builds. Server classes are matched by name, as only one engine is on the classpath.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:web-server-engine",
+            "otel.traces.exporter=none",
+            "otel.metrics.exporter=none"
+        })
+class WebServerEngineIntegrationTest {
+
+    @Autowired private ServletWebServerApplicationContext context;
+
+    @Test
+    void webServer_ShouldBeTheEngineOfTheBuildProfile() {
+        String expected =
+                switch (System.getProperty("server.engine", "tomcat")) {
+                    case "jetty" -> "org.springframework.boot.web.embedded.jetty.JettyWebServer";
+                    case "undertow" ->
+                            "org.springframework.boot.web.embedded.undertow.UndertowServletWebServer";
+                    default -> "org.springframework.boot.web.embedded.tomcat.TomcatWebServer";
+                };
+
+        assertThat(context.getWebServer().getClass().getName()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.arquivolivre.otelcrudapi.jdbc;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.jdbc.RepositoryMethodInterceptor.Caller;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+class RepositoryMethodInterceptorTest {
+
+    @Test
+    void invoke_ShouldExposeTheCallerForTheDurationOfTheCall() {
+        Recorder recorder = proxy(Recorder.class, new RecordingTarget());
+
+        assertThat(recorder.record()).isEqualTo(new Caller("Recorder", "record"));
+        assertThat(RepositoryMethodInterceptor.current()).isEqualTo(Caller.NONE);
+    }
+
+    @Test
+    void invoke_ShouldRestoreTheOuterCallerAfterANestedCall() {
+        Recorder inner = proxy(Recorder.class, new RecordingTarget());
+        List<Caller> seen = new ArrayList<>();
+        Runner outer =
+                proxy(
+                        Runner.class,
+                        () -> {
+                            seen.add(inner.record());
+                            seen.add(RepositoryMethodInterceptor.current());
+                        });
+
+        outer.run();
+
+        assertThat(seen)
+                .containsExactly(new Caller("Recorder", "record"), new Caller("Runner", "run"));
+        assertThat(RepositoryMethodInterceptor.current()).isEqualTo(Caller.NONE);
+    }
+
+    @Test
+    void invoke_ShouldClearTheCallerWhenTheCallFails() {
+        Runner failing =
+                proxy(
+                        Runner.class,
+                        () -> {
+                            throw new IllegalStateException("boom");
+                        });
+
+        assertThatThrownBy(failing::run).isInstanceOf(IllegalStateException.class);
+        assertThat(RepositoryMethodInterceptor.current()).isEqualTo(Caller.NONE);
+    }
+
+    private static <T> T proxy(Class<T> repositoryInterface, T target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setInterfaces(repositoryInterface);
+        proxyFactory.addAdvice(new RepositoryMethodInterceptor(repositoryInterface));
+        return repositoryInterface.cast(proxyFactory.getProxy());
+    }
+
+    interface Recorder {
+
+        Caller record();
+    }
+
+    interface Runner {
+
+        void run();
+    }
+
+    static class RecordingTarget implements Recorder {
+
+        @Override
+        public Caller record() {
+            return RepositoryMethodInterceptor.current();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package br.com.arquivolivre.otelcrudapi.jdbc;
+
+import static org.assertj.core.api.Assertions.*;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class SqlTimingDataSourceTest {
+
+    /** Every clock read advances by this much, so each statement takes one step */
+    private final AtomicLong step = new AtomicLong(Duration.ofMillis(1).toNanos());
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ListAppender<ILoggingEvent> logs = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SqlTimingDataSource.class);
+    private SqlTimingDataSource dataSource;
+    private Names names;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        dataSource =
+                new SqlTimingDataSource(
+                        new DriverManagerDataSource("jdbc:h2:mem:sqltiming;DB_CLOSE_DELAY=-1"),
+                        beanFactory.getBeanProvider(MeterRegistry.class),
+                        Duration.ofMillis(100),
+                        Duration.ofMinutes(1),
+                        () -> clock.getAndAdd(step.get()));
+        ProxyFactory proxyFactory = new ProxyFactory(new JdbcNames(dataSource));
+        proxyFactory.addInterface(Names.class);
+        proxyFactory.addAdvice(new RepositoryMethodInterceptor(Names.class));
+        names = (Names) proxyFactory.getProxy();
+
+        try (Connection connection = dataSource.getTargetDataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE names (id INT PRIMARY KEY, name VARCHAR(64))");
+            statement.executeUpdate(
+                    "INSERT INTO names VALUES (1, 'john'), (2, 'jane'), (3, 'joe')");
+        }
+        logs.start();
+        logger.addAppender(logs);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        logger.detachAppender(logs);
+        try (Connection connection = dataSource.getTargetDataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE names");
+        }
+    }
+
+    @Test
+    void query_ShouldRecordTimeAndRowsPerRepositoryMethod() {
+        assertThat(names.findByPrefix("j")).isEqualTo(3);
+        assertThat(names.findByPrefix("ja")).isEqualTo(1);
+
+        Timer timer =
+                registry.get("repository.sql")
+                        .tags("repository", "Names", "method", "findByPrefix")
+                        .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(2.0);
+        DistributionSummary rows =
+                registry.get("repository.sql.rows")
+                        .tags("repository", "Names", "method", "findByPrefix")
+                        .summary();
+        assertThat(rows.count()).isEqualTo(2);
+        assertThat(rows.totalAmount()).isEqualTo(4.0);
+    }
+
+    @Test
+    void update_ShouldRecordUpdateCount() {
+        assertThat(names.rename("jo%", "x")).isEqualTo(2);
+
+        assertThat(
+                        registry.get("repository.sql.rows")
+                                .tags("repository", "Names", "method", "rename")
+                                .summary()
+                                .totalAmount())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void statementsOutsideRepositories_ShouldBeTaggedNone() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM names WHERE id = 3");
+        }
+
+        assertThat(
+                        registry.get("repository.sql")
+                                .tags("repository", "none", "method", "none")
+                                .timer()
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void execute_ShouldCountTheRowsReadFromGetResultSet() {
+        assertThat(names.countWithExecute()).isEqualTo(3);
+
+        DistributionSummary rows =
+                registry.get("repository.sql.rows")
+                        .tags("repository", "Names", "method", "countWithExecute")
+                        .summary();
+        assertThat(rows.count()).isEqualTo(1);
+        assertThat(rows.totalAmount()).isEqualTo(3.0);
+    }
+
+    @Test
+    void slowStatements_ShouldBeLoggedWithParameterTypesOncePerInterval() {
+        names.findByPrefix("j");
+        assertThat(logs.list).isEmpty();
+
+        step.set(Duration.ofMillis(150).toNanos());
+        names.findByPrefix("j");
+        names.findByPrefix("ja");
+        names.findByPrefix("jo");
+        assertThat(logs.list).hasSize(1);
+        assertThat(logs.list.get(0).getFormattedMessage())
+                .startsWith("Slow SQL in Names.findByPrefix: 150 ms, 3 rows: SELECT")
+                .endsWith("[String]")
+                .doesNotContain("'j%'");
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        names.findByPrefix("j");
+        assertThat(logs.list).hasSize(2);
+        assertThat(logs.list.get(1).getFormattedMessage())
+                .contains("3 rows (2 more since last report)");
+    }
+
+    @Test
+    void shape_ShouldBeTheValueType() {
+        assertThat(SqlTimingDataSource.shape("john")).isEqualTo("String");
+        assertThat(SqlTimingDataSource.shape(42L)).isEqualTo("Long");
+        assertThat(SqlTimingDataSource.shape(null)).isEqualTo("null");
+    }
+
+    interface Names {
+
+        int findByPrefix(String prefix);
+
+        int rename(String pattern, String name);
+
+        int countWithExecute();
+    }
+
+    record JdbcNames(SqlTimingDataSource dataSource) implements Names {
+
+        @Override
+        public int findByPrefix(String prefix) {
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement =
+                            connection.prepareStatement(
+                                    "SELECT name FROM names WHERE name LIKE ?")) {
+                statement.setString(1, prefix + "%");
+                int rows = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows++;
+                    }
+                }
+                return rows;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int rename(String pattern, String name) {
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement =
+                            connection.prepareStatement(
+                                    "UPDATE names SET name = ? WHERE name LIKE ?")) {
+                statement.setString(1, name);
+                statement.setString(2, pattern);
+                return statement.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int countWithExecute() {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                int rows = 0;
+                if (statement.execute("SELECT name FROM names")) {
+                    try (ResultSet resultSet = statement.getResultSet()) {
+                        while (resultSet.next()) {
+                            rows++;
+                        }
+                    }
+                }
+                return rows;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.arquivolivre.otelcrudapi.jfr;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import br.com.arquivolivre.otelcrudapi.jfr.FlameGraphEndpoint.CollapsedStacks;
+import br.com.arquivolivre.otelcrudapi.jfr.FlameGraphEndpoint.Event;
+import br.com.arquivolivre.otelcrudapi.jfr.FlameGraphEndpoint.Threads;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+class FlameGraphEndpointTest {
+
+    private final FlameGraphEndpoint endpoint =
+            new FlameGraphEndpoint(
+                    Duration.ofSeconds(1),
+                    Duration.ofSeconds(2),
+                    Duration.ofMillis(10),
+                    "1000/s",
+                    "http-nio-.*");
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean stop;
+    private volatile Object sink;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stop = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void cpuProfile_ShouldKeepOnlyRequestThreadsWhenAsked() {
+        start("http-nio-8080-exec-1", this::spinInRequest);
+        start("background-1", this::spinInBackground);
+
+        WebEndpointResponse<String> response =
+                endpoint.flameGraph(Duration.ofSeconds(1), Event.CPU, Threads.REQUEST);
+
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(response.getBody())
+                .contains("java.lang.Thread.run;")
+                .contains(FlameGraphEndpointTest.class.getName() + ".spinInRequest")
+                .doesNotContain("spinInBackground")
+                .matches("(?s)(\\S[^\\n]* \\d+\\n)+");
+    }
+
+    @Test
+    void allocationProfile_ShouldEndStacksWithTheAllocatedClass() {
+        start("http-nio-8080-exec-1", this::allocate);
+
+        String body = endpoint.flameGraph(null, Event.ALLOC, Threads.ALL).getBody();
+
+        assertThat(body).contains(".allocate;" + Blob.class.getName() + " ");
+    }
+
+    @Test
+    void flameGraph_ShouldRunOneProfileAtATime() {
+        CompletableFuture<WebEndpointResponse<String>> first =
+                CompletableFuture.supplyAsync(
+                        () -> endpoint.flameGraph(Duration.ofSeconds(1), null, null));
+        await().atMost(Duration.ofSeconds(5)).until(endpoint::isRunning);
+
+        assertThat(endpoint.flameGraph(null, null, null).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        assertThat(first.join().getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(endpoint.isRunning()).isFalse();
+    }
+
+    @Test
+    void collapsedStacks_ShouldSumTheWeightOfIdenticalStacks() {
+        CollapsedStacks stacks = new CollapsedStacks();
+        stacks.add(List.of("Thread.run", "A.handle", "B.query"), 1);
+        stacks.add(List.of("Thread.run", "A.handle"), 1);
+        stacks.add(List.of("Thread.run", "A.handle", "B.query"), 2);
+        stacks.add(List.of(), 5);
+
+        assertThat(stacks.format())
+                .isEqualTo("Thread.run;A.handle 1\nThread.run;A.handle;B.query 3\n");
+    }
+
+    private void start(String name, Runnable work) {
+        Thread thread = new Thread(work, name);
+        threads.add(thread);
+        thread.start();
+    }
+
+    private void spinInRequest() {
+        spin();
+    }
+
+    private void spinInBackground() {
+        spin();
+    }
+
+    private void spin() {
+        long x = 0;
+        while (!stop) {
+            x += System.nanoTime() % 7;
+        }
+        sink = x;
+    }
+
+    private void allocate() {
+        while (!stop) {
+            sink = new Blob(new byte[256]);
+        }
+    }
+
+    record Blob(byte[] data) {}
+}
@@ -0,0 +1,230 @@
+package br.com.arquivolivre.otelcrudapi.jfr;
+
+import static br.com.arquivolivre.otelcrudapi.jfr.RuntimeEventMonitor.MONITOR_CLASS;
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RuntimeEventMonitorTest {
+
+    private static final Object LOCK = new Object();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, MetricData> exported = new ConcurrentHashMap<>();
+    private PeriodicMetricReader reader;
+    private SdkMeterProvider meterProvider;
+    private RuntimeEventMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        reader = PeriodicMetricReader.builder(new CapturingExporter()).build();
+        meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+        monitor =
+                new RuntimeEventMonitor(
+                        "150/s",
+                        2,
+                        Duration.ofSeconds(10),
+                        Duration.ofMillis(10),
+                        meterProvider.get("test"),
+                        clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+        meterProvider.close();
+    }
+
+    @Test
+    void rollWindow_ShouldPublishTopClassesOnceTheWindowIsComplete() {
+        monitor.onAllocation("byte[]", 4_000);
+        monitor.onAllocation("java.lang.String", 2_000);
+        monitor.onAllocation("byte[]", 6_000);
+        monitor.onAllocation("java.util.HashMap$Node", 1_000);
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        monitor.rollWindow();
+        assertThat(monitor.topAllocations()).isEmpty();
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        monitor.rollWindow();
+        assertThat(monitor.topAllocations())
+                .containsExactly(
+                        new RuntimeEventMonitor.AllocationRate("byte[]", 1_000),
+                        new RuntimeEventMonitor.AllocationRate("java.lang.String", 200));
+
+        Map<String, MetricData> metrics = collect();
+        assertThat(metrics.get("jvm.memory.allocated").getLongSumData().getPoints())
+                .singleElement()
+                .satisfies(point -> assertThat(point.getValue()).isEqualTo(13_000));
+        assertThat(
+                        metrics
+                                .get("jvm.memory.allocation.rate")
+                                .getDoubleGaugeData()
+                                .getPoints()
+                                .stream()
+                                .collect(
+                                        Collectors.toMap(
+                                                p ->
+                                                        p.getAttributes()
+                                                                .get(
+                                                                        RuntimeEventMonitor
+                                                                                .CLASS_NAME),
+                                                p -> p.getValue())))
+                .containsExactlyInAnyOrderEntriesOf(
+                        Map.of("byte[]", 1_000.0, "java.lang.String", 200.0));
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        monitor.rollWindow();
+        assertThat(monitor.topAllocations()).isEmpty();
+    }
+
+    @Test
+    void pauses_ShouldBeRecordedInSecondsWithTheirAttributes() {
+        monitor.onGarbageCollection("G1New", "G1 Evacuation Pause", Duration.ofMillis(12));
+        monitor.onGarbageCollection("G1New", "G1 Evacuation Pause", Duration.ofMillis(8));
+        monitor.onSafepoint(Duration.ofNanos(40_000));
+        monitor.onVmOperation("G1CollectForAllocation", Duration.ofMillis(20));
+
+        Map<String, MetricData> metrics = collect();
+        HistogramPointData gc = histogramPoint(metrics.get("jvm.gc.pause.duration"));
+        assertThat(gc.getCount()).isEqualTo(2);
+        assertThat(gc.getSum()).isCloseTo(0.020, within(1e-9));
+        assertThat(gc.getAttributes())
+                .isEqualTo(
+                        Attributes.of(
+                                RuntimeEventMonitor.GC_NAME,
+                                "G1New",
+                                RuntimeEventMonitor.GC_CAUSE,
+                                "G1 Evacuation Pause"));
+        assertThat(gc.getBoundaries()).isEqualTo(RuntimeEventMonitor.PAUSE_BUCKETS);
+        assertThat(histogramPoint(metrics.get("jvm.safepoint.sync.duration")).getSum())
+                .isCloseTo(0.00004, within(1e-12));
+        assertThat(
+                        histogramPoint(metrics.get("jvm.safepoint.operation.duration"))
+                                .getAttributes()
+                                .get(RuntimeEventMonitor.OPERATION))
+                .isEqualTo("G1CollectForAllocation");
+    }
+
+    @Test
+    void onMonitorContended_ShouldFoldClassesBeyondTheLimitIntoOther() {
+        for (int i = 0; i < RuntimeEventMonitor.MAX_MONITOR_CLASSES + 10; i++) {
+            monitor.onMonitorContended("com.example.Lock" + i, Duration.ofMillis(15));
+        }
+        monitor.onMonitorContended("com.example.Lock0", Duration.ofMillis(15));
+
+        List<HistogramPointData> points =
+                List.copyOf(
+                        collect()
+                                .get("jvm.monitor.contention.duration")
+                                .getHistogramData()
+                                .getPoints());
+        assertThat(points).hasSize(RuntimeEventMonitor.MAX_MONITOR_CLASSES + 1);
+        assertThat(points)
+                .filteredOn(p -> "other".equals(p.getAttributes().get(MONITOR_CLASS)))
+                .singleElement()
+                .satisfies(p -> assertThat(p.getCount()).isEqualTo(10));
+        assertThat(points)
+                .filteredOn(p -> "com.example.Lock0".equals(p.getAttributes().get(MONITOR_CLASS)))
+                .singleElement()
+                .satisfies(p -> assertThat(p.getCount()).isEqualTo(2));
+    }
+
+    @Test
+    void start_ShouldReportGcSafepointsAndContentionFromJfr() throws Exception {
+        monitor.start();
+
+        System.gc();
+        Thread holder =
+                Thread.ofPlatform()
+                        .start(
+                                () -> {
+                                    synchronized (LOCK) {
+                                        sleep(100);
+                                    }
+                                });
+        sleep(20);
+        synchronized (LOCK) {
+            // Entering after the holder released it, having blocked ~80 ms
+        }
+        holder.join();
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(
+                        () ->
+                                assertThat(collect())
+                                        .containsKeys(
+                                                "jvm.gc.pause.duration",
+                                                "jvm.safepoint.sync.duration",
+                                                "jvm.safepoint.operation.duration",
+                                                "jvm.monitor.contention.duration"));
+        assertThat(
+                        histogramPoint(exported.get("jvm.monitor.contention.duration"))
+                                .getAttributes()
+                                .get(MONITOR_CLASS))
+                .isEqualTo("java.lang.Object");
+    }
+
+    private Map<String, MetricData> collect() {
+        exported.clear();
+        reader.forceFlush().join(10, TimeUnit.SECONDS);
+        return exported;
+    }
+
+    private static HistogramPointData histogramPoint(MetricData metric) {
+        return metric.getHistogramData().getPoints().iterator().next();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class CapturingExporter implements MetricExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<MetricData> metrics) {
+            metrics.forEach(metric -> exported.put(metric.getName(), metric));
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.arquivolivre.otelcrudapi.jfr;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+class VirtualThreadMonitorTest {
+
+    private static final List<String> STACK =
+            List.of(
+                    "java.lang.VirtualThread.parkOnCarrierThread:678",
+                    "java.lang.Thread.sleep:509",
+                    "br.com.arquivolivre.otelcrudapi.service.UserService.createUser:70",
+                    "br.com.arquivolivre.otelcrudapi.controller.UserController.createUser:79");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ListAppender<ILoggingEvent> logs = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(VirtualThreadMonitor.class);
+    private VirtualThreadMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor =
+                new VirtualThreadMonitor(
+                        Duration.ofMillis(10),
+                        16,
+                        Duration.ofMinutes(1),
+                        OpenTelemetry.noop().getMeter("test"),
+                        clock::get);
+        logs.start();
+        logger.addAppender(logs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logs);
+        monitor.stop();
+    }
+
+    @Test
+    void onPinned_ShouldAccumulateIntoStatsAndTimer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        monitor.bindTo(registry);
+
+        monitor.onPinned(Duration.ofMillis(30), null, STACK);
+        monitor.onPinned(Duration.ofMillis(50), "Native or VM frame on stack", STACK);
+
+        assertThat(monitor.schedulerStats().pinnedEvents()).isEqualTo(2);
+        assertThat(monitor.schedulerStats().pinnedTotalMs()).isEqualTo(80.0);
+        FunctionTimer timer = registry.get("jvm.threads.virtual.pinned").functionTimer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(80.0);
+    }
+
+    @Test
+    void onPinned_ShouldLogEachSiteOncePerInterval() {
+        monitor.onPinned(Duration.ofMillis(30), null, STACK);
+        monitor.onPinned(Duration.ofMillis(30), null, STACK);
+        monitor.onPinned(Duration.ofMillis(30), null, STACK);
+        monitor.onPinned(Duration.ofMillis(30), null, List.of("com.example.Other.run:1"));
+        assertThat(logs.list).hasSize(2);
+        assertThat(logs.list.get(0).getFormattedMessage())
+                .contains("at br.com.arquivolivre.otelcrudapi.service.UserService.createUser:70")
+                .contains("java.lang.Thread.sleep:509");
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        monitor.onPinned(Duration.ofMillis(30), "Native or VM frame on stack", STACK);
+
+        assertThat(logs.list).hasSize(3);
+        assertThat(logs.list.get(2).getFormattedMessage())
+                .contains("(Native or VM frame on stack)")
+                .contains("(2 more since last report)");
+    }
+
+    @Test
+    void onSubmitFailed_ShouldCount() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        monitor.bindTo(registry);
+
+        monitor.onSubmitFailed("RejectedExecutionException");
+
+        assertThat(monitor.schedulerStats().submitFailed()).isEqualTo(1);
+        assertThat(registry.get("jvm.threads.virtual.submit.failed").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void site_ShouldBeFirstFrameOutsideTheJdk() {
+        assertThat(VirtualThreadMonitor.site(STACK))
+                .isEqualTo("br.com.arquivolivre.otelcrudapi.service.UserService.createUser:70");
+        assertThat(VirtualThreadMonitor.site(List.of("java.lang.Object.wait0:-1")))
+                .isEqualTo("java.lang.Object.wait0:-1");
+        assertThat(VirtualThreadMonitor.site(List.of())).isEqualTo("unknown");
+    }
+
+    @Test
+    void schedulerStats_ShouldReportParallelism() {
+        assertThat(monitor.schedulerStats().parallelism()).isPositive();
+    }
+
+    @Test
+    void start_ShouldReportPinningFromJfr() throws Exception {
+        monitor.start();
+
+        // Blocking inside a class initializer pins the virtual thread to its carrier
+        Thread.ofVirtual().start(() -> new SlowInitializer()).join();
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> monitor.schedulerStats().pinnedEvents() > 0);
+        assertThat(logs.list)
+                .anySatisfy(
+                        event ->
+                                assertThat(event.getFormattedMessage())
+                                        .contains("SlowInitializer"));
+    }
+
+    private static final class SlowInitializer {
+        static {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
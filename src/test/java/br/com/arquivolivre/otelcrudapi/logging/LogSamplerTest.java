@@ -0,0 +1,48 @@
+package br.com.arquivolivre.otelcrudapi.logging;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LogSamplerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final LogSampler<String> sampler =
+            new LogSampler<>(Duration.ofMinutes(1), 2, clock::get);
+
+    @Test
+    void sample_ShouldLogOncePerIntervalWithTheSkippedCount() {
+        assertThat(sampler.sample("a")).isZero();
+        assertThat(sampler.sample("a")).isEqualTo(LogSampler.SKIP);
+        assertThat(sampler.sample("a")).isEqualTo(LogSampler.SKIP);
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertThat(sampler.sample("a")).isEqualTo(2);
+        assertThat(sampler.sample("a")).isEqualTo(LogSampler.SKIP);
+    }
+
+    @Test
+    void sample_ShouldSampleEachKeyOnItsOwn() {
+        assertThat(sampler.sample("a")).isZero();
+        assertThat(sampler.sample("b")).isZero();
+        assertThat(sampler.sample("a")).isEqualTo(LogSampler.SKIP);
+    }
+
+    @Test
+    void sample_PastMaxKeys_ShouldForgetEveryKey() {
+        sampler.sample("a");
+        sampler.sample("b");
+        sampler.sample("c");
+
+        assertThat(sampler.sample("a")).isZero();
+    }
+
+    @Test
+    void skipped_ShouldOnlyDescribeSkippedEvents() {
+        assertThat(LogSampler.skipped(0)).isEmpty();
+        assertThat(LogSampler.skipped(3)).isEqualTo(" (3 more since last report)");
+    }
+}
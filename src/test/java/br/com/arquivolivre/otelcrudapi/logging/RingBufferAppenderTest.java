@@ -0,0 +1,209 @@
+package br.com.arquivolivre.otelcrudapi.logging;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.encoder.EchoEncoder;
+import io.opentelemetry.instrumentation.logback.mdc.v1_0.OpenTelemetryAppender;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RingBufferAppenderTest {
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private RingBufferAppender appender;
+    private GatedAppender target;
+
+    @BeforeEach
+    void setUp() {
+        loggerContext = new LoggerContext();
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+        logger = loggerContext.getLogger("test");
+        target = new GatedAppender();
+        target.setContext(loggerContext);
+        target.start();
+        appender = new RingBufferAppender();
+        appender.setContext(loggerContext);
+        appender.setCapacity(4);
+        appender.addAppender(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.gate.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void append_WithBlockPolicy_ShouldDeliverEveryEventInOrderOnDrainerThread() {
+        target.gate.countDown();
+        appender.setOverflowPolicy(RingBufferAppender.OverflowPolicy.BLOCK);
+        appender.start();
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(Level.INFO, "message " + i));
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> target.events.size() == 100);
+        assertThat(target.events.get(0).getFormattedMessage()).isEqualTo("message 0");
+        assertThat(target.events.get(99).getFormattedMessage()).isEqualTo("message 99");
+        assertThat(target.threads).containsOnly("async-log-drainer");
+        assertThat(appender.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void append_WhenFullWithDropPolicy_ShouldDropAndCount() throws Exception {
+        appender.setOverflowPolicy(RingBufferAppender.OverflowPolicy.DROP);
+        appender.start();
+
+        fillWhileDrainerIsStuck();
+        appender.doAppend(event(Level.INFO, "dropped 1"));
+        appender.doAppend(event(Level.DEBUG, "dropped 2"));
+
+        assertThat(appender.getDroppedCount()).isEqualTo(2);
+        assertThat(appender.getQueueDepth()).isEqualTo(appender.getCapacity());
+
+        target.gate.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> target.events.size() == 5);
+    }
+
+    @Test
+    void append_WhenFull_ShouldNeverDropWarnings() throws Exception {
+        appender.setOverflowPolicy(RingBufferAppender.OverflowPolicy.DROP);
+        appender.start();
+        fillWhileDrainerIsStuck();
+
+        Thread producer =
+                Thread.ofVirtual().start(() -> appender.doAppend(event(Level.WARN, "kept")));
+        producer.join(200);
+        assertThat(producer.isAlive()).as("warning waits for space").isTrue();
+
+        target.gate.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        await().atMost(Duration.ofSeconds(5)).until(() -> target.events.size() == 6);
+        assertThat(appender.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void append_WhenFullWithSamplePolicy_ShouldKeepOneInSampleRate() throws Exception {
+        appender.setOverflowPolicy(RingBufferAppender.OverflowPolicy.SAMPLE);
+        appender.setSampleRate(3);
+        appender.start();
+        fillWhileDrainerIsStuck();
+
+        appender.doAppend(event(Level.INFO, "overflow 1"));
+        appender.doAppend(event(Level.INFO, "overflow 2"));
+        assertThat(appender.getDroppedCount()).isEqualTo(2);
+
+        Thread producer =
+                Thread.ofVirtual().start(() -> appender.doAppend(event(Level.INFO, "overflow 3")));
+        producer.join(200);
+        assertThat(producer.isAlive()).as("every third overflow waits for space").isTrue();
+
+        target.gate.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        await().atMost(Duration.ofSeconds(5)).until(() -> target.events.size() == 6);
+        assertThat(target.events.get(5).getFormattedMessage()).isEqualTo("overflow 3");
+        assertThat(appender.getDroppedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void wrapOutputAppenders_ShouldMoveRootOutputAppendersBehindBufferAndBack() {
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        ConsoleAppender<ILoggingEvent> console = console();
+        root.addAppender(console);
+        root.addAppender(target);
+
+        appender.detachAppender(target);
+        appender.wrapOutputAppenders(loggerContext);
+
+        assertThat(root.getAppender("CONSOLE")).isNull();
+        assertThat(appender.getAppender("CONSOLE")).isSameAs(console);
+        assertThat(root.isAttached(target)).as("non-I/O appenders stay on the root").isTrue();
+        assertThat(root.isAttached(appender)).isTrue();
+
+        appender.unwrapOutputAppenders();
+
+        assertThat(root.getAppender("CONSOLE")).isSameAs(console);
+        assertThat(root.isAttached(appender)).isFalse();
+        assertThat(appender.isStarted()).isFalse();
+    }
+
+    @Test
+    void wrapOutputAppenders_ShouldLookInsideOpenTelemetryMdcAppender() {
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        OpenTelemetryAppender wrapper = new OpenTelemetryAppender();
+        ConsoleAppender<ILoggingEvent> console = console();
+        wrapper.addAppender(console);
+        root.addAppender(wrapper);
+
+        appender.wrapOutputAppenders(loggerContext);
+
+        assertThat(wrapper.isAttached(appender)).isTrue();
+        assertThat(wrapper.isAttached(console)).isFalse();
+        assertThat(appender.isAttached(console)).isTrue();
+
+        appender.unwrapOutputAppenders();
+
+        assertThat(wrapper.isAttached(console)).isTrue();
+        assertThat(wrapper.isAttached(appender)).isFalse();
+    }
+
+    private ConsoleAppender<ILoggingEvent> console() {
+        ConsoleAppender<ILoggingEvent> console = new ConsoleAppender<>();
+        console.setContext(loggerContext);
+        console.setName("CONSOLE");
+        console.setEncoder(new EchoEncoder<>());
+        console.start();
+        return console;
+    }
+
+    /** Park the drainer inside the first event, then fill every slot */
+    private void fillWhileDrainerIsStuck() throws InterruptedException {
+        appender.doAppend(event(Level.INFO, "blocking"));
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < appender.getCapacity(); i++) {
+            appender.doAppend(event(Level.INFO, "queued " + i));
+        }
+        assertThat(appender.getDroppedCount()).isZero();
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(Logger.FQCN, logger, level, message, null, null);
+    }
+
+    private static final class GatedAppender extends AppenderBase<ILoggingEvent> {
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.arquivolivre.otelcrudapi.logging;
+
+import static org.assertj.core.api.Assertions.*;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Scope;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TraceSampledTurboFilterTest {
+
+    private LoggerContext loggerContext;
+    private Logger hotPath;
+    private TraceSampledTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        loggerContext = new LoggerContext();
+        hotPath = loggerContext.getLogger("br.com.arquivolivre.otelcrudapi.service.UserService");
+        hotPath.setLevel(Level.DEBUG);
+        filter = new TraceSampledTurboFilter(List.of("br.com.arquivolivre.otelcrudapi.service"));
+        filter.install(loggerContext);
+    }
+
+    @Test
+    void decide_InUnsampledTrace_ShouldDenyHotPathInfo() {
+        try (Scope ignored = span(TraceFlags.getDefault()).makeCurrent()) {
+            assertThat(decide(hotPath, Level.INFO)).isEqualTo(FilterReply.DENY);
+            assertThat(decide(hotPath, Level.DEBUG)).isEqualTo(FilterReply.DENY);
+            assertThat(decide(hotPath, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(hotPath.isInfoEnabled()).isFalse();
+        }
+        assertThat(filter.getSuppressedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void decide_InSampledTraceOrOutsideSpan_ShouldLeaveEventAlone() {
+        assertThat(decide(hotPath, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        try (Scope ignored = span(TraceFlags.getSampled()).makeCurrent()) {
+            assertThat(decide(hotPath, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(filter.getSuppressedCount()).isZero();
+    }
+
+    @Test
+    void decide_ForOtherLoggersOrDisabledLevels_ShouldLeaveEventAlone() {
+        Logger other = loggerContext.getLogger("org.hibernate.SQL");
+        hotPath.setLevel(Level.INFO);
+        try (Scope ignored = span(TraceFlags.getDefault()).makeCurrent()) {
+            assertThat(decide(other, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(hotPath, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(filter.getSuppressedCount()).isZero();
+    }
+
+    @Test
+    void stop_ShouldRemoveFilterFromContext() {
+        filter.stop();
+
+        assertThat(loggerContext.getTurboFilterList()).doesNotContain(filter);
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "message", null, null);
+    }
+
+    private static Span span(TraceFlags flags) {
+        return Span.wrap(
+                SpanContext.create(
+                        "0af7651916cd43dd8448eb211c80319c",
+                        "b7ad6b7169203331",
+                        flags,
+                        TraceState.getDefault()));
+    }
+}
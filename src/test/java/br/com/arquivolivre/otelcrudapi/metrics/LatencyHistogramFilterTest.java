@@ -0,0 +1,104 @@
+package br.com.arquivolivre.otelcrudapi.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        registry.config()
+                .meterFilter(
+                        new LatencyHistogramFilter(
+                                List.of("http.server.requests", "user.service", "repository.sql"),
+                                List.of(Duration.ofMillis(100), Duration.ofMillis(10)),
+                                List.of(
+                                        "GET /api/users/search=1ms 5ms 1s",
+                                        "UserService.searchUsersByName = 2ms  20ms",
+                                        "UserRepository.findByEmail=1ms 3ms")));
+    }
+
+    @Test
+    void configure_ShouldUseTheBucketsOfTheEndpoint() {
+        Timer search = http("GET", "/api/users/search");
+        search.record(3, TimeUnit.MILLISECONDS);
+
+        assertThat(bounds(search)).containsExactly(1.0, 5.0, 1000.0);
+        assertThat(search.takeSnapshot().histogramCounts()[1].count()).isEqualTo(1);
+    }
+
+    @Test
+    void configure_ShouldUseTheBucketsOfTheServiceMethod() {
+        Timer timer =
+                Timer.builder("user.service")
+                        .tags("class", "UserService", "method", "searchUsersByName")
+                        .tag("exception", "none")
+                        .register(registry);
+
+        assertThat(bounds(timer)).containsExactly(2.0, 20.0);
+    }
+
+    @Test
+    void configure_ShouldUseTheBucketsOfTheRepositoryMethod() {
+        Timer timer =
+                Timer.builder("repository.sql")
+                        .tags("repository", "UserRepository", "method", "findByEmail")
+                        .register(registry);
+
+        assertThat(bounds(timer)).containsExactly(1.0, 3.0);
+    }
+
+    @Test
+    void configure_ShouldFallBackToSortedDefaultBuckets() {
+        assertThat(bounds(http("POST", "/api/users"))).containsExactly(10.0, 100.0);
+        assertThat(bounds(http("DELETE", "/api/users/search"))).containsExactly(10.0, 100.0);
+    }
+
+    @Test
+    void configure_ShouldGiveEveryTimerOfTheMeterBuckets() {
+        // A summary next to histograms in one Prometheus family breaks the scrape
+        assertThat(bounds(http("GET", "/actuator/prometheus"))).containsExactly(10.0, 100.0);
+        assertThat(bounds(Timer.builder("user.service").register(registry)))
+                .containsExactly(10.0, 100.0);
+    }
+
+    @Test
+    void configure_ShouldLeaveOtherMetersAlone() {
+        assertThat(bounds(Timer.builder("jdbc.query").tag("uri", "/x").register(registry)))
+                .isEmpty();
+    }
+
+    @Test
+    void constructor_ShouldRejectRulesWithoutBuckets() {
+        assertThatThrownBy(
+                        () ->
+                                new LatencyHistogramFilter(
+                                        List.of("user.service"),
+                                        List.of(),
+                                        List.of("UserService.getAllUsers")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("UserService.getAllUsers");
+    }
+
+    private Timer http(String method, String uri) {
+        return Timer.builder("http.server.requests")
+                .tags("method", method, "uri", uri, "status", "200")
+                .register(registry);
+    }
+
+    private static double[] bounds(Timer timer) {
+        return Arrays.stream(timer.takeSnapshot().histogramCounts())
+                .mapToDouble(bucket -> bucket.bucket(TimeUnit.MILLISECONDS))
+                .toArray();
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.arquivolivre.otelcrudapi.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OtelExemplarSpanContextTest {
+
+    private final OtelExemplarSpanContext spanContext = new OtelExemplarSpanContext();
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    @Test
+    void shouldExposeTheCurrentSampledSpan() {
+        Span span = span(Sampler.alwaysOn());
+        try (Scope ignored = span.makeCurrent()) {
+            assertThat(spanContext.getCurrentTraceId())
+                    .isEqualTo(span.getSpanContext().getTraceId());
+            assertThat(spanContext.getCurrentSpanId()).isEqualTo(span.getSpanContext().getSpanId());
+            assertThat(spanContext.isCurrentSpanSampled()).isTrue();
+
+            spanContext.markCurrentSpanAsExemplar();
+        } finally {
+            span.end();
+        }
+
+        assertThat(
+                        ((ReadableSpan) span)
+                                .getAttribute(
+                                        AttributeKey.stringKey(
+                                                SpanContext.EXEMPLAR_ATTRIBUTE_NAME)))
+                .isEqualTo(SpanContext.EXEMPLAR_ATTRIBUTE_VALUE);
+    }
+
+    @Test
+    void shouldNotOfferUnsampledSpans() {
+        Span span = span(Sampler.alwaysOff());
+        try (Scope ignored = span.makeCurrent()) {
+            assertThat(spanContext.isCurrentSpanSampled()).isFalse();
+        } finally {
+            span.end();
+        }
+    }
+
+    @Test
+    void shouldReturnNoIdsOutsideASpan() {
+        assertThat(spanContext.getCurrentTraceId()).isNull();
+        assertThat(spanContext.getCurrentSpanId()).isNull();
+        assertThat(spanContext.isCurrentSpanSampled()).isFalse();
+    }
+
+    private Span span(Sampler sampler) {
+        tracerProvider = SdkTracerProvider.builder().setSampler(sampler).build();
+        return tracerProvider.get("test").spanBuilder("GET /api/users/search").startSpan();
+    }
+}
@@ -0,0 +1,349 @@
+package br.com.arquivolivre.otelcrudapi.otlp;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.OtelCrudApiApplication;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * What the OTLP exporter settings cost, measured against {@link OtlpReceiver} instead of Alloy:
+ * export throughput per protocol and compression, spans dropped by the batch span processor when
+ * the collector is slow, and the application's request p99 with export on versus off. Run with
+ * {@code make bench-otlp}; rates and thresholds can be changed with {@code -Dbench.otlp.*}.
+ */
+@Tag("benchmark")
+class OtlpExportLoadTest {
+
+    /** Batch span processor settings, as set through {@code otel.bsp.*} */
+    private record BatchSettings(
+            String name, int maxQueueSize, int maxExportBatchSize, Duration scheduleDelay) {
+
+        // SDK defaults, which is what the application runs with
+        static final BatchSettings DEFAULT =
+                new BatchSettings("default", 2048, 512, Duration.ofSeconds(5));
+        static final BatchSettings SMALL_QUEUE =
+                new BatchSettings("small-queue", 256, 64, Duration.ofSeconds(1));
+        static final BatchSettings LARGE_BATCH =
+                new BatchSettings("large-batch", 8192, 2048, Duration.ofSeconds(1));
+
+        BatchSpanProcessor processor(SpanExporter exporter) {
+            return BatchSpanProcessor.builder(exporter)
+                    .setMaxQueueSize(maxQueueSize)
+                    .setMaxExportBatchSize(maxExportBatchSize)
+                    .setScheduleDelay(scheduleDelay)
+                    .build();
+        }
+
+        String[] args() {
+            return new String[] {
+                "--otel.bsp.max.queue.size=" + maxQueueSize,
+                "--otel.bsp.max.export.batch.size=" + maxExportBatchSize,
+                "--otel.bsp.schedule.delay=" + scheduleDelay.toMillis()
+            };
+        }
+    }
+
+    private final int spansPerSecond = Integer.getInteger("bench.otlp.rate", 20_000);
+    private final int seconds = Integer.getInteger("bench.otlp.seconds", 5);
+    private final int burst = Integer.getInteger("bench.otlp.burst", 20_000);
+    private final int requests = Integer.getInteger("bench.otlp.requests", 5_000);
+    private final int concurrency = Integer.getInteger("bench.otlp.concurrency", 16);
+    private final double maxP99Ratio =
+            Double.parseDouble(System.getProperty("bench.otlp.max-p99-ratio", "1.5"));
+    private final double p99SlackMs =
+            Double.parseDouble(System.getProperty("bench.otlp.p99-slack-ms", "5"));
+
+    private OtlpReceiver receiver;
+
+    @BeforeEach
+    void startReceiver() throws Exception {
+        receiver = OtlpReceiver.start();
+    }
+
+    @AfterEach
+    void stopReceiver() throws Exception {
+        receiver.close();
+    }
+
+    @Test
+    void exportThroughput() {
+        System.out.println();
+        System.out.printf(
+                "%-14s %-5s %-12s %10s %9s %13s %9s %11s%n",
+                "protocol",
+                "gzip",
+                "batch",
+                "received",
+                "dropped",
+                "received/s",
+                "requests",
+                "bytes/span");
+
+        for (String protocol : new String[] {"grpc", "http/protobuf"}) {
+            for (String compression : new String[] {"gzip", "none"}) {
+                for (BatchSettings settings :
+                        List.of(
+                                BatchSettings.DEFAULT,
+                                BatchSettings.SMALL_QUEUE,
+                                BatchSettings.LARGE_BATCH)) {
+                    receiver.reset();
+                    long produced = (long) spansPerSecond * seconds;
+                    double elapsed =
+                            produce(protocol, compression, settings, produced, spansPerSecond);
+
+                    long received = receiver.spans();
+                    double throughput = received / elapsed;
+                    System.out.printf(
+                            "%-14s %-5s %-12s %10d %9d %13.0f %9d %11.1f%n",
+                            protocol,
+                            compression.equals("gzip") ? "yes" : "no",
+                            settings.name(),
+                            received,
+                            produced - received,
+                            throughput,
+                            receiver.exportRequests(),
+                            (double) receiver.bytesReceived() / Math.max(1, received));
+
+                    // At a steady offered rate the shipped defaults must keep up without dropping
+                    if (settings != BatchSettings.SMALL_QUEUE) {
+                        assertThat(received).as(protocol + " " + settings).isEqualTo(produced);
+                        assertThat(throughput).isGreaterThan(spansPerSecond * 0.8);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void slowCollectorMakesTheProcessorDrop() {
+        receiver.setResponseDelay(Duration.ofMillis(250));
+
+        System.out.println();
+        System.out.printf("%-12s %10s %10s %9s%n", "batch", "produced", "received", "dropped");
+        long smallQueueDropped = 0;
+        long largeBatchDropped = 0;
+        for (BatchSettings settings :
+                List.of(
+                        BatchSettings.DEFAULT,
+                        BatchSettings.SMALL_QUEUE,
+                        BatchSettings.LARGE_BATCH)) {
+            receiver.reset();
+            // Unpaced: a burst far above what one export every 250ms can drain
+            produce("grpc", "gzip", settings, burst, 0);
+
+            long dropped = burst - receiver.spans();
+            System.out.printf(
+                    "%-12s %10d %10d %9d%n", settings.name(), burst, receiver.spans(), dropped);
+            if (settings == BatchSettings.SMALL_QUEUE) {
+                smallQueueDropped = dropped;
+            } else if (settings == BatchSettings.LARGE_BATCH) {
+                largeBatchDropped = dropped;
+            }
+        }
+
+        assertThat(smallQueueDropped).isPositive();
+        assertThat(largeBatchDropped).isLessThan(smallQueueDropped);
+    }
+
+    @Test
+    void applicationP99Impact() throws Exception {
+        Result baseline = runApplication("export off", null);
+        Result defaults = runApplication("grpc+gzip", BatchSettings.DEFAULT);
+        Result smallQueue = runApplication("grpc+gzip", BatchSettings.SMALL_QUEUE);
+
+        System.out.println();
+        System.out.printf(
+                "%-11s %-12s %14s %9s %9s %9s %12s %13s%n",
+                "export",
+                "batch",
+                "throughput/s",
+                "p50 ms",
+                "p99 ms",
+                "max ms",
+                "server spans",
+                "metric points");
+        System.out.println(baseline);
+        System.out.println(defaults);
+        System.out.println(smallQueue);
+
+        assertThat(defaults.errors()).isZero();
+        assertThat(defaults.serverSpans()).isEqualTo(defaults.requests());
+        assertThat(defaults.metricPoints()).isPositive();
+        assertThat(defaults.p99()).isLessThan(baseline.p99() * maxP99Ratio + p99SlackMs);
+        assertThat(smallQueue.p99()).isLessThan(baseline.p99() * maxP99Ratio + p99SlackMs);
+    }
+
+    /**
+     * Create {@code count} spans through a batch span processor, at {@code rate} spans per second
+     * or as fast as possible for 0, then flush and shut down.
+     *
+     * @return seconds from the first span until the flush completed
+     */
+    private double produce(
+            String protocol, String compression, BatchSettings settings, long count, int rate) {
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(
+                                settings.processor(
+                                        OtlpReceiverTest.spanExporter(
+                                                receiver, protocol, compression)))
+                        .build()) {
+            Tracer tracer = tracerProvider.get("load");
+            long start = System.nanoTime();
+            for (long i = 0; i < count; i++) {
+                tracer.spanBuilder("GET /api/users/{id}")
+                        .setAttribute("http.request.method", "GET")
+                        .setAttribute("url.path", "/api/users/" + (i % 1000))
+                        .startSpan()
+                        .end();
+                if (rate > 0 && i % 100 == 99) {
+                    long due = start + (i + 1) * 1_000_000_000L / rate;
+                    LockSupport.parkNanos(due - System.nanoTime());
+                }
+            }
+            tracerProvider.forceFlush().join(30, TimeUnit.SECONDS);
+            return (System.nanoTime() - start) / 1e9;
+        }
+    }
+
+    private Result runApplication(String label, BatchSettings settings) throws Exception {
+        receiver.reset();
+        List<String> args =
+                new ArrayList<>(
+                        List.of(
+                                "--server.port=0",
+                                "--app.tracing.sampler.enabled=false",
+                                "--otel.exporter.otlp.endpoint=" + receiver.endpoint(),
+                                "--otel.exporter.otlp.protocol=grpc",
+                                "--otel.exporter.otlp.compression=gzip",
+                                "--otel.metric.export.interval=1000",
+                                "--otel.logs.exporter=none",
+                                "--logging.level.root=WARN",
+                                "--logging.level.org.springframework.web=WARN",
+                                "--logging.level.org.hibernate.SQL=WARN",
+                                "--spring.jpa.show-sql=false"));
+        if (settings == null) {
+            args.add("--otel.traces.exporter=none");
+            args.add("--otel.metrics.exporter=none");
+        } else {
+            args.add("--otel.traces.exporter=otlp");
+            args.add("--otel.metrics.exporter=otlp");
+            args.addAll(List.of(settings.args()));
+        }
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        int warmup = requests / 5;
+        double seconds;
+        try (ConfigurableApplicationContext context =
+                        new SpringApplicationBuilder(OtelCrudApiApplication.class)
+                                .run(args.toArray(String[]::new));
+                HttpClient client = HttpClient.newHttpClient()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            send(client, port, new long[warmup], errors);
+            errors.set(0);
+
+            long start = System.nanoTime();
+            send(client, port, latencies, errors);
+            seconds = (System.nanoTime() - start) / 1e9;
+        }
+        // Closing the context shut the SDK down, which flushed whatever was still queued
+
+        Arrays.sort(latencies);
+        return new Result(
+                label,
+                settings == null ? "-" : settings.name(),
+                requests + warmup,
+                requests / seconds,
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6,
+                receiver.serverSpans(),
+                receiver.metricPoints(),
+                errors.get());
+    }
+
+    private void send(HttpClient client, int port, long[] latencies, AtomicInteger errors)
+            throws InterruptedException {
+        HttpRequest byId =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/1"))
+                        .build();
+        HttpRequest all =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users"))
+                        .build();
+        Semaphore permits = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < latencies.length; i++) {
+                int n = i;
+                permits.acquire();
+                executor.execute(
+                        () -> {
+                            try {
+                                long begin = System.nanoTime();
+                                HttpResponse<Void> response =
+                                        client.send(
+                                                n % 10 == 0 ? all : byId,
+                                                HttpResponse.BodyHandlers.discarding());
+                                latencies[n] = System.nanoTime() - begin;
+                                if (response.statusCode() != 200) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            } finally {
+                                permits.release();
+                            }
+                        });
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(
+            String export,
+            String batch,
+            long requests,
+            double throughput,
+            double p50,
+            double p99,
+            double max,
+            long serverSpans,
+            long metricPoints,
+            int errors) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%-11s %-12s %14.0f %9.2f %9.2f %9.2f %12d %13d",
+                    export, batch, throughput, p50, p99, max, serverSpans, metricPoints);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package br.com.arquivolivre.otelcrudapi.otlp;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+
+/**
+ * Stand-in for the Alloy OTLP receivers in tests: accepts OTLP over gRPC (h2c, prior knowledge, as
+ * the SDK exporters send it) and over HTTP/protobuf on one port, with or without gzip, and counts
+ * what it receives. Payloads are walked with a minimal protobuf reader, just deep enough to count
+ * spans (and server spans), metric data points and log records; nothing is kept.
+ *
+ * <p>{@link #setResponseDelay(Duration)} turns it into a slow collector, which is what makes batch
+ * span processors queue up and drop.
+ */
+final class OtlpReceiver implements AutoCloseable {
+
+    // Export*ServiceRequest.resource_* -> Resource*.scope_* -> Scope*.{spans, metrics, log_records}
+    private static final int[] ITEMS = {1, 2, 2};
+
+    // Metric.{gauge, sum, histogram, exponential_histogram, summary}, each with data_points = 1
+    private static final Set<Integer> METRIC_DATA = Set.of(5, 7, 9, 10, 11);
+
+    private static final int SPAN_KIND_SERVER = 2;
+
+    private final Tomcat tomcat;
+    private final int port;
+
+    private final AtomicLong exportRequests = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong spans = new AtomicLong();
+    private final AtomicLong serverSpans = new AtomicLong();
+    private final AtomicLong metricPoints = new AtomicLong();
+    private final AtomicLong logRecords = new AtomicLong();
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final AtomicLong firstSpanAt = new AtomicLong();
+    private final AtomicLong lastSpanAt = new AtomicLong();
+    private volatile long responseDelayMs;
+
+    private OtlpReceiver() throws IOException, LifecycleException {
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("otlp-receiver").toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        connector.addUpgradeProtocol(new Http2Protocol());
+        tomcat.getService().addConnector(connector);
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "otlp", new ExportServlet());
+        context.addServletMappingDecoded("/*", "otlp");
+        tomcat.start();
+        port = connector.getLocalPort();
+    }
+
+    static OtlpReceiver start() throws IOException, LifecycleException {
+        return new OtlpReceiver();
+    }
+
+    /** Endpoint for both {@code grpc} and {@code http/protobuf} exporters */
+    String endpoint() {
+        return "http://localhost:" + port;
+    }
+
+    void setResponseDelay(Duration delay) {
+        this.responseDelayMs = delay.toMillis();
+    }
+
+    long exportRequests() {
+        return exportRequests.get();
+    }
+
+    /** Request bytes as sent on the wire, i.e. after compression */
+    long bytesReceived() {
+        return bytesReceived.get();
+    }
+
+    long spans() {
+        return spans.get();
+    }
+
+    long serverSpans() {
+        return serverSpans.get();
+    }
+
+    long metricPoints() {
+        return metricPoints.get();
+    }
+
+    long logRecords() {
+        return logRecords.get();
+    }
+
+    Duration decodeTime() {
+        return Duration.ofNanos(decodeNanos.get());
+    }
+
+    /** Time between the first and the last export request that carried spans */
+    Duration spanWindow() {
+        return Duration.ofNanos(lastSpanAt.get() - firstSpanAt.get());
+    }
+
+    /** Wait until at least {@code count} spans have been received */
+    boolean awaitSpans(long count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (spans.get() < count) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    void reset() {
+        for (AtomicLong counter :
+                new AtomicLong[] {
+                    exportRequests,
+                    bytesReceived,
+                    spans,
+                    serverSpans,
+                    metricPoints,
+                    logRecords,
+                    decodeNanos,
+                    firstSpanAt,
+                    lastSpanAt
+                }) {
+            counter.set(0);
+        }
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    private final class ExportServlet extends HttpServlet {
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response)
+                throws IOException {
+            byte[] body = request.getInputStream().readAllBytes();
+            exportRequests.incrementAndGet();
+            bytesReceived.addAndGet(body.length);
+
+            boolean grpc = String.valueOf(request.getContentType()).startsWith("application/grpc");
+            long start = System.nanoTime();
+            byte[] message = grpc ? unframe(body) : body;
+            if ("gzip".equals(request.getHeader("Content-Encoding"))) {
+                message = gunzip(message);
+            }
+            count(request.getRequestURI(), message);
+            decodeNanos.addAndGet(System.nanoTime() - start);
+
+            if (responseDelayMs > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(responseDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            // Every Export*ServiceResponse is empty when nothing was rejected
+            if (grpc) {
+                response.setContentType("application/grpc");
+                response.setTrailerFields(() -> Map.of("grpc-status", "0"));
+                try (OutputStream out = response.getOutputStream()) {
+                    out.write(new byte[5]);
+                }
+            } else {
+                response.setContentType("application/x-protobuf");
+                response.setContentLength(0);
+            }
+        }
+    }
+
+    /** gRPC message framing: compressed flag, 4 byte length, message */
+    private static byte[] unframe(byte[] body) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        boolean compressed = buffer.get() == 1;
+        byte[] message = new byte[buffer.getInt()];
+        buffer.get(message);
+        return compressed ? gunzip(message) : message;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void count(String path, byte[] message) {
+        long[] counts = new long[2];
+        if (path.contains("trace")) {
+            descend(
+                    message,
+                    0,
+                    message.length,
+                    ITEMS,
+                    0,
+                    (from, to) -> {
+                        counts[0]++;
+                        if (spanKind(message, from, to) == SPAN_KIND_SERVER) {
+                            counts[1]++;
+                        }
+                    });
+            if (counts[0] > 0) {
+                long now = System.nanoTime();
+                firstSpanAt.compareAndSet(0, now);
+                lastSpanAt.accumulateAndGet(now, Math::max);
+                spans.addAndGet(counts[0]);
+                serverSpans.addAndGet(counts[1]);
+            }
+        } else if (path.contains("metric")) {
+            descend(
+                    message,
+                    0,
+                    message.length,
+                    ITEMS,
+                    0,
+                    (from, to) ->
+                            forEachField(
+                                    message,
+                                    from,
+                                    to,
+                                    (number, value, start, end) -> {
+                                        if (METRIC_DATA.contains(number)) {
+                                            nested(message, start, end, 1, (p, e) -> counts[0]++);
+                                        }
+                                    }));
+            metricPoints.addAndGet(counts[0]);
+        } else if (path.contains("log")) {
+            descend(message, 0, message.length, ITEMS, 0, (from, to) -> counts[0]++);
+            logRecords.addAndGet(counts[0]);
+        }
+    }
+
+    private static int spanKind(byte[] message, int from, int to) {
+        int[] kind = new int[1];
+        forEachField(
+                message,
+                from,
+                to,
+                (number, value, start, end) -> {
+                    if (number == 6) {
+                        kind[0] = (int) value;
+                    }
+                });
+        return kind[0];
+    }
+
+    @FunctionalInterface
+    private interface MessageVisitor {
+        void message(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface FieldVisitor {
+        /** {@code value} is set for varints, {@code from}/{@code to} for length-delimited fields */
+        void field(int number, long value, int from, int to);
+    }
+
+    /** Follow {@code path} (one field number per level) and visit the messages at its end */
+    private static void descend(
+            byte[] buf, int from, int to, int[] path, int depth, MessageVisitor visitor) {
+        if (depth == path.length) {
+            visitor.message(from, to);
+            return;
+        }
+        nested(
+                buf,
+                from,
+                to,
+                path[depth],
+                (start, end) -> descend(buf, start, end, path, depth + 1, visitor));
+    }
+
+    /** Visit every embedded message in field {@code number} of the message at [from, to) */
+    private static void nested(byte[] buf, int from, int to, int number, MessageVisitor visitor) {
+        forEachField(
+                buf,
+                from,
+                to,
+                (n, value, start, end) -> {
+                    if (n == number && end > start) {
+                        visitor.message(start, end);
+                    }
+                });
+    }
+
+    private static void forEachField(byte[] buf, int from, int to, FieldVisitor visitor) {
+        int[] pos = {from};
+        while (pos[0] < to) {
+            long tag = varint(buf, pos);
+            int number = (int) (tag >>> 3);
+            switch ((int) (tag & 7)) {
+                case 0 -> visitor.field(number, varint(buf, pos), 0, 0);
+                case 1 -> pos[0] += 8;
+                case 2 -> {
+                    int length = (int) varint(buf, pos);
+                    int start = pos[0];
+                    pos[0] += length;
+                    visitor.field(number, 0, start, pos[0]);
+                }
+                case 5 -> pos[0] += 4;
+                default -> throw new IllegalArgumentException("Unsupported wire type in " + tag);
+            }
+        }
+    }
+
+    private static long varint(byte[] buf, int[] pos) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf[pos[0]++];
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
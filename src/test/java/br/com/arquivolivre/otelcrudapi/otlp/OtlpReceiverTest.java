@@ -0,0 +1,141 @@
+package br.com.arquivolivre.otelcrudapi.otlp;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.otlp.http.logs.OtlpHttpLogRecordExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.logs.OtlpGrpcLogRecordExporter;
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OtlpReceiverTest {
+
+    private OtlpReceiver receiver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receiver = OtlpReceiver.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        receiver.close();
+    }
+
+    @Test
+    void countsSpansOverGrpcAndHttpWithAndWithoutGzip() {
+        for (String protocol : new String[] {"grpc", "http/protobuf"}) {
+            for (String compression : new String[] {"gzip", "none"}) {
+                receiver.reset();
+
+                exportSpans(spanExporter(receiver, protocol, compression), 100, 10);
+
+                assertThat(receiver.spans()).as(protocol + " " + compression).isEqualTo(110);
+                assertThat(receiver.serverSpans()).as(protocol + " " + compression).isEqualTo(10);
+                assertThat(receiver.exportRequests()).isPositive();
+                assertThat(receiver.bytesReceived()).isPositive();
+            }
+        }
+    }
+
+    @Test
+    void gzipShrinksTheWirePayload() {
+        exportSpans(spanExporter(receiver, "grpc", "none"), 500, 0);
+        long plain = receiver.bytesReceived();
+        receiver.reset();
+
+        exportSpans(spanExporter(receiver, "grpc", "gzip"), 500, 0);
+
+        assertThat(receiver.spans()).isEqualTo(500);
+        assertThat(receiver.bytesReceived()).isLessThan(plain);
+    }
+
+    @Test
+    void countsMetricDataPoints() {
+        PeriodicMetricReader reader =
+                PeriodicMetricReader.builder(
+                                OtlpGrpcMetricExporter.builder()
+                                        .setEndpoint(receiver.endpoint())
+                                        .setCompression("gzip")
+                                        .build())
+                        .setInterval(Duration.ofHours(1))
+                        .build();
+        try (SdkMeterProvider meterProvider =
+                SdkMeterProvider.builder().registerMetricReader(reader).build()) {
+            Meter meter = meterProvider.get("test");
+            meter.counterBuilder("requests").build().add(1);
+            meter.histogramBuilder("latency").build().record(12.5);
+            meter.gaugeBuilder("queue").buildWithCallback(gauge -> gauge.record(3));
+
+            reader.forceFlush().join(10, TimeUnit.SECONDS);
+
+            assertThat(receiver.metricPoints()).isEqualTo(3);
+            assertThat(receiver.spans()).isZero();
+        }
+    }
+
+    @Test
+    void countsLogRecords() {
+        for (LogRecordExporter exporter :
+                new LogRecordExporter[] {
+                    OtlpGrpcLogRecordExporter.builder().setEndpoint(receiver.endpoint()).build(),
+                    OtlpHttpLogRecordExporter.builder()
+                            .setEndpoint(receiver.endpoint() + "/v1/logs")
+                            .build()
+                }) {
+            try (SdkLoggerProvider loggerProvider =
+                    SdkLoggerProvider.builder()
+                            .addLogRecordProcessor(SimpleLogRecordProcessor.create(exporter))
+                            .build()) {
+                loggerProvider.get("test").logRecordBuilder().setBody("hello").emit();
+                loggerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(receiver.logRecords()).isEqualTo(2);
+    }
+
+    static SpanExporter spanExporter(OtlpReceiver receiver, String protocol, String compression) {
+        return protocol.equals("grpc")
+                ? OtlpGrpcSpanExporter.builder()
+                        .setEndpoint(receiver.endpoint())
+                        .setCompression(compression)
+                        .build()
+                : OtlpHttpSpanExporter.builder()
+                        .setEndpoint(receiver.endpoint() + "/v1/traces")
+                        .setCompression(compression)
+                        .build();
+    }
+
+    private static void exportSpans(SpanExporter exporter, int internal, int server) {
+        try (SdkTracerProvider tracerProvider =
+                SdkTracerProvider.builder()
+                        .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+                        .build()) {
+            Tracer tracer = tracerProvider.get("test");
+            for (int i = 0; i < internal; i++) {
+                tracer.spanBuilder("internal-" + i).startSpan().end();
+            }
+            for (int i = 0; i < server; i++) {
+                tracer.spanBuilder("GET /api/users").setSpanKind(SpanKind.SERVER).startSpan().end();
+            }
+            tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package br.com.arquivolivre.otelcrudapi.perf;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model load generator on the JDK {@link HttpClient}. Request {@code i} of a run is due at
+ * {@code start + i / rate}; each is sent on its own virtual thread, and its response time is
+ * measured from when it was due, not from when it was actually sent. A stalled server therefore
+ * shows up in the percentiles for every request that should have been sent during the stall
+ * (coordinated omission), instead of only for the one that hit it. The time from actual send to
+ * response is kept separately as service time.
+ */
+public class LoadGenerator {
+
+    /** One scenario run; latencies are in nanoseconds */
+    public record Result(
+            Scenario scenario,
+            double seconds,
+            long completed,
+            long errors,
+            Histogram responseTime,
+            Histogram serviceTime) {
+
+        public double throughput() {
+            return completed / seconds;
+        }
+
+        public double errorRatio() {
+            return completed == 0 ? 0 : (double) errors / completed;
+        }
+
+        /** Response time percentile in milliseconds, e.g. {@code 99.0} */
+        public double percentileMs(double percentile) {
+            return responseTime.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public double maxMs() {
+            return responseTime.getMaxValue() / 1e6;
+        }
+    }
+
+    private final HttpClient client;
+    private final URI base;
+    private final List<Long> ids;
+    private final int maxInFlight;
+    private final AtomicLong created = new AtomicLong();
+
+    /**
+     * @param ids existing users, as {@code perf<i>@example.com} at index {@code i}, for lookups and
+     *     updates
+     * @param maxInFlight requests outstanding at once; beyond that sending waits, which still
+     *     counts against the response time
+     */
+    public LoadGenerator(HttpClient client, URI base, List<Long> ids, int maxInFlight) {
+        this.client = client;
+        this.base = base;
+        this.ids = List.copyOf(ids);
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Result run(Scenario scenario, Duration duration) throws InterruptedException {
+        Histogram responseTime = new ConcurrentHistogram(3);
+        Histogram serviceTime = new ConcurrentHistogram(3);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = 1_000_000_000L / scenario.rate();
+        long requests = duration.toNanos() / intervalNanos;
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long due = start + i * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                HttpRequest request = request(scenario.operation(i), i);
+                inFlight.acquire();
+                executor.execute(
+                        () -> {
+                            try {
+                                long sent = System.nanoTime();
+                                HttpResponse<Void> response =
+                                        client.send(
+                                                request, HttpResponse.BodyHandlers.discarding());
+                                long end = System.nanoTime();
+                                responseTime.recordValue(end - due);
+                                serviceTime.recordValue(end - sent);
+                                if (response.statusCode() >= 300) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                responseTime.recordValue(System.nanoTime() - due);
+                                errors.incrementAndGet();
+                            } finally {
+                                completed.incrementAndGet();
+                                inFlight.release();
+                            }
+                        });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(
+                scenario, seconds, completed.get(), errors.get(), responseTime, serviceTime);
+    }
+
+    HttpRequest request(Scenario.Operation operation, long n) {
+        int index = (int) (n % ids.size());
+        return switch (operation) {
+            case GET_BY_ID -> get("/api/users/" + ids.get(index));
+            case LIST -> get("/api/users");
+            case SEARCH -> get("/api/users/search?name=perf%20" + n % 100);
+            case CREATE -> {
+                long c = created.incrementAndGet();
+                yield send("POST", "/api/users", body("Created " + c, "created" + c));
+            }
+            case UPDATE ->
+                    send(
+                            "PUT",
+                            "/api/users/" + ids.get(index),
+                            body("Perf " + index + " v" + n, "perf" + index));
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String body(String name, String emailLocalPart) {
+        return String.format(
+                "{\"name\":\"%s\",\"email\":\"%s@example.com\",\"bio\":\"load test\"}",
+                name, emailLocalPart);
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.arquivolivre.otelcrudapi.perf;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LoadGeneratorTest {
+
+    private HttpServer server;
+    private HttpClient client;
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicBoolean stall = new AtomicBoolean();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/",
+                exchange -> {
+                    // One 500ms stall of the only server thread, like a GC pause
+                    if (received.incrementAndGet() == 5 && stall.get()) {
+                        sleep(500);
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                });
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void run_ShouldSendAtTheScenarioRate() throws Exception {
+        LoadGenerator.Result result =
+                generator().run(new Scenario("reads", 100, 0, 0, 0, 0), Duration.ofSeconds(1));
+
+        assertThat(result.completed()).isEqualTo(100);
+        assertThat(received).hasValue(100);
+        assertThat(result.errors()).isZero();
+        assertThat(result.seconds()).isGreaterThanOrEqualTo(0.99);
+    }
+
+    @Test
+    void run_ShouldChargeAStallToEveryRequestDueDuringIt() throws Exception {
+        stall.set(true);
+
+        // One request in flight at a time: the generator itself is held up by the stall, as a
+        // closed-model client would be
+        LoadGenerator.Result result =
+                generator(1).run(new Scenario("reads", 100, 0, 0, 0, 0), Duration.ofSeconds(1));
+
+        // About 50 requests were due during the stall, but only one was sent and saw it
+        assertThat(result.serviceTime().getValueAtPercentile(90)).isLessThan(100_000_000L);
+        assertThat(result.responseTime().getValueAtPercentile(90)).isGreaterThan(100_000_000L);
+        assertThat(result.completed()).isEqualTo(100);
+    }
+
+    @Test
+    void request_ShouldBuildEachOperation() {
+        LoadGenerator generator = generator();
+
+        assertThat(generator.request(Scenario.Operation.GET_BY_ID, 1).uri().getPath())
+                .isEqualTo("/api/users/11");
+        assertThat(generator.request(Scenario.Operation.SEARCH, 7).uri().getRawQuery())
+                .isEqualTo("name=perf%207");
+        assertThat(generator.request(Scenario.Operation.CREATE, 0).method()).isEqualTo("POST");
+        assertThat(generator.request(Scenario.Operation.UPDATE, 0).uri().getPath())
+                .isEqualTo("/api/users/10");
+    }
+
+    @Test
+    void scenario_ShouldSpreadTheMixOverEveryHundredRequests() {
+        Scenario scenario = new Scenario("mix", 1, 10, 20, 30, 15);
+
+        int[] counts = new int[Scenario.Operation.values().length];
+        for (int n = 0; n < 100; n++) {
+            counts[scenario.operation(n).ordinal()]++;
+        }
+
+        assertThat(counts).containsExactly(25, 10, 20, 30, 15);
+        assertThatThrownBy(() -> new Scenario("bad", 1, 50, 50, 1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LoadGenerator generator() {
+        return generator(64);
+    }
+
+    private LoadGenerator generator(int maxInFlight) {
+        return new LoadGenerator(
+                client,
+                URI.create("http://localhost:" + server.getAddress().getPort()),
+                List.of(10L, 11L),
+                maxInFlight);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
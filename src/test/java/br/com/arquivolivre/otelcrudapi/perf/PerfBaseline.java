@@ -0,0 +1,93 @@
+package br.com.arquivolivre.otelcrudapi.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Stored p99 and throughput per scenario, as {@code <scenario>.p99-ms} and {@code
+ * <scenario>.throughput} in a properties file. A run regresses when its p99 is above {@code
+ * baseline * (1 + tolerance) + slack} or its throughput below {@code baseline * (1 - tolerance)}.
+ */
+public class PerfBaseline {
+
+    private final Properties values;
+
+    private PerfBaseline(Properties values) {
+        this.values = values;
+    }
+
+    /** The baseline in {@code file}, or an empty one if there is no such file */
+    public static PerfBaseline load(Path file) throws IOException {
+        Properties values = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                values.load(reader);
+            }
+        }
+        return new PerfBaseline(values);
+    }
+
+    public boolean contains(String scenario) {
+        return values.containsKey(scenario + ".p99-ms")
+                && values.containsKey(scenario + ".throughput");
+    }
+
+    public void put(String scenario, double p99Ms, double throughput) {
+        values.setProperty(scenario + ".p99-ms", String.format(Locale.ROOT, "%.2f", p99Ms));
+        values.setProperty(
+                scenario + ".throughput", String.format(Locale.ROOT, "%.1f", throughput));
+    }
+
+    public void store(Path file, String comment) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            values.store(writer, comment);
+        }
+    }
+
+    /**
+     * What regressed in {@code scenario} compared to this baseline; empty if nothing did or the
+     * scenario has no baseline yet
+     */
+    public List<String> regressions(
+            String scenario, double p99Ms, double throughput, double tolerance, double slackMs) {
+        List<String> regressions = new ArrayList<>();
+        if (!contains(scenario)) {
+            return regressions;
+        }
+        double baselineP99 = Double.parseDouble(values.getProperty(scenario + ".p99-ms"));
+        double baselineThroughput =
+                Double.parseDouble(values.getProperty(scenario + ".throughput"));
+
+        double maxP99 = baselineP99 * (1 + tolerance) + slackMs;
+        if (p99Ms > maxP99) {
+            regressions.add(
+                    String.format(
+                            Locale.ROOT,
+                            "%s: p99 %.2f ms above %.2f ms (baseline %.2f ms)",
+                            scenario,
+                            p99Ms,
+                            maxP99,
+                            baselineP99));
+        }
+        double minThroughput = baselineThroughput * (1 - tolerance);
+        if (throughput < minThroughput) {
+            regressions.add(
+                    String.format(
+                            Locale.ROOT,
+                            "%s: throughput %.1f/s below %.1f/s (baseline %.1f/s)",
+                            scenario,
+                            throughput,
+                            minThroughput,
+                            baselineThroughput));
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.arquivolivre.otelcrudapi.perf;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PerfBaselineTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void regressions_ShouldFlagP99AboveToleranceAndSlack() throws Exception {
+        PerfBaseline baseline = PerfBaseline.load(dir.resolve("missing.properties"));
+        baseline.put("read-heavy", 10.0, 200.0);
+
+        assertThat(baseline.regressions("read-heavy", 14.5, 200.0, 0.25, 2.0)).isEmpty();
+        assertThat(baseline.regressions("read-heavy", 14.6, 200.0, 0.25, 2.0))
+                .singleElement()
+                .asString()
+                .contains("p99 14.60 ms above 14.50 ms");
+    }
+
+    @Test
+    void regressions_ShouldFlagThroughputBelowTolerance() throws Exception {
+        PerfBaseline baseline = PerfBaseline.load(dir.resolve("missing.properties"));
+        baseline.put("write-heavy", 10.0, 100.0);
+
+        assertThat(baseline.regressions("write-heavy", 10.0, 75.0, 0.25, 0)).isEmpty();
+        assertThat(baseline.regressions("write-heavy", 10.0, 74.0, 0.25, 0))
+                .singleElement()
+                .asString()
+                .contains("throughput 74.0/s below 75.0/s");
+    }
+
+    @Test
+    void regressions_ShouldIgnoreScenariosWithoutBaseline() throws Exception {
+        PerfBaseline baseline = PerfBaseline.load(dir.resolve("missing.properties"));
+
+        assertThat(baseline.contains("search-heavy")).isFalse();
+        assertThat(baseline.regressions("search-heavy", 1000, 1, 0.25, 0)).isEmpty();
+    }
+
+    @Test
+    void store_ShouldRoundTrip() throws Exception {
+        Path file = dir.resolve("perf/baseline.properties");
+        PerfBaseline baseline = PerfBaseline.load(file);
+        baseline.put("read-heavy", 12.345, 199.97);
+        baseline.store(file, "test");
+
+        PerfBaseline loaded = PerfBaseline.load(file);
+        assertThat(loaded.contains("read-heavy")).isTrue();
+        assertThat(loaded.regressions("read-heavy", 12.35, 200.0, 0, 0)).isEmpty();
+        assertThat(loaded.regressions("read-heavy", 12.36, 200.0, 0, 0)).hasSize(1);
+    }
+}
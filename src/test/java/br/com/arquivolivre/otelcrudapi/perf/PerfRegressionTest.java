@@ -0,0 +1,186 @@
+package br.com.arquivolivre.otelcrudapi.perf;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.OtelCrudApiApplication;
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End-to-end load scenarios against the application on a random port, with HdrHistogram reports in
+ * {@code target/perf}, gated against {@code perf-baseline.properties}. Run with {@code make perf};
+ * {@code make perf-baseline} records the current run as the new baseline. Everything is tunable
+ * with {@code -Dperf.*}, see the README.
+ */
+@Tag("benchmark")
+class PerfRegressionTest {
+
+    private final Duration duration =
+            Duration.ofSeconds(Integer.getInteger("perf.duration-seconds", 20));
+    private final Duration warmup =
+            Duration.ofSeconds(Integer.getInteger("perf.warmup-seconds", 5));
+    private final int users = Integer.getInteger("perf.users", 200);
+    private final int maxInFlight = Integer.getInteger("perf.max-in-flight", 512);
+    private final double tolerance =
+            Double.parseDouble(System.getProperty("perf.tolerance", "0.25"));
+    private final double p99SlackMs =
+            Double.parseDouble(System.getProperty("perf.p99-slack-ms", "2"));
+    private final double maxErrorRatio =
+            Double.parseDouble(System.getProperty("perf.max-error-ratio", "0.01"));
+    private final List<String> scenarios =
+            Arrays.asList(System.getProperty("perf.scenarios", "").split(","));
+    private final Path baselineFile =
+            Path.of(
+                    System.getProperty(
+                            "perf.baseline", "src/test/resources/perf-baseline.properties"));
+    private final Path reportDir = Path.of(System.getProperty("perf.report-dir", "target/perf"));
+    private final boolean updateBaseline = Boolean.getBoolean("perf.update-baseline");
+
+    @Test
+    void scenariosShouldNotRegress() throws Exception {
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        try (ConfigurableApplicationContext context =
+                        new SpringApplicationBuilder(OtelCrudApiApplication.class)
+                                .run(
+                                        "--server.port=0",
+                                        "--otel.traces.exporter=none",
+                                        "--otel.metrics.exporter=none",
+                                        "--otel.logs.exporter=none",
+                                        "--logging.level.root=WARN",
+                                        "--logging.level.org.springframework.web=WARN",
+                                        "--logging.level.br.com.arquivolivre=WARN",
+                                        "--spring.jpa.show-sql=false");
+                HttpClient client = HttpClient.newHttpClient()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator =
+                    new LoadGenerator(
+                            client,
+                            URI.create("http://localhost:" + port),
+                            seed(context.getBean(UserRepository.class)),
+                            maxInFlight);
+
+            for (Scenario scenario : Scenario.defaults()) {
+                if (!scenarios.contains("") && !scenarios.contains(scenario.name())) {
+                    continue;
+                }
+                // Warm up at the same rate so JIT, pools and caches settle before measuring
+                generator.run(scenario, warmup);
+                results.add(generator.run(scenario, duration));
+            }
+        }
+
+        System.out.println();
+        System.out.printf(
+                "%-13s %8s %13s %9s %9s %9s %9s %9s %10s %7s%n",
+                "scenario",
+                "rate/s",
+                "throughput/s",
+                "p50 ms",
+                "p90 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms",
+                "svc p99",
+                "errors");
+        for (LoadGenerator.Result result : results) {
+            System.out.printf(
+                    "%-13s %8d %13.1f %9.2f %9.2f %9.2f %9.2f %9.2f %10.2f %7d%n",
+                    result.scenario().name(),
+                    result.scenario().rate(),
+                    result.throughput(),
+                    result.percentileMs(50),
+                    result.percentileMs(90),
+                    result.percentileMs(99),
+                    result.percentileMs(99.9),
+                    result.maxMs(),
+                    result.serviceTime().getValueAtPercentile(99) / 1e6,
+                    result.errors());
+        }
+        writeReports(results);
+
+        PerfBaseline baseline = PerfBaseline.load(baselineFile);
+        if (updateBaseline) {
+            for (LoadGenerator.Result result : results) {
+                baseline.put(
+                        result.scenario().name(), result.percentileMs(99), result.throughput());
+            }
+            baseline.store(baselineFile, "make perf-baseline");
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (LoadGenerator.Result result : results) {
+            String name = result.scenario().name();
+            if (!baseline.contains(name)) {
+                System.out.println("No baseline for " + name + ", not gated");
+            }
+            regressions.addAll(
+                    baseline.regressions(
+                            name,
+                            result.percentileMs(99),
+                            result.throughput(),
+                            tolerance,
+                            p99SlackMs));
+            assertThat(result.errorRatio()).as(name + " error ratio").isLessThan(maxErrorRatio);
+        }
+        assertThat(regressions).as("regressions beyond %.0f%%", tolerance * 100).isEmpty();
+    }
+
+    private List<Long> seed(UserRepository userRepository) {
+        List<User> seeded = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            seeded.add(new User("Perf " + i, "perf" + i + "@example.com", "bio " + i));
+        }
+        return userRepository.saveAll(seeded).stream().map(User::getId).toList();
+    }
+
+    /** {@code <scenario>.hgrm} percentile distributions (ms) and a {@code summary.json} */
+    private void writeReports(List<LoadGenerator.Result> results) throws Exception {
+        Files.createDirectories(reportDir);
+        List<Map<String, Object>> summary = new ArrayList<>();
+        for (LoadGenerator.Result result : results) {
+            String name = result.scenario().name();
+            try (PrintStream out =
+                    new PrintStream(Files.newOutputStream(reportDir.resolve(name + ".hgrm")))) {
+                result.responseTime().outputPercentileDistribution(out, 1e6);
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("scenario", name);
+            entry.put("rate", result.scenario().rate());
+            entry.put("durationSeconds", duration.toSeconds());
+            entry.put("completed", result.completed());
+            entry.put("errors", result.errors());
+            entry.put("throughput", result.throughput());
+            entry.put("p50Ms", result.percentileMs(50));
+            entry.put("p90Ms", result.percentileMs(90));
+            entry.put("p99Ms", result.percentileMs(99));
+            entry.put("p999Ms", result.percentileMs(99.9));
+            entry.put("maxMs", result.maxMs());
+            entry.put("serviceP99Ms", result.serviceTime().getValueAtPercentile(99) / 1e6);
+            summary.add(entry);
+        }
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("summary.json").toFile(), summary);
+        System.out.println("Reports written to " + reportDir);
+    }
+}
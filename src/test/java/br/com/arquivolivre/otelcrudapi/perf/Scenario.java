@@ -0,0 +1,59 @@
+package br.com.arquivolivre.otelcrudapi.perf;
+
+import java.util.List;
+
+/**
+ * An open-model load scenario: requests arrive at {@code rate} per second whether or not earlier
+ * ones have completed, with a fixed mix of operations over {@code /api/users}. Weights are per 100
+ * requests; whatever they leave is lookups by id. The operation depends only on the request's
+ * sequence number, so every run of a scenario sends the same requests.
+ */
+public record Scenario(String name, int rate, int list, int search, int create, int update) {
+
+    public enum Operation {
+        GET_BY_ID,
+        LIST,
+        SEARCH,
+        CREATE,
+        UPDATE
+    }
+
+    public Scenario {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs a positive rate");
+        }
+        if (list + search + create + update > 100) {
+            throw new IllegalArgumentException("Scenario " + name + " weights exceed 100");
+        }
+    }
+
+    /** The shipped scenarios, rates overridable with {@code -Dperf.<name>.rate} */
+    public static List<Scenario> defaults() {
+        return List.of(
+                new Scenario("read-heavy", rate("read-heavy", 200), 2, 5, 3, 0),
+                new Scenario("write-heavy", rate("write-heavy", 100), 0, 0, 40, 40),
+                new Scenario("search-heavy", rate("search-heavy", 100), 10, 70, 0, 0));
+    }
+
+    public Operation operation(long n) {
+        // 37 is coprime to 100: every slot once per 100 requests, without long runs of one kind
+        int slot = (int) (n * 37 % 100);
+        if (slot < list) {
+            return Operation.LIST;
+        }
+        slot -= list;
+        if (slot < search) {
+            return Operation.SEARCH;
+        }
+        slot -= search;
+        if (slot < create) {
+            return Operation.CREATE;
+        }
+        slot -= create;
+        return slot < update ? Operation.UPDATE : Operation.GET_BY_ID;
+    }
+
+    private static int rate(String name, int defaultRate) {
+        return Integer.getInteger("perf." + name + ".rate", defaultRate);
+    }
+}
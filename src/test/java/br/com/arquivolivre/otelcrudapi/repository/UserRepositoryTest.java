@@ -277,4 +277,27 @@ class UserRepositoryTest {
 
         assertThat(count).isEqualTo(2);
     }
+
+    @Test
+    void countSignupsPerDaySince_ShouldGroupByCreationDay() {
+        List<Object[]> rows =
+                userRepository.countSignupsPerDaySince(LocalDateTime.now().minusDays(10));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows)
+                .extracting(row -> row[0])
+                .containsExactlyInAnyOrder(
+                        johnDoe.getCreatedAt().toLocalDate(),
+                        janeSmith.getCreatedAt().toLocalDate());
+        assertThat(rows).allSatisfy(row -> assertThat(((Number) row[1]).longValue()).isOne());
+    }
+
+    @Test
+    void countSignupsPerDaySince_WithRecentDate_ShouldSkipOlderDays() {
+        List<Object[]> rows =
+                userRepository.countSignupsPerDaySince(LocalDateTime.now().minusDays(3));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[0]).isEqualTo(janeSmith.getCreatedAt().toLocalDate());
+    }
 }
@@ -0,0 +1,192 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.*;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class UserByIdLoaderTest {
+
+    @Mock private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void load_WithConcurrentCallersForSameId_ShouldShareOneLookup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(1L))
+                .thenAnswer(
+                        invocation -> {
+                            release.await();
+                            return Optional.of(user(1L));
+                        });
+        UserByIdLoader loader = loader(Duration.ZERO, 100);
+
+        List<Future<Optional<User>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                results.add(executor.submit(() -> loader.load(1L)));
+            }
+            // The leader holds the lookup open until every other caller has joined it
+            while (meterRegistry.counter("users.loader.coalesced").count() < 9) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            Set<User> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<Optional<User>> result : results) {
+                assertThat(result.get()).map(User::getId).contains(1L);
+                instances.add(result.get().orElseThrow());
+            }
+            // Each caller gets its own detached copy, never the shared entity
+            assertThat(instances).hasSize(10);
+        }
+
+        verify(userRepository, times(1)).findById(1L);
+        assertThat(meterRegistry.counter("users.loader.coalesced").count()).isEqualTo(9.0);
+        assertThat(meterRegistry.get("users.loader.coalescing.ratio").gauge().value())
+                .isEqualTo(0.9);
+    }
+
+    @Test
+    void load_WithDistinctIdsInsideWindow_ShouldBatchIntoFindAllById() throws Exception {
+        when(userRepository.findAllById(anyIterable()))
+                .thenAnswer(
+                        invocation -> {
+                            List<User> users = new ArrayList<>();
+                            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                                if (id != 3L) {
+                                    users.add(user(id));
+                                }
+                            }
+                            return users;
+                        });
+        // A lookup still running is what makes the next leader wait for the window
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        when(userRepository.findById(9L))
+                .thenAnswer(
+                        invocation -> {
+                            running.countDown();
+                            release.await();
+                            return Optional.of(user(9L));
+                        });
+        UserByIdLoader loader = loader(Duration.ofMillis(200), 100);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<User>> slow = executor.submit(() -> loader.load(9L));
+            running.await();
+            Future<Optional<User>> first = executor.submit(() -> loader.load(1L));
+            Future<Optional<User>> second = executor.submit(() -> loader.load(2L));
+            Future<Optional<User>> missing = executor.submit(() -> loader.load(3L));
+
+            assertThat(first.get()).map(User::getId).contains(1L);
+            assertThat(second.get()).map(User::getId).contains(2L);
+            assertThat(missing.get()).isEmpty();
+            release.countDown();
+            assertThat(slow.get()).map(User::getId).contains(9L);
+        }
+
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verify(userRepository, times(1)).findById(any());
+        assertThat(meterRegistry.summary("users.loader.batch.size").max()).isEqualTo(3.0);
+    }
+
+    @Test
+    void load_WithoutContention_ShouldNotWaitForWindow() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(7L)));
+        UserByIdLoader loader = loader(Duration.ofMinutes(1), 100);
+
+        assertTimeoutPreemptively(
+                Duration.ofSeconds(5),
+                () -> assertThat(loader.load(7L)).map(User::getId).contains(7L));
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void load_WhenBatchIsFull_ShouldDispatchWithoutWaitingForWindow() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(7L)));
+        UserByIdLoader loader = loader(Duration.ofMinutes(1), 1);
+
+        assertThat(loader.load(7L)).map(User::getId).contains(7L);
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void load_WhenRepositoryFails_ShouldPropagateToCaller() {
+        when(userRepository.findById(1L)).thenThrow(new IllegalStateException("db down"));
+        UserByIdLoader loader = loader(Duration.ZERO, 100);
+
+        assertThatThrownBy(() -> loader.load(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+
+        // The failed lookup must not stay in flight
+        reset(userRepository);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+        assertThat(loader.load(1L)).isPresent();
+    }
+
+    @Test
+    void load_WhenRepositoryThrowsError_ShouldPropagateAndNotStayInFlight() throws Exception {
+        when(userRepository.findById(1L)).thenThrow(new NoClassDefFoundError("org/h2/Driver"));
+        UserByIdLoader loader = loader(Duration.ZERO, 100);
+
+        assertThatThrownBy(() -> loader.load(1L))
+                .isInstanceOf(NoClassDefFoundError.class)
+                .hasMessage("org/h2/Driver");
+
+        // A later lookup must reach the repository instead of joining the failed one
+        reset(userRepository);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<User>> result = executor.submit(() -> loader.load(1L));
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+        }
+    }
+
+    @Test
+    void load_WhenDisabled_ShouldGoStraightToRepository() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+        UserByIdLoader loader =
+                new UserByIdLoader(userRepository, meterRegistry, false, Duration.ZERO, 100);
+
+        assertThat(loader.load(1L)).isPresent();
+        assertThat(meterRegistry.counter("users.loader.requests").count()).isZero();
+    }
+
+    private UserByIdLoader loader(Duration window, int maxBatchSize) {
+        return new UserByIdLoader(userRepository, meterRegistry, true, window, maxBatchSize);
+    }
+
+    private static User user(Long id) {
+        User user = new User("User " + id, "user" + id + "@example.com", null);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,196 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import br.com.arquivolivre.otelcrudapi.controller.UserChangeFeedController;
+import br.com.arquivolivre.otelcrudapi.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class UserChangeFeedTest {
+
+    private UserChangeFeed feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        feed = new UserChangeFeed(4, 16, 2, Duration.ofMinutes(1), Duration.ofMinutes(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserChangeFeedController(feed)).build();
+    }
+
+    @Test
+    void subscribe_ShouldPushCommittedChanges() throws Exception {
+        MockHttpServletResponse response = subscribe(null);
+
+        feed.onUserChanged(UserChangedEvent.created(user(1L, "john@example.com")));
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(
+                        () ->
+                                assertThat(response.getContentAsString())
+                                        .contains("id:1")
+                                        .contains("event:created")
+                                        .contains("\"email\":\"john@example.com\""));
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayMissedChanges() throws Exception {
+        feed.onUserChanged(UserChangedEvent.created(user(1L, "first@example.com")));
+        feed.onUserChanged(UserChangedEvent.updated(user(1L, "second@example.com"), null));
+        feed.onUserChanged(UserChangedEvent.deleted(user(1L, "second@example.com")));
+
+        MockHttpServletResponse response = subscribe(1L);
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(
+                        () ->
+                                assertThat(response.getContentAsString())
+                                        .doesNotContain("id:1\n")
+                                        .contains("id:2", "event:updated", "id:3", "event:deleted")
+                                        .doesNotContain("event:reset"));
+    }
+
+    @Test
+    void subscribe_WithEvictedLastEventId_ShouldSendReset() throws Exception {
+        for (long i = 1; i <= 6; i++) {
+            feed.onUserChanged(UserChangedEvent.created(user(i, "user" + i + "@example.com")));
+        }
+
+        MockHttpServletResponse response = subscribe(1L);
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(
+                        () ->
+                                assertThat(response.getContentAsString())
+                                        .startsWith("event:reset")
+                                        .contains("id:3", "id:6")
+                                        .doesNotContain("id:2\n"));
+    }
+
+    @Test
+    void subscribe_WithLastEventIdAheadOfTheFeed_ShouldSendReset() throws Exception {
+        // As after a restart: the client saw id 40 from the previous process
+        feed.onUserChanged(UserChangedEvent.created(user(1L, "john@example.com")));
+
+        MockHttpServletResponse response = subscribe(40L);
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(
+                        () ->
+                                assertThat(response.getContentAsString())
+                                        .startsWith("event:reset")
+                                        .contains("id:1"));
+    }
+
+    @Test
+    void slowSubscriber_ShouldBeDisconnectedAndItsResponseCompleted() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        feed.bindTo(registry);
+        MvcResult result =
+                mockMvc.perform(get("/api/users/changes"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        // The mock response writes to a synchronized buffer: holding its monitor blocks the
+        // subscriber in the middle of a send while its queue overflows
+        Object content = ReflectionTestUtils.getField(result.getResponse(), "content");
+        synchronized (content) {
+            for (long i = 1; i <= 40; i++) {
+                feed.onUserChanged(UserChangedEvent.created(user(i, "user" + i + "@example.com")));
+            }
+        }
+
+        // Throws if the emitter is never completed
+        result.getAsyncResult(5_000);
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(feed.subscriberCount()).isZero());
+        assertThat(registry.get("users.changes.slow.disconnects").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_AboveLimit_ShouldReturnServiceUnavailable() throws Exception {
+        subscribe(null);
+        subscribe(null);
+
+        mockMvc.perform(get("/api/users/changes")).andExpect(status().isServiceUnavailable());
+        assertThat(feed.subscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void subscribe_ConcurrentlyAtLimit_ShouldNeverExceedIt() throws Exception {
+        int attempts = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            threads.add(
+                    Thread.ofVirtual()
+                            .start(
+                                    () -> {
+                                        try {
+                                            start.await();
+                                            feed.subscribe(null);
+                                            accepted.incrementAndGet();
+                                        } catch (IllegalStateException | InterruptedException e) {
+                                            // Rejected above the limit
+                                        }
+                                    }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(accepted).hasValue(2);
+        assertThat(feed.subscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void subscribe_AfterSubscriberCompletes_ShouldFreeItsSlot() throws Exception {
+        SseEmitter first = feed.subscribe(null);
+        feed.subscribe(null);
+        assertThatThrownBy(() -> feed.subscribe(null)).isInstanceOf(IllegalStateException.class);
+
+        // The next change fails to send on the completed emitter and ends its subscriber
+        first.complete();
+        feed.onUserChanged(UserChangedEvent.created(user(1L, "john@example.com")));
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(feed.subscriberCount()).isEqualTo(1));
+        assertThatCode(() -> feed.subscribe(null)).doesNotThrowAnyException();
+        assertThat(feed.subscriberCount()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse subscribe(Long lastEventId) throws Exception {
+        var builder = get("/api/users/changes");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User("John Doe", email, "bio");
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class UserReadModelTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    @Mock private UserRepository userRepository;
+
+    private UserReadModel readModel;
+
+    private final UserSnapshot john = snapshot(1L, "John Doe", "john@example.com", 10);
+    private final UserSnapshot jane = snapshot(2L, "Jane Smith", "jane@example.com", 1);
+    private final UserSnapshot johnny = snapshot(3L, "Johnny Cash", "johnny@example.com", 3);
+
+    @BeforeEach
+    void setUp() {
+        readModel = new UserReadModel(userRepository);
+    }
+
+    @Test
+    void rebuild_ShouldServeReadsFromMemory() {
+        when(userRepository.findAllSnapshots()).thenReturn(List.of(john, jane, johnny));
+
+        assertThat(readModel.isReady()).isFalse();
+        readModel.rebuild();
+
+        assertThat(readModel.isReady()).isTrue();
+        assertThat(readModel.findById(2L)).map(UserSnapshot::of).contains(jane);
+        assertThat(readModel.findById(4L)).isEmpty();
+        assertThat(readModel.findByEmail("johnny@example.com")).map(User::getId).contains(3L);
+        assertThat(readModel.findAll()).extracting(User::getId).containsExactly(1L, 2L, 3L);
+        assertThat(readModel.searchByName("JOHN")).extracting(User::getId).containsExactly(1L, 3L);
+        assertThat(readModel.findCreatedAfter(NOW.minusDays(5)))
+                .extracting(User::getId)
+                .containsExactly(2L, 3L);
+        verify(userRepository, only()).findAllSnapshots();
+    }
+
+    @Test
+    void onUserChanged_ShouldReindexUpdatesAndDropDeletedUsers() {
+        when(userRepository.findAllSnapshots()).thenReturn(List.of(john, jane));
+        readModel.rebuild();
+
+        User renamed = john.toUser();
+        renamed.setName("Jack Doe");
+        renamed.setEmail("jack@example.com");
+        readModel.onUserChanged(UserChangedEvent.updated(renamed, john));
+        readModel.onUserChanged(UserChangedEvent.deleted(jane.toUser()));
+        readModel.onUserChanged(UserChangedEvent.created(johnny.toUser()));
+
+        assertThat(readModel.findByEmail("john@example.com")).isEmpty();
+        assertThat(readModel.findByEmail("jack@example.com")).map(User::getId).contains(1L);
+        assertThat(readModel.searchByName("john")).extracting(User::getId).containsExactly(3L);
+        assertThat(readModel.findById(2L)).isEmpty();
+        assertThat(readModel.findCreatedAfter(NOW.minusDays(30)))
+                .extracting(User::getId)
+                .containsExactly(1L, 3L);
+        assertThat(readModel.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesCommittedWhileReadingTheTable() {
+        when(userRepository.findAllSnapshots())
+                .thenAnswer(
+                        invocation -> {
+                            // Committed after the build's query saw the table
+                            readModel.onUserChanged(UserChangedEvent.created(johnny.toUser()));
+                            readModel.onUserChanged(UserChangedEvent.deleted(jane.toUser()));
+                            return List.of(john, jane);
+                        });
+
+        readModel.rebuild();
+
+        assertThat(readModel.findAll()).extracting(User::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void check_ShouldRepairUsersThatStillDifferFromTheDatabase() {
+        when(userRepository.findAllSnapshots()).thenReturn(List.of(john, jane));
+        readModel.rebuild();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        readModel.bindTo(registry);
+
+        UserSnapshot janeRenamed = snapshot(2L, "Jane Doe", "jane@example.com", 1);
+        when(userRepository.streamAllSnapshots()).thenReturn(Stream.of(john, janeRenamed, johnny));
+        when(userRepository.findSnapshotById(2L)).thenReturn(Optional.of(janeRenamed));
+        when(userRepository.findSnapshotById(3L)).thenReturn(Optional.of(johnny));
+
+        assertThat(readModel.check()).isEqualTo(2);
+
+        assertThat(readModel.findById(2L)).map(User::getName).contains("Jane Doe");
+        assertThat(readModel.findByEmail("johnny@example.com")).isPresent();
+        assertThat(registry.get("users.read.model.repairs").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("users.read.model.size").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void check_ShouldIgnoreDifferencesGoneOnReread() {
+        when(userRepository.findAllSnapshots()).thenReturn(List.of(john, jane));
+        readModel.rebuild();
+
+        // jane was deleted during the scan and the model caught up before the re-read
+        when(userRepository.streamAllSnapshots()).thenReturn(Stream.of(john, jane));
+        readModel.onUserChanged(UserChangedEvent.deleted(jane.toUser()));
+        when(userRepository.findSnapshotById(2L)).thenReturn(Optional.empty());
+
+        assertThat(readModel.check()).isZero();
+        assertThat(readModel.findAll()).extracting(User::getId).containsExactly(1L);
+    }
+
+    @Test
+    void check_BeforeTheFirstBuild_ShouldDoNothing() {
+        assertThat(readModel.check()).isZero();
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserSnapshot snapshot(Long id, String name, String email, int daysAgo) {
+        LocalDateTime createdAt = NOW.minusDays(daysAgo);
+        return new UserSnapshot(id, name, email, null, createdAt, createdAt);
+    }
+}
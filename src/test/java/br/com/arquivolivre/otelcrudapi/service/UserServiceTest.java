@@ -5,7 +5,10 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
 import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -13,22 +16,36 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
 
     @Mock private UserRepository userRepository;
 
-    @InjectMocks private UserService userService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private UserService userService;
 
     private User testUser;
     private List<User> testUsers;
 
     @BeforeEach
     void setUp() {
+        UserByIdLoader userByIdLoader =
+                new UserByIdLoader(
+                        userRepository, new SimpleMeterRegistry(), true, Duration.ZERO, 100);
+        userService =
+                new UserService(
+                        userRepository,
+                        userByIdLoader,
+                        eventPublisher,
+                        new DefaultListableBeanFactory().getBeanProvider(UserReadModel.class));
+
         testUser = new User();
         testUser.setId(1L);
         testUser.setName("John Doe");
@@ -131,6 +148,7 @@ class UserServiceTest {
         assertThat(result.getBio()).isEqualTo("DevOps Engineer");
         verify(userRepository, times(1)).existsByEmail("alice.johnson@example.com");
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher, times(1)).publishEvent(UserChangedEvent.created(savedUser));
     }
 
     @Test
@@ -150,6 +168,16 @@ class UserServiceTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void createUser_WithExistingEmail_ShouldThrowStacklessException() {
+        User newUser = new User("Alice Johnson", "john.doe@example.com", "DevOps Engineer");
+        when(userRepository.existsByEmail("john.doe@example.com")).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.createUser(newUser))
+                .isInstanceOf(EmailAlreadyExistsException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+
     @Test
     void updateUser_WithValidData_ShouldReturnUpdatedUser() {
         User updatedData = new User();
@@ -179,6 +207,11 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).existsByEmail("john.updated@example.com");
         verify(userRepository, times(1)).save(any(User.class));
+
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().type()).isEqualTo(UserChangedEvent.Type.UPDATED);
+        assertThat(event.getValue().previous().email()).isEqualTo("john.doe@example.com");
     }
 
     @Test
@@ -219,25 +252,27 @@ class UserServiceTest {
 
     @Test
     void deleteUser_WithValidId_ShouldDeleteUser() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        doNothing().when(userRepository).delete(testUser);
 
         userService.deleteUser(1L);
 
-        verify(userRepository, times(1)).existsById(1L);
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).delete(testUser);
+        verify(eventPublisher, times(1)).publishEvent(UserChangedEvent.deleted(testUser));
     }
 
     @Test
     void deleteUser_WithInvalidId_ShouldThrowException() {
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.deleteUser(999L))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("User not found with id: 999");
 
-        verify(userRepository, times(1)).existsById(999L);
-        verify(userRepository, never()).deleteById(999L);
+        verify(userRepository, times(1)).findById(999L);
+        verify(userRepository, never()).delete(any(User.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -293,4 +328,27 @@ class UserServiceTest {
         assertThat(result).hasSize(2);
         verify(userRepository, times(1)).findUsersCreatedAfter(any(LocalDateTime.class));
     }
+
+    @Test
+    void reads_WithReadModelReady_ShouldNotTouchTheRepository() {
+        when(userRepository.findAllSnapshots())
+                .thenReturn(testUsers.stream().map(UserSnapshot::of).toList());
+        UserReadModel readModel = new UserReadModel(userRepository);
+        readModel.rebuild();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("userReadModel", readModel);
+        UserService service =
+                new UserService(
+                        userRepository,
+                        mock(UserByIdLoader.class),
+                        eventPublisher,
+                        beanFactory.getBeanProvider(UserReadModel.class));
+
+        assertThat(service.getUserById(1L)).map(User::getName).contains("John Doe");
+        assertThat(service.getUserByEmail("jane.smith@example.com")).map(User::getId).contains(2L);
+        assertThat(service.searchUsersByName("smith")).extracting(User::getId).containsExactly(2L);
+        assertThat(service.getRecentUsers(7)).hasSize(2);
+        assertThat(service.getAllUsers()).hasSize(2);
+        verify(userRepository, only()).findAllSnapshots();
+    }
 }
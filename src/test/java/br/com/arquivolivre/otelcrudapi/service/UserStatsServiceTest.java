@@ -0,0 +1,98 @@
+package br.com.arquivolivre.otelcrudapi.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.model.UserSnapshot;
+import br.com.arquivolivre.otelcrudapi.model.UserStats;
+import br.com.arquivolivre.otelcrudapi.repository.UserRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTest {
+
+    @Mock private UserRepository userRepository;
+
+    private UserStatsService userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        userStatsService = new UserStatsService(userRepository, 30);
+    }
+
+    @Test
+    void onUserChanged_ShouldMaintainCountersWithoutQueryingRepository() {
+        User withBio = user(1L, "Software Engineer", LocalDateTime.now());
+        User withoutBio = user(2L, null, LocalDateTime.now());
+
+        userStatsService.onUserChanged(UserChangedEvent.created(withBio));
+        userStatsService.onUserChanged(UserChangedEvent.created(withoutBio));
+
+        UserStats stats = userStatsService.getStats();
+        assertThat(stats.totalUsers()).isEqualTo(2);
+        assertThat(stats.usersWithBio()).isEqualTo(1);
+        assertThat(stats.signupsPerDay()).containsEntry(LocalDate.now(), 2L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void onUserChanged_WithBioAddedOnUpdate_ShouldCountUserWithBio() {
+        User user = user(1L, null, LocalDateTime.now());
+        userStatsService.onUserChanged(UserChangedEvent.created(user));
+        UserSnapshot previous = UserSnapshot.of(user);
+
+        user.setBio("Now with a bio");
+        userStatsService.onUserChanged(UserChangedEvent.updated(user, previous));
+
+        assertThat(userStatsService.getStats().usersWithBio()).isEqualTo(1);
+        assertThat(userStatsService.getStats().totalUsers()).isEqualTo(1);
+    }
+
+    @Test
+    void onUserChanged_WithDelete_ShouldDecrementCounters() {
+        User user = user(1L, "Bio", LocalDateTime.now());
+        userStatsService.onUserChanged(UserChangedEvent.created(user));
+
+        userStatsService.onUserChanged(UserChangedEvent.deleted(user));
+
+        UserStats stats = userStatsService.getStats();
+        assertThat(stats.totalUsers()).isZero();
+        assertThat(stats.usersWithBio()).isZero();
+        assertThat(stats.signupsPerDay()).isEmpty();
+    }
+
+    @Test
+    void reconcile_ShouldReplaceCountersWithDatabaseValues() {
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        userStatsService.onUserChanged(UserChangedEvent.created(user(1L, "Bio", null)));
+        when(userRepository.count()).thenReturn(10L);
+        when(userRepository.countUsersWithBio()).thenReturn(7L);
+        when(userRepository.countSignupsPerDaySince(any(LocalDateTime.class)))
+                .thenReturn(List.of(new Object[] {yesterday, 4L}, new Object[] {today, 6L}));
+
+        userStatsService.reconcile();
+
+        UserStats stats = userStatsService.getStats();
+        assertThat(stats.totalUsers()).isEqualTo(10);
+        assertThat(stats.usersWithBio()).isEqualTo(7);
+        assertThat(stats.signupsPerDay()).containsExactly(entry(yesterday, 4L), entry(today, 6L));
+        assertThat(stats.reconciledAt()).isNotNull();
+    }
+
+    private static User user(Long id, String bio, LocalDateTime createdAt) {
+        User user = new User("User " + id, "user" + id + "@example.com", bio);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+}
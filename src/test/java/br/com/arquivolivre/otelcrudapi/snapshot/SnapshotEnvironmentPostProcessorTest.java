@@ -0,0 +1,65 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+class SnapshotEnvironmentPostProcessorTest {
+
+    private final SnapshotEnvironmentPostProcessor processor =
+            new SnapshotEnvironmentPostProcessor();
+
+    @Test
+    void snapshotsEnabled_ShouldKeepH2OpenAtExit() {
+        MockEnvironment environment =
+                new MockEnvironment()
+                        .withProperty("app.snapshot.enabled", "true")
+                        .withProperty("spring.datasource.url", "jdbc:h2:mem:testdb");
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertThat(environment.getProperty("spring.datasource.url"))
+                .isEqualTo("jdbc:h2:mem:testdb;DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    @Test
+    void snapshotsDisabledOrSettingPresent_ShouldLeaveTheUrlAlone() {
+        MockEnvironment disabled =
+                new MockEnvironment().withProperty("spring.datasource.url", "jdbc:h2:mem:testdb");
+        MockEnvironment present =
+                new MockEnvironment()
+                        .withProperty("app.snapshot.enabled", "true")
+                        .withProperty(
+                                "spring.datasource.url",
+                                "jdbc:h2:file:./target/scale;db_close_on_exit=false");
+
+        processor.postProcessEnvironment(disabled, new SpringApplication());
+        processor.postProcessEnvironment(present, new SpringApplication());
+
+        assertThat(
+                        disabled.getPropertySources()
+                                .contains(SnapshotEnvironmentPostProcessor.PROPERTY_SOURCE_NAME))
+                .isFalse();
+        assertThat(present.getProperty("spring.datasource.url"))
+                .isEqualTo("jdbc:h2:file:./target/scale;db_close_on_exit=false");
+    }
+
+    @Test
+    void snapshotsEnabledWithCloseOnExit_ShouldFailStartup() {
+        MockEnvironment environment =
+                new MockEnvironment()
+                        .withProperty("app.snapshot.enabled", "true")
+                        .withProperty(
+                                "spring.datasource.url",
+                                "jdbc:h2:mem:testdb;DB_CLOSE_ON_EXIT=TRUE");
+
+        assertThatThrownBy(
+                        () ->
+                                processor.postProcessEnvironment(
+                                        environment, new SpringApplication()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("DB_CLOSE_ON_EXIT=FALSE");
+    }
+}
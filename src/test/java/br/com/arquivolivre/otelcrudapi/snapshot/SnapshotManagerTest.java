@@ -0,0 +1,122 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import static br.com.arquivolivre.otelcrudapi.snapshot.UserTableSnapshotTest.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import br.com.arquivolivre.otelcrudapi.model.User;
+import br.com.arquivolivre.otelcrudapi.service.UserChangedEvent;
+import br.com.arquivolivre.otelcrudapi.service.UserStatsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class SnapshotManagerTest {
+
+    @TempDir Path dir;
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:snapshot-manager;DB_CLOSE_DELAY=-1");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserStatsService userStatsService = mock(UserStatsService.class);
+    private Path file;
+    private SnapshotManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        execute(dataSource, CREATE_TABLE);
+        execute(
+                dataSource,
+                "INSERT INTO users (name, email, created_at) VALUES"
+                        + " ('John Doe', 'john@example.com', CURRENT_TIMESTAMP)");
+        file = dir.resolve("users.snapshot");
+        manager = manager();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute(dataSource, "DROP TABLE users");
+    }
+
+    @Test
+    void run_WithoutSnapshot_ShouldKeepTheTableAndAllowWrites() throws Exception {
+        assertThat(manager.write()).as("before the restore").isEqualTo(-1);
+        assertThat(Files.exists(file)).isFalse();
+
+        manager.run(null);
+
+        assertThat(rows(dataSource)).hasSize(1);
+        assertThat(manager.write()).isEqualTo(1);
+        assertThat(Files.exists(file)).isTrue();
+        verifyNoInteractions(userStatsService);
+    }
+
+    @Test
+    void run_WithSnapshot_ShouldRestoreItAndReconcileStats() throws Exception {
+        manager.run(null);
+        execute(
+                dataSource,
+                "INSERT INTO users (name, email, created_at) VALUES"
+                        + " ('Jane Smith', 'jane@example.com', CURRENT_TIMESTAMP)");
+        manager.stop();
+        List<String> saved = rows(dataSource);
+
+        // A restart: the in-memory table comes back with only the seed rows
+        execute(dataSource, "DELETE FROM users WHERE email = 'jane@example.com'");
+        SnapshotManager restarted = manager();
+        restarted.run(null);
+
+        assertThat(rows(dataSource)).isEqualTo(saved).hasSize(2);
+        verify(userStatsService).reconcile();
+        assertThat(registry.get("users.snapshot").tag("operation", "restore").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void run_WithCorruptSnapshot_ShouldStartFromTheCurrentTable() throws Exception {
+        Files.write(file, new byte[64]);
+
+        manager.run(null);
+
+        assertThat(rows(dataSource)).hasSize(1);
+        assertThat(manager.write()).isEqualTo(1);
+    }
+
+    @Test
+    void writeIfChanged_ShouldOnlyWriteAfterChanges() throws Exception {
+        manager.run(null);
+
+        manager.writeIfChanged();
+        assertThat(writes()).as("first write").isEqualTo(1);
+        manager.writeIfChanged();
+        assertThat(writes()).as("nothing changed").isEqualTo(1);
+
+        manager.onUserChanged(UserChangedEvent.created(new User("A", "a@example.com", null)));
+        manager.writeIfChanged();
+        assertThat(writes()).isEqualTo(2);
+    }
+
+    private long writes() {
+        return registry.get("users.snapshot").tag("operation", "write").timer().count();
+    }
+
+    private SnapshotManager manager() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("userStatsService", userStatsService);
+        return new SnapshotManager(
+                new DelegatingDataSource(dataSource),
+                beanFactory.getBeanProvider(UserStatsService.class),
+                registry,
+                file,
+                100);
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import static br.com.arquivolivre.otelcrudapi.snapshot.UserTableSnapshotTest.*;
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.arquivolivre.otelcrudapi.OtelCrudApiApplication;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * The shutdown snapshot on a real SIGTERM: the application runs in its own JVM, so H2's and
+ * Spring's shutdown hooks race as they do in a container.
+ */
+class SnapshotShutdownTest {
+
+    @TempDir Path dir;
+
+    private final DriverManagerDataSource restored =
+            new DriverManagerDataSource("jdbc:h2:mem:snapshot-shutdown;DB_CLOSE_DELAY=-1");
+    private Process process;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (process != null) {
+            process.destroyForcibly();
+        }
+        execute(restored, "DROP TABLE IF EXISTS users");
+    }
+
+    @Test
+    void sigterm_ShouldWriteTheSnapshotBeforeTheDatabaseCloses() throws Exception {
+        Path snapshot = dir.resolve("users.snapshot");
+        Path log = dir.resolve("app.log");
+        int port = freePort();
+        process =
+                new ProcessBuilder(
+                                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                                "-cp",
+                                System.getProperty(
+                                        "surefire.test.class.path",
+                                        System.getProperty("java.class.path")),
+                                OtelCrudApiApplication.class.getName(),
+                                "--server.port=" + port,
+                                "--app.snapshot.enabled=true",
+                                "--app.snapshot.path=" + snapshot,
+                                "--management.endpoint.health.probes.enabled=true",
+                                "--otel.sdk.disabled=true",
+                                "--logging.level.root=WARN")
+                        .redirectErrorStream(true)
+                        .redirectOutput(log.toFile())
+                        .start();
+
+        HttpClient client = HttpClient.newHttpClient();
+        awaitReady(client, port, log);
+        HttpResponse<String> created =
+                client.send(
+                        HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + port + "/api/users"))
+                                .header("Content-Type", "application/json")
+                                .POST(
+                                        HttpRequest.BodyPublishers.ofString(
+                                                "{\"name\":\"Before Shutdown\","
+                                                        + "\"email\":\"sigterm@example.com\"}"))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+        assertThat(created.statusCode()).isEqualTo(201);
+
+        // SIGTERM; the periodic write is minutes away, so only the shutdown write can save it
+        process.destroy();
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).as(Files.readString(log)).isTrue();
+
+        assertThat(snapshot).as(Files.readString(log)).exists();
+        execute(restored, CREATE_TABLE);
+        try (Connection connection = restored.getConnection()) {
+            UserTableSnapshot.restore(snapshot, connection, 100);
+        }
+        List<String> rows = rows(restored);
+        assertThat(rows).anyMatch(row -> row.contains("|sigterm@example.com|"));
+    }
+
+    private void awaitReady(HttpClient client, int port, Path log) throws Exception {
+        HttpRequest readiness =
+                HttpRequest.newBuilder(
+                                URI.create(
+                                        "http://localhost:" + port + "/actuator/health/readiness"))
+                        .timeout(Duration.ofSeconds(2))
+                        .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(90);
+        while (System.nanoTime() < deadline) {
+            assertThat(process.isAlive()).as(Files.readString(log)).isTrue();
+            try {
+                if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode()
+                        == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        fail("Application did not become ready:%n%s", Files.readString(log));
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
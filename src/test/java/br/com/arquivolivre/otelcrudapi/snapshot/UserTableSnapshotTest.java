@@ -0,0 +1,240 @@
+package br.com.arquivolivre.otelcrudapi.snapshot;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class UserTableSnapshotTest {
+
+    static final String CREATE_TABLE =
+            "CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL UNIQUE,"
+                    + " bio VARCHAR(255), created_at TIMESTAMP(6) NOT NULL,"
+                    + " updated_at TIMESTAMP(6))";
+
+    @TempDir Path dir;
+
+    private final DriverManagerDataSource source =
+            new DriverManagerDataSource("jdbc:h2:mem:snapshot-source;DB_CLOSE_DELAY=-1");
+    private final DriverManagerDataSource target =
+            new DriverManagerDataSource("jdbc:h2:mem:snapshot-target;DB_CLOSE_DELAY=-1");
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        execute(source, CREATE_TABLE);
+        execute(target, CREATE_TABLE);
+        execute(
+                source,
+                "INSERT INTO users (name, email, bio, created_at, updated_at) VALUES"
+                        + " ('John Doe', 'john@example.com', 'Engineer',"
+                        + " TIMESTAMP '2024-01-02 03:04:05.123456', TIMESTAMP '2024-02-01 00:00:00'),"
+                        + " ('Zoë Çelik', 'zoe@example.com', NULL,"
+                        + " TIMESTAMP '1969-12-31 23:59:59.5', NULL),"
+                        + " ('Jane Smith', 'jane@example.com', 'Café ☕ and \"quotes\"',"
+                        + " TIMESTAMP '2025-06-01 12:00:00', TIMESTAMP '2025-06-01 12:00:00')");
+        execute(source, "DELETE FROM users WHERE email = 'jane@example.com'");
+        execute(
+                source,
+                "INSERT INTO users (name, email, bio, created_at) VALUES"
+                        + " ('Jane Smith', 'jane@example.com', 'Café ☕',"
+                        + " TIMESTAMP '2025-06-01 12:00:00')");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute(source, "DROP TABLE users");
+        execute(target, "DROP TABLE users");
+    }
+
+    @Test
+    void restore_ShouldReplaceTheTableWithAnExactCopy() throws Exception {
+        Path file = dir.resolve("nested/users.snapshot");
+        execute(
+                target,
+                "INSERT INTO users (name, email, created_at) VALUES"
+                        + " ('Seed', 'seed@example.com', CURRENT_TIMESTAMP)");
+
+        try (Connection connection = source.getConnection()) {
+            assertThat(UserTableSnapshot.write(connection, file)).isEqualTo(3);
+        }
+        try (Connection connection = target.getConnection()) {
+            assertThat(UserTableSnapshot.restore(file, connection, 2)).isEqualTo(3);
+            assertThat(connection.getAutoCommit()).isTrue();
+        }
+
+        assertThat(rows(target)).isEqualTo(rows(source));
+        assertThat(Files.list(file.getParent())).containsExactly(file);
+        // Ids continue after the highest restored one (4, as jane was re-inserted)
+        execute(
+                target,
+                "INSERT INTO users (name, email, created_at) VALUES"
+                        + " ('New', 'new@example.com', CURRENT_TIMESTAMP)");
+        assertThat(rows(target).getLast()).startsWith("5|New|");
+        // The unique email constraint dropped for the load is back
+        assertThatThrownBy(
+                        () ->
+                                execute(
+                                        target,
+                                        "INSERT INTO users (name, email, created_at) VALUES"
+                                                + " ('Again', 'john@example.com', CURRENT_TIMESTAMP)"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("Unique index");
+    }
+
+    @Test
+    void restore_WithTimeInDaylightSavingGap_ShouldKeepItExactly() throws Exception {
+        // 02:30 does not exist in New York that day; a java.sql.Timestamp would turn it into 03:30
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            Path file = dir.resolve("users.snapshot");
+            execute(
+                    source,
+                    "UPDATE users SET created_at = TIMESTAMP '2021-03-14 02:30:00.000001',"
+                            + " updated_at = TIMESTAMP '2021-03-14 02:59:59'"
+                            + " WHERE email = 'john@example.com'");
+
+            try (Connection connection = source.getConnection()) {
+                UserTableSnapshot.write(connection, file);
+            }
+            restore(file);
+
+            assertThat(rows(target)).isEqualTo(rows(source));
+            assertThat(rows(target).getFirst())
+                    .endsWith("|2021-03-14 02:30:00.000001|2021-03-14 02:59:59");
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    void restore_WithEmptyTable_ShouldEmptyTheTarget() throws Exception {
+        Path file = dir.resolve("users.snapshot");
+        execute(source, "DELETE FROM users");
+        execute(
+                target,
+                "INSERT INTO users (name, email, created_at) VALUES"
+                        + " ('Seed', 'seed@example.com', CURRENT_TIMESTAMP)");
+
+        try (Connection connection = source.getConnection()) {
+            assertThat(UserTableSnapshot.write(connection, file)).isZero();
+        }
+        try (Connection connection = target.getConnection()) {
+            assertThat(UserTableSnapshot.restore(file, connection, 100)).isZero();
+        }
+        assertThat(rows(target)).isEmpty();
+    }
+
+    @Test
+    void restore_WithCorruptOrTruncatedFile_ShouldLeaveTheTableUntouched() throws Exception {
+        Path file = dir.resolve("users.snapshot");
+        try (Connection connection = source.getConnection()) {
+            UserTableSnapshot.write(connection, file);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        List<String> before = rows(target);
+
+        byte[] corrupt = bytes.clone();
+        corrupt[UserTableSnapshot.HEADER_BYTES + 3] ^= 1;
+        Files.write(file, corrupt);
+        assertThatThrownBy(() -> restore(file))
+                .isInstanceOf(UserTableSnapshot.InvalidSnapshotException.class)
+                .hasMessageContaining("checksum");
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThatThrownBy(() -> restore(file))
+                .isInstanceOf(UserTableSnapshot.InvalidSnapshotException.class);
+
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThatThrownBy(() -> restore(file))
+                .isInstanceOf(UserTableSnapshot.InvalidSnapshotException.class)
+                .hasMessageContaining("too short");
+
+        assertThat(rows(target)).isEqualTo(before);
+    }
+
+    @Test
+    void mappedReader_ShouldReadValuesAcrossWindowBoundaries() throws Exception {
+        Path file = dir.resolve("values.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < 100; i++) {
+                out.writeLong(i);
+                byte[] text = ("value " + i).getBytes(StandardCharsets.UTF_8);
+                out.writeShort(text.length);
+                out.write(text);
+            }
+            out.writeShort(0xFFFF);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            UserTableSnapshot.MappedReader reader =
+                    new UserTableSnapshot.MappedReader(channel, 0, channel.size(), 13);
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                assertThat(reader.getLong()).isEqualTo(i);
+                values.add(reader.getString());
+            }
+            assertThat(values).startsWith("value 0").endsWith("value 99");
+            assertThat(reader.getString()).isNull();
+            assertThatThrownBy(reader::getLong).isInstanceOf(EOFException.class);
+        }
+    }
+
+    private void restore(Path file) throws Exception {
+        try (Connection connection = target.getConnection()) {
+            UserTableSnapshot.restore(file, connection, 100);
+        }
+    }
+
+    static List<String> rows(DriverManagerDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet =
+                        statement.executeQuery(
+                                "SELECT id, name, email, bio, created_at, updated_at FROM users"
+                                        + " ORDER BY id")) {
+            List<String> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                rows.add(
+                        resultSet.getLong(1)
+                                + "|"
+                                + resultSet.getString(2)
+                                + "|"
+                                + resultSet.getString(3)
+                                + "|"
+                                + resultSet.getString(4)
+                                + "|"
+                                + resultSet.getString(5)
+                                + "|"
+                                + resultSet.getString(6));
+            }
+            return rows;
+        }
+    }
+
+    static void execute(DriverManagerDataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
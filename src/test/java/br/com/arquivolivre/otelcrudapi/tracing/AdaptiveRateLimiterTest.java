@@ -0,0 +1,54 @@
+package br.com.arquivolivre.otelcrudapi.tracing;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private double cpu;
+
+    private final AdaptiveRateLimiter limiter =
+            new AdaptiveRateLimiter(10, 2, 0.5, () -> cpu, clock::get);
+
+    @Test
+    void tryAcquire_ShouldAllowMaxPerSecondBelowCpuTarget() {
+        cpu = 0.3;
+
+        assertThat(acquired(20)).isEqualTo(10);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(acquired(20)).as("budget resets every second").isEqualTo(10);
+    }
+
+    @Test
+    void tryAcquire_AboveCpuTarget_ShouldShrinkBudgetTowardsMinimum() {
+        cpu = 0.75;
+        assertThat(acquired(20)).isEqualTo(5);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        cpu = 1.0;
+        assertThat(acquired(20)).isEqualTo(2);
+    }
+
+    @Test
+    void tryAcquire_WithUnavailableCpuLoad_ShouldUseMaximum() {
+        cpu = -1.0;
+
+        assertThat(acquired(20)).isEqualTo(10);
+    }
+
+    private int acquired(int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire()) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,169 @@
+package br.com.arquivolivre.otelcrudapi.tracing;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RouteSamplerTest {
+
+    private RouteSampler sampler;
+    private ErrorSpanProcessor errorSpanProcessor;
+    private CapturingExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        setUp(1000);
+    }
+
+    private void setUp(int maxTracesPerSecond) {
+        AdaptiveRateLimiter limiter =
+                new AdaptiveRateLimiter(maxTracesPerSecond, 0, 0.9, () -> 0.0, () -> 0L);
+        sampler =
+                new RouteSampler(
+                        List.of("GET /api/users/{id:\\d+}=0.0", "GET /api/users/search=1.0"),
+                        1.0,
+                        limiter);
+        exporter = new CapturingExporter();
+        errorSpanProcessor = new ErrorSpanProcessor();
+        errorSpanProcessor.attach(
+                SimpleSpanProcessor.builder(exporter).setExportUnsampledSpans(true).build());
+        tracerProvider =
+                SdkTracerProvider.builder()
+                        .setSampler(sampler)
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .addSpanProcessor(errorSpanProcessor)
+                        .build();
+        tracer = tracerProvider.get("test");
+        registry = new SimpleMeterRegistry();
+        sampler.bindTo(registry);
+        errorSpanProcessor.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void shouldSample_RouteWithZeroRatio_ShouldOnlyRecordServerSpanAndDropChildren() {
+        Span server = serverSpan("GET", "/api/users/42");
+        assertThat(server.isRecording()).as("kept for error export").isTrue();
+        try (Scope ignored = server.makeCurrent()) {
+            Span child = tracer.spanBuilder("SELECT users").startSpan();
+            assertThat(child.isRecording()).isFalse();
+            child.end();
+        }
+        server.end();
+
+        assertThat(server.getSpanContext().isSampled()).isFalse();
+        assertThat(exporter.spans).isEmpty();
+        assertThat(decisions("GET /api/users/{id:\\d+}", "not_sampled")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSample_Writes_ShouldAlwaysSampleWholeTrace() {
+        Span server = serverSpan("POST", "/api/users");
+        try (Scope ignored = server.makeCurrent()) {
+            tracer.spanBuilder("INSERT users").startSpan().end();
+        }
+        server.end();
+
+        assertThat(exporter.spans).hasSize(2);
+        assertThat(decisions("write", "sampled")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSample_UnmatchedRoute_ShouldUseDefaultRatio() {
+        serverSpan("GET", "/api/users/stats").end();
+        serverSpan("GET", "/api/users/search").end();
+
+        assertThat(exporter.spans).hasSize(2);
+        assertThat(decisions("default", "sampled")).isEqualTo(1);
+        assertThat(decisions("GET /api/users/search", "sampled")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSample_OverRateLimit_ShouldStopSamplingNewTraces() {
+        tracerProvider.close();
+        setUp(2);
+
+        for (int i = 0; i < 5; i++) {
+            serverSpan("GET", "/api/users").end();
+        }
+
+        assertThat(exporter.spans).hasSize(2);
+        assertThat(decisions("default", "rate_limited")).isEqualTo(3);
+    }
+
+    @Test
+    void onEnd_UnsampledServerSpanWithError_ShouldStillBeExported() {
+        Span failed = serverSpan("GET", "/api/users/7");
+        failed.setStatus(StatusCode.ERROR);
+        failed.end();
+        serverSpan("GET", "/api/users/8").end();
+
+        assertThat(exporter.spans).hasSize(1);
+        assertThat(exporter.spans.get(0).getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+        assertThat(registry.get("tracing.sampler.error.spans").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    private Span serverSpan(String method, String path) {
+        return tracer.spanBuilder(method)
+                .setSpanKind(SpanKind.SERVER)
+                .setAllAttributes(
+                        Attributes.of(
+                                RouteSampler.HTTP_REQUEST_METHOD, method,
+                                RouteSampler.URL_PATH, path))
+                .startSpan();
+    }
+
+    private double decisions(String rule, String decision) {
+        return registry.get("tracing.sampler.decisions")
+                .tag("rule", rule)
+                .tag("decision", decision)
+                .functionCounter()
+                .count();
+    }
+
+    private static final class CapturingExporter implements SpanExporter {
+
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.arquivolivre.otelcrudapi.web;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class BulkheadFilterTest {
+
+    private final BulkheadFilter filter =
+            new BulkheadFilter(
+                    List.of("reads=2", "search=1"),
+                    List.of("GET /api/users/search=search", "GET /api/users/**=reads"),
+                    Duration.ZERO);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger served = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void fullGroup_ShouldRejectWith503AndRetryAfter() throws Exception {
+        CompletableFuture<MockHttpServletResponse> slow = holdInBackground("/api/users/search");
+        await().atMost(Duration.ofSeconds(5)).until(() -> filter.getActive("search") == 1);
+
+        MockHttpServletResponse rejected = get("/api/users/search", passThrough());
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("Too many concurrent search requests");
+        release.countDown();
+        assertThat(slow.get().getStatus()).isEqualTo(200);
+        assertThat(filter.getActive("search")).isZero();
+    }
+
+    @Test
+    void fullGroup_ShouldNotAffectOtherGroups() throws Exception {
+        holdInBackground("/api/users/search");
+        await().atMost(Duration.ofSeconds(5)).until(() -> filter.getActive("search") == 1);
+
+        assertThat(get("/api/users/42", passThrough()).getStatus()).isEqualTo(200);
+        assertThat(served).hasValue(1);
+    }
+
+    @Test
+    void unmatchedRoutes_ShouldNotBeLimited() throws Exception {
+        BulkheadFilter none =
+                new BulkheadFilter(
+                        List.of("reads=0"), List.of("GET /api/users/**=reads"), Duration.ZERO);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        none.doFilter(request, response, passThrough());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(served).hasValue(1);
+    }
+
+    @Test
+    void bindTo_ShouldCountRejections() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        holdInBackground("/api/users/search");
+        await().atMost(Duration.ofSeconds(5)).until(() -> filter.getActive("search") == 1);
+
+        get("/api/users/search", passThrough());
+
+        assertThat(
+                        registry.get("bulkhead.rejected")
+                                .tag("group", "search")
+                                .functionCounter()
+                                .count())
+                .isEqualTo(1);
+        assertThat(registry.get("bulkhead.active").tag("group", "search").gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.get("bulkhead.limit").tag("group", "reads").gauge().value())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void constructor_ShouldRejectRoutesToUnknownGroups() {
+        assertThatThrownBy(
+                        () ->
+                                new BulkheadFilter(
+                                        List.of("reads=1"),
+                                        List.of("POST /api/users=writes"),
+                                        Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown group writes");
+    }
+
+    private CompletableFuture<MockHttpServletResponse> holdInBackground(String uri) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return get(
+                                uri,
+                                (request, response) -> {
+                                    try {
+                                        release.await();
+                                    } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                    }
+                                });
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
+
+    private MockHttpServletResponse get(String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        return response;
+    }
+
+    private FilterChain passThrough() {
+        return (request, response) -> served.incrementAndGet();
+    }
+}
@@ -0,0 +1,173 @@
+package br.com.arquivolivre.otelcrudapi.web;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class IdempotencyStoreTest {
+
+    private AtomicLong clock;
+    private IdempotencyStore store;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        store = new IdempotencyStore(Duration.ofMinutes(1), 3, clock::get);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void execute_WithRepeatedKey_ShouldReplayFirstResponse() {
+        ResponseEntity<?> first = store.execute("key-1", "payload", this::created);
+        ResponseEntity<?> retry = store.execute("key-1", "payload", this::created);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void execute_WithConcurrentDuplicates_ShouldWaitForInFlightRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<ResponseEntity<?>> original =
+                    executor.submit(
+                            () ->
+                                    store.execute(
+                                            "key-1",
+                                            "payload",
+                                            () -> {
+                                                started.countDown();
+                                                await(release);
+                                                return created();
+                                            }));
+            started.await();
+            Future<ResponseEntity<?>> duplicate =
+                    executor.submit(() -> store.execute("key-1", "payload", this::created));
+
+            assertThat(duplicate.isDone()).isFalse();
+            release.countDown();
+
+            assertThat(duplicate.get().getBody()).isEqualTo(original.get().getBody());
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_WithDifferentPayloadForSameKey_ShouldReject() {
+        store.execute("key-1", "payload", this::created);
+
+        assertThatThrownBy(() -> store.execute("key-1", "other payload", this::created))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_AfterServerError_ShouldRunAgain() {
+        store.execute("key-1", "payload", () -> ResponseEntity.internalServerError().build());
+        ResponseEntity<?> retry = store.execute("key-1", "payload", this::created);
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_AfterTtl_ShouldRunAgain() {
+        store.execute("key-1", "payload", this::created);
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        store.execute("key-1", "payload", this::created);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void execute_BeyondMaxEntries_ShouldEvictOldestKeys() {
+        for (int i = 0; i < 5; i++) {
+            store.execute("key-" + i, "payload", this::created);
+        }
+
+        assertThat(store.size()).isEqualTo(3);
+        store.execute("key-0", "payload", this::created);
+        assertThat(executions).hasValue(6);
+    }
+
+    @Test
+    void execute_WhenActionThrowsError_ShouldLetRetriesRunAgain() throws Exception {
+        assertThatThrownBy(
+                        () ->
+                                store.execute(
+                                        "key-1",
+                                        "payload",
+                                        () -> {
+                                            throw new StackOverflowError();
+                                        }))
+                .isInstanceOf(StackOverflowError.class);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<ResponseEntity<?>> retry =
+                    executor.submit(() -> store.execute("key-1", "payload", this::created));
+            assertThat(retry.get(5, TimeUnit.SECONDS).getStatusCode())
+                    .isEqualTo(HttpStatus.CREATED);
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_BeyondMaxEntries_ShouldKeepRequestsInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<ResponseEntity<?>> original =
+                    executor.submit(
+                            () ->
+                                    store.execute(
+                                            "key-0",
+                                            "payload",
+                                            () -> {
+                                                started.countDown();
+                                                await(release);
+                                                return created();
+                                            }));
+            started.await();
+            for (int i = 1; i < 5; i++) {
+                store.execute("key-" + i, "payload", this::created);
+            }
+            Future<ResponseEntity<?>> duplicate =
+                    executor.submit(() -> store.execute("key-0", "payload", this::created));
+            release.countDown();
+
+            assertThat(duplicate.get().getBody()).isEqualTo(original.get().getBody());
+        }
+        assertThat(executions).hasValue(5);
+    }
+
+    private ResponseEntity<?> created() {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body("user-" + executions.incrementAndGet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}